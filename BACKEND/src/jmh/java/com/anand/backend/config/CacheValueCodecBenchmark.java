@@ -0,0 +1,86 @@
+package com.anand.backend.config;
+
+import com.anand.backend.entity.Movie;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous JSON cache serializer with {@link CompactCacheSerializer} on a typical
+ * {@code videoMetadata} entry.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}. The encoded size of each variant is
+ * printed during setup, since Redis memory is half of what this change is about.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+    @Param({"legacy-json", "smile", "smile-lz4", "cbor-lz4"})
+    public String variant;
+
+    private RedisSerializer<Object> serializer;
+    private Movie movie;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = switch (variant) {
+            case "legacy-json" -> {
+                GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+                json.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+                yield json;
+            }
+            case "smile" -> new CompactCacheSerializer(CacheValueCodec.SMILE, 0);
+            case "smile-lz4" -> new CompactCacheSerializer(CacheValueCodec.SMILE, 256);
+            case "cbor-lz4" -> new CompactCacheSerializer(CacheValueCodec.CBOR, 256);
+            default -> throw new IllegalArgumentException(variant);
+        };
+
+        String baseUrl = "http://localhost:8080/api/movies/stream/6761c0ffee0123456789abcd/";
+        movie = Movie.builder()
+                .movieId("6761c0ffee0123456789abcd")
+                .movieTitle("The Dark Knight")
+                .movieDescription("When the menace known as the Joker wreaks havoc and chaos on the people of Gotham, "
+                        + "Batman must accept one of the greatest psychological and physical tests of his ability "
+                        + "to fight injustice.")
+                .moviePoster("https://image.tmdb.org/t/p/w500/qJ2tW6WMUDux911r6m7haRef0WH.jpg")
+                .genres(List.of("Action", "Crime", "Drama"))
+                .imdbRating(9.0)
+                .releaseYear(2008)
+                .releaseDate(Instant.parse("2008-07-18T00:00:00Z"))
+                .createdAt(Instant.parse("2025-12-29T10:15:30Z"))
+                .videoDetails(Movie.VideoDetails.builder()
+                        .hlsMasterUrl(baseUrl + "master.m3u8")
+                        .thumbnailSpriteUrl(baseUrl + "thumbnail.jpg")
+                        .previewGifUrl(baseUrl + "preview.gif")
+                        .durationSeconds(9120)
+                        .processingCompleted(true)
+                        .build())
+                .statistics(Movie.Statistics.builder().views(48213).likes(3120).build())
+                .build();
+
+        encoded = serializer.serialize(movie);
+        System.out.printf("%n%s: %d bytes%n", variant, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(movie);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,57 @@
+package com.anand.backend.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and Vector API kernels of {@link FactorScoring} on one user against a
+ * catalog-sized, component-major movie factor matrix (15 components, as in the recommender).
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=FactorScoring}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class FactorScoringBenchmark {
+
+    private static final int COMPONENTS = 15;
+
+    @Param({"1000", "10000", "100000"})
+    public int movies;
+
+    private float[] user;
+    private float[] factors;
+    private float[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        user = new float[COMPONENTS];
+        for (int c = 0; c < COMPONENTS; c++) {
+            user[c] = random.nextFloat();
+        }
+        factors = new float[COMPONENTS * movies];
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = random.nextFloat();
+        }
+        out = new float[movies];
+    }
+
+    @Benchmark
+    public float[] scalar() {
+        FactorScoring.scalarScores(user, factors, movies, out);
+        return out;
+    }
+
+    @Benchmark
+    public float[] vector() {
+        VectorFactorScoring.scores(user, factors, movies, out);
+        return out;
+    }
+}
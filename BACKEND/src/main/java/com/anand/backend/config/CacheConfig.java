@@ -1,13 +1,17 @@
 package com.anand.backend.config;
 
-import org.springframework.cache.CacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -16,11 +20,16 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Redis cache configuration for distributed caching.
+ * Two-level cache configuration: in-process Caffeine (L1) in front of Redis (L2).
  * <p>
- * Configures RedisCacheManager with multiple cache regions, each having
- * specific TTL (Time-To-Live) settings optimized for their use cases.
- * Utilizes Redis as an in-memory data store for high-performance caching.
+ * Configures a {@link TwoLevelCacheManager} with multiple cache regions, each having
+ * specific TTL (Time-To-Live) settings per tier. Hot keys are served from local memory
+ * without a network round trip; Redis stays the shared source of cached values and
+ * carries invalidation messages between instances.
+ * <p>
+ * L2 values are written by {@link CompactCacheSerializer}: a binary Jackson codec chosen
+ * per region, LZ4-compressed above a size threshold, and framed with a format version so
+ * entries written by older or newer builds remain readable (or are skipped as misses).
  * 
  * @author Your Team Name
  * @version 1.0
@@ -29,22 +38,38 @@ import java.util.Map;
 @Configuration
 @EnableCaching
 public class CacheConfig {
+
+    @Value("${cache.codec.default:SMILE}")
+    private CacheValueCodec defaultCodec;
+
+    @Value("${cache.compression-threshold-bytes:512}")
+    private int compressionThreshold;
     
     /**
-     * Configures the Redis cache manager with custom cache regions.
+     * Configures the two-level cache manager with custom cache regions.
      * <p>
-     * Cache regions:
+     * Cache regions (L1 TTL / L2 TTL):
      * <ul>
-     *   <li><b>userAccess</b>: User video access permissions (TTL: 5 minutes)</li>
-     *   <li><b>videoMetadata</b>: Video metadata and details (TTL: 15 minutes)</li>
-     *   <li><b>tokenBlacklist</b>: Revoked JWT tokens (TTL: 1 hour)</li>
+     *   <li><b>userAccess</b>: User video access permissions (1 minute / 5 minutes)</li>
+     *   <li><b>videoMetadata</b>: Movie documents by ID (2 minutes / 15 minutes)</li>
+     *   <li><b>tokenBlacklist</b>: Revoked JWT tokens (30 seconds / 1 hour)</li>
+     *   <li><b>userIdentity</b>: Firebase UID to user ID and role (1 minute / 10 minutes)</li>
      * </ul>
+     * L1 TTLs are kept short because they bound how stale a node can be if it misses
+     * an invalidation message. Every region writes the {@code cache.codec.default} format
+     * unless {@code cache.codec.regions.<name>} selects another one.
      *
      * @param connectionFactory the Redis connection factory
+     * @param environment       source of per-region codec overrides
+     * @param redisTemplate     template used to publish invalidation messages
+     * @param meterRegistry     registry for per-tier hit/miss metrics
      * @return configured cache manager instance
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             Environment environment,
+                                             RedisTemplate<String, String> redisTemplate,
+                                             MeterRegistry meterRegistry) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMinutes(5))
             .serializeKeysWith(
@@ -54,7 +79,7 @@ public class CacheConfig {
             )
             .serializeValuesWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(
-                    new GenericJackson2JsonRedisSerializer()
+                    new CompactCacheSerializer(defaultCodec, compressionThreshold)
                 )
             )
             .disableCachingNullValues();
@@ -73,9 +98,64 @@ public class CacheConfig {
             defaultConfig.entryTtl(Duration.ofHours(1))
         );
         
-        return RedisCacheManager.builder(connectionFactory)
+        cacheConfigs.put("userIdentity", 
+            defaultConfig.entryTtl(Duration.ofMinutes(10))
+        );
+
+        cacheConfigs.replaceAll((name, config) -> {
+            CacheValueCodec codec = environment.getProperty("cache.codec.regions." + name, CacheValueCodec.class);
+            return codec == null ? config : withCodec(config, codec);
+        });
+        
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
             .withInitialCacheConfigurations(cacheConfigs)
             .build();
+        redisCacheManager.afterPropertiesSet();
+
+        Map<String, TwoLevelCacheManager.L1Spec> localSpecs = new HashMap<>();
+        localSpecs.put("userAccess", new TwoLevelCacheManager.L1Spec(10_000, Duration.ofMinutes(1)));
+        localSpecs.put("videoMetadata", new TwoLevelCacheManager.L1Spec(5_000, Duration.ofMinutes(2)));
+        localSpecs.put("tokenBlacklist", new TwoLevelCacheManager.L1Spec(10_000, Duration.ofSeconds(30)));
+        localSpecs.put("userIdentity", new TwoLevelCacheManager.L1Spec(50_000, Duration.ofMinutes(1)));
+
+        return new TwoLevelCacheManager(
+            redisCacheManager,
+            localSpecs,
+            new TwoLevelCacheManager.L1Spec(1_000, Duration.ofMinutes(1)),
+            redisTemplate,
+            meterRegistry
+        );
+    }
+
+    /**
+     * Returns a copy of the given region configuration that writes values with another codec.
+     *
+     * @param config the base region configuration
+     * @param codec  the value format for the region
+     * @return the reconfigured region configuration
+     */
+    private RedisCacheConfiguration withCodec(RedisCacheConfiguration config, CacheValueCodec codec) {
+        return config.serializeValuesWith(
+            RedisSerializationContext.SerializationPair.fromSerializer(
+                new CompactCacheSerializer(codec, compressionThreshold)
+            )
+        );
+    }
+
+    /**
+     * Subscribes the cache manager to cross-node L1 invalidation messages.
+     *
+     * @param connectionFactory the Redis connection factory
+     * @param cacheManager      the two-level cache manager receiving the messages
+     * @return listener container bound to {@link TwoLevelCacheManager#INVALIDATION_CHANNEL}
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
     }
 }
@@ -0,0 +1,72 @@
+package com.anand.backend.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Wire formats available for cached values.
+ * <p>
+ * All formats carry the same Jackson type information as the original JSON serializer, so any
+ * cacheable object round-trips without per-class schemas. {@link #JSON} writes the legacy
+ * unframed bytes and stays readable by nodes that predate {@link CompactCacheSerializer};
+ * {@link #SMILE} and {@link #CBOR} are binary encodings of the same data model that skip repeated
+ * field names and textual numbers.
+ * </p>
+ */
+public enum CacheValueCodec {
+
+    JSON(1),
+    SMILE(2),
+    CBOR(3);
+
+    private final byte id;
+
+    CacheValueCodec(int id) {
+        this.id = (byte) id;
+    }
+
+    /**
+     * @return The identifier stored in the header of framed cache values.
+     */
+    public byte id() {
+        return id;
+    }
+
+    /**
+     * Looks up a codec by its header identifier.
+     *
+     * @param id The identifier read from a framed value.
+     * @return The codec, or null if this build does not know it.
+     */
+    public static CacheValueCodec fromId(byte id) {
+        for (CacheValueCodec codec : values()) {
+            if (codec.id == id) return codec;
+        }
+        return null;
+    }
+
+    /**
+     * Creates the typed Jackson serializer for this format.
+     *
+     * @return A serializer that embeds class names the same way as the default Redis JSON serializer.
+     */
+    RedisSerializer<Object> createSerializer() {
+        ObjectMapper mapper = switch (this) {
+            case JSON -> new ObjectMapper();
+            case SMILE -> new ObjectMapper(new SmileFactory());
+            case CBOR -> new ObjectMapper(new CBORFactory());
+        };
+        mapper.registerModule(new JavaTimeModule());
+        // Entries written by a newer build may carry fields this build does not know yet
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(mapper)
+                .defaultTyping(true)
+                .build();
+    }
+}
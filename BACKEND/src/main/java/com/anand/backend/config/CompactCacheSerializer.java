@@ -0,0 +1,141 @@
+package com.anand.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Redis value serializer that writes a small versioned frame around a {@link CacheValueCodec}
+ * payload, optionally compressed with LZ4.
+ * <p>
+ * Frame layout: {@code MAGIC | FORMAT_VERSION | codec id | flags [| raw length] | payload}. The
+ * length is present only when the LZ4 flag is set. Payloads shorter than the compression
+ * threshold are stored as-is, since LZ4 gains little on small values and costs a copy.
+ * </p>
+ * <p>
+ * Reading is driven by the frame, not by this serializer's own configuration, so a region can
+ * switch codecs without flushing Redis. Values without the magic byte are legacy JSON written by
+ * the previous serializer and are still decoded. Frames from a newer format version or an
+ * unknown codec are treated as cache misses rather than errors, which keeps rolling deploys safe
+ * in both directions. Corrupt frames, such as a raw length that is negative, above
+ * {@value #MAX_RAW_LENGTH} bytes or different from what LZ4 actually produced, fail with a
+ * {@link SerializationException}, which {@link TwoLevelCache} also reads as a miss.
+ * </p>
+ */
+@Slf4j
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xCA;
+    static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_LENGTH = 4;
+    static final int MAX_RAW_LENGTH = 64 * 1024 * 1024;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final CacheValueCodec codec;
+    private final int compressionThreshold;
+    private final Map<CacheValueCodec, RedisSerializer<Object>> delegates = new EnumMap<>(CacheValueCodec.class);
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    /**
+     * @param codec                The format used for new values.
+     * @param compressionThreshold Payloads of at least this many bytes are LZ4-compressed; 0 or less disables compression.
+     */
+    public CompactCacheSerializer(CacheValueCodec codec, int compressionThreshold) {
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+        for (CacheValueCodec each : CacheValueCodec.values()) {
+            delegates.put(each, each.createSerializer());
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] payload = delegates.get(codec).serialize(value);
+        // Plain JSON stays unframed so nodes still running the old serializer can read it
+        if (codec == CacheValueCodec.JSON || payload == null) {
+            return payload;
+        }
+
+        if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+            byte[] compressed = new byte[HEADER_LENGTH + Integer.BYTES + compressor.maxCompressedLength(payload.length)];
+            writeHeader(compressed, FLAG_LZ4);
+            ByteBuffer.wrap(compressed, HEADER_LENGTH, Integer.BYTES).putInt(payload.length);
+            int length = compressor.compress(payload, 0, payload.length,
+                    compressed, HEADER_LENGTH + Integer.BYTES);
+            int total = HEADER_LENGTH + Integer.BYTES + length;
+            if (total < HEADER_LENGTH + payload.length) {
+                byte[] framed = new byte[total];
+                System.arraycopy(compressed, 0, framed, 0, total);
+                return framed;
+            }
+        }
+
+        byte[] framed = new byte[HEADER_LENGTH + payload.length];
+        writeHeader(framed, (byte) 0);
+        System.arraycopy(payload, 0, framed, HEADER_LENGTH, payload.length);
+        return framed;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return delegates.get(CacheValueCodec.JSON).deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] > FORMAT_VERSION) {
+            log.debug("Skipping cache value with unsupported frame version {}", bytes.length > 1 ? bytes[1] : -1);
+            return null;
+        }
+        CacheValueCodec frameCodec = CacheValueCodec.fromId(bytes[2]);
+        if (frameCodec == null) {
+            log.debug("Skipping cache value with unknown codec {}", bytes[2]);
+            return null;
+        }
+
+        byte[] payload;
+        if ((bytes[3] & FLAG_LZ4) != 0) {
+            int offset = HEADER_LENGTH + Integer.BYTES;
+            if (bytes.length < offset) {
+                throw new SerializationException("Truncated LZ4 cache value");
+            }
+            int rawLength = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+            if (rawLength < 0 || rawLength > MAX_RAW_LENGTH) {
+                throw new SerializationException("Corrupt LZ4 cache value: raw length " + rawLength);
+            }
+            payload = new byte[rawLength];
+            int decompressed;
+            try {
+                decompressed = decompressor.decompress(bytes, offset, bytes.length - offset, payload, 0);
+            } catch (RuntimeException e) {
+                throw new SerializationException("Corrupt LZ4 cache value", e);
+            }
+            if (decompressed != rawLength) {
+                throw new SerializationException("Corrupt LZ4 cache value: " + decompressed
+                        + " bytes decompressed, " + rawLength + " expected");
+            }
+        } else {
+            payload = new byte[bytes.length - HEADER_LENGTH];
+            System.arraycopy(bytes, HEADER_LENGTH, payload, 0, payload.length);
+        }
+        return delegates.get(frameCodec).deserialize(payload);
+    }
+
+    private void writeHeader(byte[] target, byte flags) {
+        target[0] = MAGIC;
+        target[1] = FORMAT_VERSION;
+        target[2] = codec.id();
+        target[3] = flags;
+    }
+}
@@ -47,6 +47,8 @@ public class SecurityConfig {
                         // Public endpoints: General public API, HLS streaming, and WebSocket connections
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers("/api/movies/stream/**").permitAll()
+                        // HLS segments are authorized by the signed token in their URL
+                        .requestMatchers("/api/videos/*/segments/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()
 
                         // All other endpoints require a valid authentication token
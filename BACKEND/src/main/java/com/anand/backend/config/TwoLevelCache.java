@@ -0,0 +1,176 @@
+package com.anand.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Cache} that layers a bounded in-JVM cache (L1) in front of a Redis cache (L2).
+ * <p>
+ * Reads try L1 first, then L2, and copy L2 hits into L1. L2 values that cannot be deserialized
+ * count as misses. Writes and evictions go to both tiers
+ * and are announced through the supplied publisher so other instances can drop their L1 copy.
+ * L1 entries also expire on their own after a short TTL, which bounds staleness if an
+ * invalidation message is lost.
+ * </p>
+ * <p>
+ * Keys are normalized to strings in L1 so they match the keys carried by invalidation messages
+ * (Redis keys are strings as well).
+ * </p>
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    /**
+     * @param name                  The cache region name.
+     * @param local                 The bounded L1 cache.
+     * @param remote                The Redis-backed L2 cache for the same region.
+     * @param invalidationPublisher Called with (region, key) after a write or eviction; key is null for a clear.
+     * @param meterRegistry         Registry for per-tier hit and miss counters.
+     */
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         BiConsumer<String, String> invalidationPublisher,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.l1Hits = tierCounter(meterRegistry, "l1", "hit");
+        this.l1Misses = tierCounter(meterRegistry, "l1", "miss");
+        this.l2Hits = tierCounter(meterRegistry, "l2", "hit");
+        this.l2Misses = tierCounter(meterRegistry, "l2", "miss");
+        meterRegistry.gauge("cache.tier.size", Tags.of("cache", name, "tier", "l1"),
+                local, c -> (double) c.estimatedSize());
+    }
+
+    private Counter tierCounter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .description("Lookups per cache tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = key.toString();
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper;
+        try {
+            wrapper = remote.get(key);
+        } catch (SerializationException e) {
+            // An unreadable L2 value is a miss; the next put overwrites it
+            wrapper = null;
+        }
+        if (wrapper != null && wrapper.get() != null) {
+            l2Hits.increment();
+            local.put(localKey, wrapper.get());
+            return wrapper;
+        }
+        l2Misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            remote.put(key, value);
+            local.put(key.toString(), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        remote.put(key, value);
+        local.put(key.toString(), value);
+        invalidationPublisher.accept(name, key.toString());
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key.toString());
+        invalidationPublisher.accept(name, key.toString());
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops an entry from L1 only, in response to another instance's invalidation.
+     *
+     * @param key The key to drop, or null to drop every L1 entry of this region.
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+}
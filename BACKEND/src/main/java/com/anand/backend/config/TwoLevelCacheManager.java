@@ -0,0 +1,108 @@
+package com.anand.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} that hands out {@link TwoLevelCache} regions backed by Caffeine (L1) and
+ * Redis (L2), and keeps L1 coherent across instances through Redis pub/sub.
+ * <p>
+ * Every write, eviction or clear publishes {@code instanceId \n cacheName \n key} on
+ * {@link #INVALIDATION_CHANNEL} ({@code *} as key means "clear the region"). Each instance drops the
+ * matching L1 entry on receipt and ignores its own messages, so the next read falls through to
+ * Redis and picks up the new value.
+ * </p>
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    private static final String CLEAR_ALL = "*";
+
+    /**
+     * Sizing of an L1 region.
+     *
+     * @param maxSize The maximum number of entries held in memory.
+     * @param ttl     How long an entry may live in memory; bounds staleness if an invalidation is missed.
+     */
+    public record L1Spec(long maxSize, Duration ttl) {}
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RedisCacheManager remoteManager;
+    private final Map<String, L1Spec> l1Specs;
+    private final L1Spec defaultSpec;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager remoteManager,
+                                Map<String, L1Spec> l1Specs,
+                                L1Spec defaultSpec,
+                                RedisTemplate<String, String> redisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.remoteManager = remoteManager;
+        this.l1Specs = Map.copyOf(l1Specs);
+        this.defaultSpec = defaultSpec;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteManager.getCacheNames();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = remoteManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No Redis cache configured for region " + name);
+        }
+        L1Spec spec = l1Specs.getOrDefault(name, defaultSpec);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.maxSize())
+                .expireAfterWrite(spec.ttl())
+                .build();
+        return new TwoLevelCache(name, local, remote, this::publishInvalidation, meterRegistry);
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        String message = instanceId + "\n" + cacheName + "\n" + (key == null ? CLEAR_ALL : key);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // Peers still converge once their L1 TTL expires
+            log.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(CLEAR_ALL.equals(parts[2]) ? null : parts[2]);
+        }
+    }
+}
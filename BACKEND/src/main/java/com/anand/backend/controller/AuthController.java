@@ -1,7 +1,10 @@
 package com.anand.backend.controller;
 
 import com.anand.backend.entity.User;
+import com.anand.backend.enums.UserRole;
 import com.anand.backend.repository.UserRepository;
+import com.anand.backend.security.CurrentUser;
+import com.anand.backend.security.UserIdentity;
 import com.anand.backend.service.UserService;
 import com.google.firebase.auth.FirebaseToken; // Import Firebase
 import lombok.RequiredArgsConstructor;
@@ -55,15 +58,14 @@ public class AuthController {
     /**
      * Retrieves the currently authenticated user's profile.
      *
-     * @param principal The authenticated user principal.
+     * @param identity The resolved identity of the caller.
      * @return The User entity if found, or 404 Not Found.
      */
     @GetMapping("/user")
-    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal Object principal) {
-        FirebaseToken token = (FirebaseToken) principal;
-        if (token == null) return ResponseEntity.status(401).build();
+    public ResponseEntity<User> getCurrentUser(@CurrentUser UserIdentity identity) {
+        if (identity == null) return ResponseEntity.status(401).build();
 
-        return userRepository.findByEmail(token.getEmail())
+        return userRepository.findById(identity.userId())
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -71,15 +73,12 @@ public class AuthController {
     /**
      * Retrieves all users (Admin only).
      *
-     * @param principal The authenticated user principal.
+     * @param identity The resolved identity of the caller.
      * @return A list of all users if the requester is an Admin, otherwise 403 Forbidden.
      */
     @GetMapping
-    public ResponseEntity<?> getAllUsers(@AuthenticationPrincipal Object principal) {
-        FirebaseToken token = (FirebaseToken) principal;
-        User currentUser = userService.getUserByEmail(token.getEmail()).orElse(null);
-
-        if (currentUser == null || currentUser.getRole() != com.anand.backend.enums.UserRole.ADMIN) {
+    public ResponseEntity<?> getAllUsers(@CurrentUser UserIdentity identity) {
+        if (identity == null || !identity.isAdmin()) {
             return ResponseEntity.status(403).body("Access Denied: Admins only");
         }
         return ResponseEntity.ok(userService.getAllUsers());
@@ -92,20 +91,17 @@ public class AuthController {
      * </p>
      *
      * @param id        The ID of the user to retrieve.
-     * @param principal The authenticated user principal.
+     * @param identity  The resolved identity of the caller.
      * @return The User entity if authorized and found, otherwise 403 Forbidden or 404 Not Found.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable String id, @AuthenticationPrincipal Object principal) {
-        FirebaseToken token = (FirebaseToken) principal;
-        User currentUser = userService.getUserByEmail(token.getEmail()).orElse(null);
-
-        if (currentUser == null) {
+    public ResponseEntity<?> getUserById(@PathVariable String id, @CurrentUser UserIdentity identity) {
+        if (identity == null) {
             return ResponseEntity.status(401).build();
         }
 
         // Allow if Admin OR if requesting own profile
-        if (currentUser.getRole() == com.anand.backend.enums.UserRole.ADMIN || currentUser.getId().equals(id)) {
+        if (identity.isAdmin() || identity.userId().equals(id)) {
             return userService.getUserById(id)
                     .map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
@@ -113,4 +109,38 @@ public class AuthController {
 
         return ResponseEntity.status(403).body("Access Denied");
     }
-}
\ No newline at end of file
+
+    /**
+     * Changes the role of a user (Admin only).
+     * <p>
+     * The cached identity of the user is evicted on every backend instance, so the new role
+     * applies from the user's next request.
+     * </p>
+     *
+     * @param id       The ID of the user to update.
+     * @param payload  A map containing 'role' (USER or ADMIN).
+     * @param identity The resolved identity of the caller.
+     * @return The updated User, 400 for an unknown role, 403 for non-admins, or 404 if not found.
+     */
+    @PutMapping("/{id}/role")
+    public ResponseEntity<?> updateRole(
+            @PathVariable String id,
+            @RequestBody Map<String, String> payload,
+            @CurrentUser UserIdentity identity
+    ) {
+        if (identity == null || !identity.isAdmin()) {
+            return ResponseEntity.status(403).body("Access Denied: Admins only");
+        }
+
+        UserRole role;
+        try {
+            role = UserRole.valueOf(String.valueOf(payload.get("role")).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown role: " + payload.get("role"));
+        }
+
+        return userService.updateRole(id, role)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.anand.backend.controller;
+
+import com.anand.backend.dto.HomeFeed;
+import com.anand.backend.security.CurrentUser;
+import com.anand.backend.security.UserIdentity;
+import com.anand.backend.service.HomeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for the home page.
+ * <p>
+ * Returns every home-page row in one response, so the page no longer issues a separate request
+ * for the carousel, each genre row, recommendations and "Continue Watching".
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/home")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class HomeController {
+
+    private static final int MAX_ROW_SIZE = 50;
+
+    private final HomeService homeService;
+
+    /**
+     * Retrieves the home page feed for the caller.
+     *
+     * @param rowSize  The maximum number of movies per row (default 20, at most 50).
+     * @param identity The resolved identity of the caller.
+     * @return The feed; rows that could not be loaded in time are empty and listed as degraded.
+     */
+    @GetMapping
+    public ResponseEntity<HomeFeed> getHomeFeed(
+            @RequestParam(defaultValue = "20") int rowSize,
+            @CurrentUser UserIdentity identity
+    ) {
+        if (identity == null) throw new RuntimeException("User not synced in DB");
+        if (rowSize <= 0) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(homeService.getHomeFeed(identity.userId(), Math.min(rowSize, MAX_ROW_SIZE)));
+    }
+}
@@ -1,9 +1,19 @@
 package com.anand.backend.controller;
 
+import com.anand.backend.dto.CursorPage;
+import com.anand.backend.dto.FacetedMoviePage;
+import com.anand.backend.dto.MovieCard;
+import com.anand.backend.dto.MovieStats;
+import com.anand.backend.dto.TitleSuggestion;
 import com.anand.backend.entity.Movie;
-import com.anand.backend.entity.User;
+import com.anand.backend.enums.MovieSort;
+import com.anand.backend.security.CurrentUser;
+import com.anand.backend.security.UserIdentity;
+import com.anand.backend.service.InteractionOutbox;
 import com.anand.backend.service.MovieService;
 import com.anand.backend.service.MLRecommendationService;
+import com.anand.backend.service.MLServiceClient;
+import com.anand.backend.service.ModelTrainingService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +27,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import com.google.firebase.auth.FirebaseToken;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.util.List;
@@ -49,9 +59,18 @@ public class MovieController {
     @Autowired
     private MLRecommendationService mlRecommendationService;
 
+    @Autowired
+    private ModelTrainingService modelTrainingService;
+
+    @Autowired
+    private InteractionOutbox interactionOutbox;
+
     @Value("${video.processed.dir:processed}")
     private String processedDir;
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_INTERACTION_EXPORT = 100_000;
+
     /**
      * Simple health check endpoint.
      * @return A greeting message.
@@ -75,7 +94,7 @@ public class MovieController {
      * @param poster      The URL of the movie poster image.
      * @param releaseYear The year the movie was released.
      * @param file        The video file to be uploaded.
-     * @param principal   The authenticated user principal (Firebase Token).
+     * @param identity    The resolved identity of the caller.
      * @return ResponseEntity containing the saved Movie entity or an error status.
      */
     @PostMapping("/upload")
@@ -87,12 +106,9 @@ public class MovieController {
             @RequestParam(value = "poster", required = false) String poster,
             @RequestParam(value = "releaseYear", required = false) Integer releaseYear,
             @RequestParam("file") MultipartFile file,
-            @AuthenticationPrincipal Object principal
+            @CurrentUser UserIdentity identity
     ) {
-        FirebaseToken token = (FirebaseToken) principal;
-        User user = userService.getUserByEmail(token.getEmail()).orElse(null);
-
-        if (user == null || user.getRole() != com.anand.backend.enums.UserRole.ADMIN) {
+        if (identity == null || !identity.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -120,14 +136,38 @@ public class MovieController {
      *
      * @param page The page number (zero-based).
      * @param size The number of items per page.
-     * @return A Page object containing the list of movies.
+     * @return A Page object containing movie cards.
      */
     @GetMapping
-    public Page<Movie> getAllMovies(
+    public Page<MovieCard> getAllMovies(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        return movieService.getAllMovies(page, size);
+        return movieService.getAllMovies(page, size).map(MovieCard::from);
+    }
+
+    /**
+     * Retrieves a slice of all movies using cursor (keyset) pagination, newest first.
+     * <p>
+     * Intended for infinite scroll: every slice costs the same regardless of depth, and no
+     * total count is computed.
+     * </p>
+     *
+     * @param cursor The {@code nextCursor} of the previous slice; omit for the first slice.
+     * @param size   The number of items per slice (max 100).
+     * @return A CursorPage, or 400 Bad Request if the cursor is invalid.
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<MovieCard>> scrollMovies(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (size <= 0) return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(toCards(movieService.getMoviesAfter(cursor, Math.min(size, MAX_SCROLL_SIZE))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -149,15 +189,12 @@ public class MovieController {
      * </p>
      *
      * @param id        The unique identifier of the movie to delete.
-     * @param principal The authenticated user principal.
+     * @param identity The resolved identity of the caller.
      * @return ResponseEntity with 204 No Content on success, or error status.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteMovie(@PathVariable String id, @AuthenticationPrincipal Object principal) {
-        FirebaseToken token = (FirebaseToken) principal;
-        com.anand.backend.entity.User user = userService.getUserByEmail(token.getEmail()).orElse(null);
-
-        if (user == null || user.getRole() != com.anand.backend.enums.UserRole.ADMIN) {
+    public ResponseEntity<Void> deleteMovie(@PathVariable String id, @CurrentUser UserIdentity identity) {
+        if (identity == null || !identity.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -168,24 +205,46 @@ public class MovieController {
     /**
      * Increments the view count for a specific movie.
      *
-     * @param id The unique identifier of the movie.
+     * @param id       The unique identifier of the movie.
+     * @param identity The resolved identity of the caller.
      * @return ResponseEntity with a success message.
      */
     @PostMapping("/{id}/view")
-    public ResponseEntity<String> incrementView(@PathVariable String id) {
-        movieService.incrementView(id);
+    public ResponseEntity<String> incrementView(@PathVariable String id, @CurrentUser UserIdentity identity) {
+        movieService.incrementView(id, identity == null ? null : identity.userId());
         return ResponseEntity.ok("View count incremented");
     }
 
     /**
-     * Toggles the like status for a specific movie.
+     * Retrieves the current view and like counts for a specific movie.
      *
      * @param id The unique identifier of the movie.
-     * @return ResponseEntity with a success message.
+     * @return ResponseEntity containing the counters, or 404 Not Found.
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<MovieStats> getMovieStats(@PathVariable String id) {
+        MovieStats stats = movieService.getMovieStats(id);
+        return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Toggles the like status for a specific movie.
+     * <p>
+     * Likes are per user and shared with the favorites list, so this is the same atomic toggle
+     * as {@code /api/user/favorite/{movieId}}.
+     * </p>
+     *
+     * @param id        The unique identifier of the movie.
+     * @param identity  The resolved identity of the caller.
+     * @return ResponseEntity with a success message, or 401 if the user is not synced.
      */
     @PostMapping("/{id}/like")
-    public ResponseEntity<String> toggleLike(@PathVariable String id) {
-        movieService.toggleLike(id);
+    public ResponseEntity<String> toggleLike(@PathVariable String id, @CurrentUser UserIdentity identity) {
+        if (identity == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        userService.toggleFavorite(identity.userId(), id);
         return ResponseEntity.ok("Like toggled");
     }
 
@@ -267,24 +326,96 @@ public class MovieController {
 
     // Search by Title
     @GetMapping("/search")
-    public Page<Movie> searchMovies(
+    public Page<MovieCard> searchMovies(
             @RequestParam String title,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        return movieService.searchMovies(title, page, size);
+        return movieService.searchMovies(title, page, size).map(MovieCard::from);
+    }
+
+    // Search by Title, cursor-paginated (ranked by relevance)
+    @GetMapping("/search/scroll")
+    public ResponseEntity<CursorPage<MovieCard>> scrollSearchMovies(
+            @RequestParam String title,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (size <= 0) return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(toCards(movieService.searchMoviesAfter(title, cursor, Math.min(size, MAX_SCROLL_SIZE))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Trending titles by time-decayed views and likes, overall or within one genre
+    @GetMapping("/trending")
+    public ResponseEntity<List<MovieCard>> getTrending(
+            @RequestParam(required = false) String genre,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit <= 0) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(movieService.getTrending(genre, Math.min(limit, MAX_SCROLL_SIZE)));
+    }
+
+    // Typeahead suggestions (id + title only) for the search box
+    @GetMapping("/suggest")
+    public List<TitleSuggestion> suggestTitles(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return movieService.suggestTitles(q, limit);
     }
 
     // Filter by Genre (String matching)
     @GetMapping("/filter")
-    public Page<Movie> filterMovies(
+    public Page<MovieCard> filterMovies(
             @RequestParam(required = false) String genre,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
         // Note: We removed 'language' from the Service args in previous steps
         // If you need language, you must add it back to Repository and Service
-        return movieService.filterMovies(genre, page, size);
+        return movieService.filterMovies(genre, page, size).map(MovieCard::from);
+    }
+
+    // Filter by Genre, cursor-paginated (newest first)
+    @GetMapping("/filter/scroll")
+    public ResponseEntity<CursorPage<MovieCard>> scrollFilterMovies(
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (size <= 0) return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(toCards(movieService.filterMoviesAfter(genre, cursor, Math.min(size, MAX_SCROLL_SIZE))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Multi-facet filter: genres (all must match) + year range + minimum rating, with facet counts
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedMoviePage> filterByFacets(
+            @RequestParam(required = false) List<String> genres,
+            @RequestParam(required = false) Integer minYear,
+            @RequestParam(required = false) Integer maxYear,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        MovieSort movieSort;
+        try {
+            movieSort = MovieSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (page < 0 || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(movieService.filterByFacets(genres, minYear, maxYear, minRating, movieSort, page, size));
     }
 
     // --------------------------------------------------------
@@ -292,14 +423,13 @@ public class MovieController {
     // --------------------------------------------------------
 
     @GetMapping("/recommendations")
-    public ResponseEntity<List<Movie>> getRecommendations(
+    public ResponseEntity<List<MovieCard>> getRecommendations(
             @RequestParam(defaultValue = "10") int limit,
             @AuthenticationPrincipal Object principal
     ) {
         try {
             String userId = getCurrentUserId(principal);
-            List<Movie> recommendations = mlRecommendationService.getRecommendationsForUser(userId, limit);
-            return ResponseEntity.ok(recommendations);
+            return ResponseEntity.ok(mlRecommendationService.getRecommendationsForUser(userId, limit));
         } catch (Exception e) {
             log.error("Failed to get recommendations: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -307,31 +437,85 @@ public class MovieController {
     }
 
     @GetMapping("/{movieId}/similar")
-    public ResponseEntity<List<Movie>> getSimilarMovies(
+    public ResponseEntity<List<MovieCard>> getSimilarMovies(
             @PathVariable String movieId,
             @RequestParam(defaultValue = "10") int limit
     ) {
+        if (limit <= 0) return ResponseEntity.badRequest().build();
         try {
-            List<Movie> similar = mlRecommendationService.getSimilarMovies(movieId, limit);
-            return ResponseEntity.ok(similar);
+            return ResponseEntity.ok(mlRecommendationService.getSimilarMovies(movieId, Math.min(limit, MAX_SCROLL_SIZE)));
         } catch (Exception e) {
             log.error("Failed to get similar movies: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // Titles closest to a group of movies as a whole, e.g. a user's recent favorites
+    @GetMapping("/more-like-this")
+    public ResponseEntity<List<MovieCard>> getMoreLikeThis(
+            @RequestParam List<String> movieIds,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit <= 0 || movieIds.isEmpty() || movieIds.size() > MAX_SCROLL_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(mlRecommendationService.getMoreLikeThis(movieIds, Math.min(limit, MAX_SCROLL_SIZE)));
+    }
+
+    // Starts a training job (or joins the running one) and returns it at once; poll it below
     @PostMapping("/ml/train")
-    public ResponseEntity<String> trainMLModel() {
+    public ResponseEntity<MLServiceClient.TrainingJob> trainMLModel() {
         try {
-            String result = mlRecommendationService.trainModel();
-            return ResponseEntity.ok(result);
+            return ResponseEntity.accepted().body(modelTrainingService.submit());
         } catch (Exception e) {
             log.error("Failed to train model: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body("ML service unavailable");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
+    @GetMapping("/ml/train/{jobId}")
+    public ResponseEntity<MLServiceClient.TrainingJob> getTrainingJob(@PathVariable String jobId) {
+        try {
+            MLServiceClient.TrainingJob job = modelTrainingService.status(jobId);
+            return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+        } catch (Exception e) {
+            log.error("Failed to fetch training job {}: {}", jobId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Streams user interactions recorded after a cursor as newline-delimited JSON, oldest first,
+     * so the recommender can train from deltas. Resume with the {@code seq} of the last line.
+     * <p>
+     * Only users with the ADMIN role are authorized to perform this operation.
+     * </p>
+     *
+     * @param after    The last sequence number already processed (0 for the oldest event).
+     * @param limit    The maximum number of events.
+     * @param identity The resolved identity of the caller.
+     * @return The events, one JSON object per line.
+     */
+    @GetMapping(value = "/ml/interactions", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportInteractions(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "10000") int limit,
+            @CurrentUser UserIdentity identity
+    ) {
+        if (identity == null || !identity.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (after < 0 || limit <= 0 || limit > MAX_INTERACTION_EXPORT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(out -> interactionOutbox.export(after, limit, out));
+    }
+
+    // Helper to project a slice of movies to cards for list responses
+    private static CursorPage<MovieCard> toCards(CursorPage<Movie> slice) {
+        return new CursorPage<>(MovieCard.fromAll(slice.content()), slice.nextCursor(), slice.hasNext());
+    }
+
     // Helper method to get current user ID
     private String getCurrentUserId(Object principal) {
         if (principal == null) {
@@ -1,12 +1,16 @@
 package com.anand.backend.controller;
 
+import com.anand.backend.dto.ContinueWatchingItem;
+import com.anand.backend.dto.ListMembership;
+import com.anand.backend.dto.MovieCard;
 import com.anand.backend.entity.WatchProgress;
+import com.anand.backend.security.CurrentUser;
+import com.anand.backend.security.UserIdentity;
 import com.anand.backend.service.UserService;
-import com.google.firebase.auth.FirebaseToken; // Import Firebase
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,6 +23,7 @@ import java.util.Map;
  * <ul>
  *   <li>Toggling favorite movies</li>
  *   <li>Managing the "Watch Later" list</li>
+ *   <li>Paging through favorites and "Watch Later" as movie cards</li>
  *   <li>Tracking video playback progress (heartbeat)</li>
  *   <li>Retrieving "Continue Watching" history</li>
  * </ul>
@@ -31,36 +36,32 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:5173")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserService userService;
 
     /**
-     * Helper to extract the MongoDB User ID from the Firebase Token.
-     * We use the email from the token to look up the DB ID.
+     * Helper to extract the MongoDB User ID from the identity resolved by the security filter.
      */
-    private String getUserId(Object principal) {
-        if (principal == null) throw new RuntimeException("Not authenticated");
-
-        FirebaseToken token = (FirebaseToken) principal;
-
-        return userService.getUserByEmail(token.getEmail())
-                .map(user -> user.getId())
-                .orElseThrow(() -> new RuntimeException("User not synced in DB"));
+    private String getUserId(UserIdentity identity) {
+        if (identity == null) throw new RuntimeException("User not synced in DB");
+        return identity.userId();
     }
 
     /**
      * Toggles a movie in the user's favorites list.
      *
      * @param movieId   The ID of the movie to toggle.
-     * @param principal The authenticated user principal.
+     * @param identity  The resolved identity of the caller.
      * @return A success message.
      */
     @PostMapping("/favorite/{movieId}")
     public ResponseEntity<String> toggleFavorite(
             @PathVariable String movieId,
-            @AuthenticationPrincipal Object principal
+            @CurrentUser UserIdentity identity
     ) {
         try {
-            String userId = getUserId(principal);
+            String userId = getUserId(identity);
             userService.toggleFavorite(userId, movieId);
             return ResponseEntity.ok("Favorite toggled");
         } catch (Exception e) {
@@ -73,36 +74,95 @@ public class UserController {
      * Toggles a movie in the user's "Watch Later" list.
      *
      * @param movieId   The ID of the movie to toggle.
-     * @param principal The authenticated user principal.
+     * @param identity  The resolved identity of the caller.
      * @return A success message.
      */
     @PostMapping("/watch-later/{movieId}")
     public ResponseEntity<String> toggleWatchLater(
             @PathVariable String movieId,
-            @AuthenticationPrincipal Object principal
+            @CurrentUser UserIdentity identity
     ) {
-        String userId = getUserId(principal);
+        String userId = getUserId(identity);
         userService.toggleWatchLater(userId, movieId);
         return ResponseEntity.ok("Watch Later toggled");
     }
 
+    /**
+     * Retrieves one page of the user's favorites, most recently added first.
+     *
+     * @param page     The page number (0-based).
+     * @param size     The number of items per page (max 100).
+     * @param identity The resolved identity of the caller.
+     * @return A page of movie cards.
+     */
+    @GetMapping("/favorites")
+    public ResponseEntity<Page<MovieCard>> getFavorites(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @CurrentUser UserIdentity identity
+    ) {
+        if (page < 0 || size <= 0) return ResponseEntity.badRequest().build();
+        String userId = getUserId(identity);
+        return ResponseEntity.ok(userService.getFavorites(userId, page, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Retrieves one page of the user's "Watch Later" list, most recently added first.
+     *
+     * @param page     The page number (0-based).
+     * @param size     The number of items per page (max 100).
+     * @param identity The resolved identity of the caller.
+     * @return A page of movie cards.
+     */
+    @GetMapping("/watch-later")
+    public ResponseEntity<Page<MovieCard>> getWatchLater(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @CurrentUser UserIdentity identity
+    ) {
+        if (page < 0 || size <= 0) return ResponseEntity.badRequest().build();
+        String userId = getUserId(identity);
+        return ResponseEntity.ok(userService.getWatchLater(userId, page, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Tells which of the given movies are in the user's favorites and "Watch Later" list.
+     * <p>
+     * Lets a page of cards resolve its like and watch-later markers in one request.
+     * </p>
+     *
+     * @param movieIds The movies to check (max 100).
+     * @param identity The resolved identity of the caller.
+     * @return The subsets of the requested movies on each list.
+     */
+    @GetMapping("/lists/membership")
+    public ResponseEntity<ListMembership> getListMembership(
+            @RequestParam List<String> movieIds,
+            @CurrentUser UserIdentity identity
+    ) {
+        if (movieIds.size() > MAX_PAGE_SIZE) return ResponseEntity.badRequest().build();
+        String userId = getUserId(identity);
+        return ResponseEntity.ok(userService.getListMembership(userId, movieIds));
+    }
+
     /**
      * Updates the watch progress for a specific movie.
      * <p>
      * This endpoint acts as a heartbeat, receiving periodic updates from the video player
-     * to track how much of the movie the user has watched.
+     * to track how much of the movie the user has watched. Heartbeats are buffered and
+     * written in batches, so the request is answered with 202 Accepted right away.
      * </p>
      *
      * @param payload   A map containing 'movieId', 'seconds' (current timestamp), and 'duration' (total length).
-     * @param principal The authenticated user principal.
-     * @return A success message.
+     * @param identity  The resolved identity of the caller.
+     * @return 202 Accepted with a short message.
      */
     @PostMapping("/progress")
     public ResponseEntity<String> updateProgress(
             @RequestBody Map<String, Object> payload,
-            @AuthenticationPrincipal Object principal
+            @CurrentUser UserIdentity identity
     ) {
-        String userId = getUserId(principal);
+        String userId = getUserId(identity);
 
         String movieId = (String) payload.get("movieId");
         // Handle potential casting issues (Integer vs Double) from JSON
@@ -110,21 +170,26 @@ public class UserController {
         Double duration = Double.valueOf(payload.get("duration").toString());
 
         userService.updateWatchProgress(userId, movieId, seconds, duration);
-        return ResponseEntity.ok("Progress updated");
+        return ResponseEntity.accepted().body("Progress accepted");
     }
 
     /**
-     * Retrieves the user's "Continue Watching" list.
+     * Retrieves the user's "Continue Watching" feed.
+     * <p>
+     * Completed titles are left out, and each row carries the movie's card data.
+     * </p>
      *
-     * @param principal The authenticated user principal.
-     * @return A list of WatchProgress entries, sorted by most recently watched.
+     * @param limit    The maximum number of rows (default 20, at most 50).
+     * @param identity The resolved identity of the caller.
+     * @return The feed, sorted by most recently watched.
      */
     @GetMapping("/continue-watching")
-    public ResponseEntity<List<WatchProgress>> getContinueWatching(
-            @AuthenticationPrincipal Object principal
+    public ResponseEntity<List<ContinueWatchingItem>> getContinueWatching(
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser UserIdentity identity
     ) {
-        String userId = getUserId(principal);
-        return ResponseEntity.ok(userService.getContinueWatching(userId));
+        String userId = getUserId(identity);
+        return ResponseEntity.ok(userService.getContinueWatching(userId, limit));
     }
 
     /**
@@ -135,15 +200,15 @@ public class UserController {
      * </p>
      *
      * @param movieId   The ID of the movie.
-     * @param principal The authenticated user principal.
+     * @param identity  The resolved identity of the caller.
      * @return The WatchProgress if found, or 404 if not.
      */
     @GetMapping("/progress/{movieId}")
     public ResponseEntity<WatchProgress> getMovieProgress(
             @PathVariable String movieId,
-            @AuthenticationPrincipal Object principal
+            @CurrentUser UserIdentity identity
     ) {
-        String userId = getUserId(principal);
+        String userId = getUserId(identity);
         return ResponseEntity.of(userService.getWatchProgress(userId, movieId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.anand.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) for one row of the "Continue Watching" feed.
+ * <p>
+ * Combines the user's playback position with the card data of the movie, so the client can
+ * render the row without fetching each movie separately. The progress fields keep the names
+ * used by {@code WatchProgress}.
+ * </p>
+ *
+ * @param movieId              The unique identifier of the movie.
+ * @param timestampSeconds     The playback position to resume from.
+ * @param totalDurationSeconds The total duration of the movie.
+ * @param lastWatchedAt        When the user last watched the movie.
+ * @param movie                The card view of the movie.
+ */
+public record ContinueWatchingItem(
+        String movieId,
+        Double timestampSeconds,
+        Double totalDurationSeconds,
+        Instant lastWatchedAt,
+        MovieCard movie
+) {}
@@ -0,0 +1,22 @@
+package com.anand.backend.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one slice of a cursor-paginated (keyset) listing.
+ * <p>
+ * Unlike Spring's {@code Page}, it carries no total count: producing one would cost a count query
+ * on every call. Clients pass {@code nextCursor} back unchanged to fetch the following slice,
+ * which costs the same regardless of how deep into the listing it is.
+ * </p>
+ *
+ * @param content    The items in this slice.
+ * @param nextCursor An opaque token for the next slice, or null if this is the last one.
+ * @param hasNext    Whether another slice exists.
+ * @param <T>        The item type.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext
+) {}
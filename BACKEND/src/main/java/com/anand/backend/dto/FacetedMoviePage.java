@@ -0,0 +1,27 @@
+package com.anand.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) returned by the multi-facet filter endpoint.
+ * <p>
+ * Combines one page of matching movies with the number of matches per facet value, so the
+ * frontend can render filter chips with counts without issuing a query per chip.
+ * </p>
+ *
+ * @param content     Cards for the movies on the requested page, in the requested sort order.
+ * @param totalItems  The total number of movies matching all selected facets.
+ * @param page        The zero-based page number.
+ * @param size        The page size.
+ * @param genreCounts Matching movies per genre, keyed by genre display name.
+ * @param yearCounts  Matching movies per release year.
+ */
+public record FacetedMoviePage(
+        List<MovieCard> content,
+        long totalItems,
+        int page,
+        int size,
+        Map<String, Long> genreCounts,
+        Map<Integer, Long> yearCounts
+) {}
@@ -0,0 +1,34 @@
+package com.anand.backend.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) with everything the home page renders, assembled in one request.
+ * <p>
+ * Rows are filled concurrently on the server. A row that fails or misses its deadline is
+ * returned empty and listed in {@code degradedRows}, so the page still renders the rest.
+ * </p>
+ *
+ * @param featured         Newest movies for the hero carousel.
+ * @param recommended      Personalized recommendations.
+ * @param continueWatching Unfinished movies, most recently watched first.
+ * @param genreRows        One row of newest movies per non-empty genre.
+ * @param degradedRows     Names of the rows that fell back to an empty result.
+ */
+public record HomeFeed(
+        List<MovieCard> featured,
+        List<MovieCard> recommended,
+        List<ContinueWatchingItem> continueWatching,
+        List<GenreRow> genreRows,
+        List<String> degradedRows
+) {
+
+    /**
+     * @param genre  The genre display name.
+     * @param movies Cards for the newest movies of the genre.
+     */
+    public record GenreRow(
+            String genre,
+            List<MovieCard> movies
+    ) {}
+}
@@ -0,0 +1,18 @@
+package com.anand.backend.dto;
+
+import java.util.Set;
+
+/**
+ * Data Transfer Object (DTO) telling which of a set of movies are on the caller's lists.
+ * <p>
+ * Card grids ask for the movies they render in one request instead of loading the whole
+ * favorites and "Watch Later" lists to check membership on the client.
+ * </p>
+ *
+ * @param favoriteMovieIds   The requested movie IDs that are in the user's favorites.
+ * @param watchLaterMovieIds The requested movie IDs that are on the user's "Watch Later" list.
+ */
+public record ListMembership(
+        Set<String> favoriteMovieIds,
+        Set<String> watchLaterMovieIds
+) {}
@@ -0,0 +1,108 @@
+package com.anand.backend.dto;
+
+import com.anand.backend.entity.Movie;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) with the slim view of a movie used by list endpoints.
+ * <p>
+ * Catalog pages, search results and recommendation rows only render cards, so they return this
+ * projection instead of the full {@link Movie}. Field names match the entity, which keeps the
+ * JSON compatible with existing clients. Streaming URLs and upload details are left out;
+ * clients load the full movie via {@code /api/movies/{id}} before playback.
+ * </p>
+ *
+ * @param movieId          The unique identifier of the movie.
+ * @param movieTitle       The display title.
+ * @param movieDescription The synopsis shown on hover.
+ * @param moviePoster      The poster image URL.
+ * @param genres           The genres of the movie.
+ * @param imdbRating       The IMDb rating.
+ * @param releaseYear      The release year.
+ * @param releaseDate      The release date, if known.
+ * @param createdAt        When the movie was added to the catalog.
+ * @param videoDetails     Preview and duration information for the card.
+ * @param statistics       View and like counters.
+ */
+public record MovieCard(
+        String movieId,
+        String movieTitle,
+        String movieDescription,
+        String moviePoster,
+        List<String> genres,
+        Double imdbRating,
+        Integer releaseYear,
+        Instant releaseDate,
+        Instant createdAt,
+        VideoSummary videoDetails,
+        StatsSummary statistics
+) {
+
+    /**
+     * @param durationSeconds     The total duration of the video.
+     * @param thumbnailSpriteUrl  The thumbnail shown on the card.
+     * @param previewGifUrl       The animated preview shown on hover.
+     * @param processingCompleted Whether the video is ready to stream.
+     */
+    public record VideoSummary(
+            Integer durationSeconds,
+            String thumbnailSpriteUrl,
+            String previewGifUrl,
+            boolean processingCompleted
+    ) {}
+
+    /**
+     * @param views The number of views.
+     * @param likes The number of likes.
+     */
+    public record StatsSummary(
+            long views,
+            long likes
+    ) {}
+
+    /**
+     * Builds a card from a full movie entity.
+     *
+     * @param movie The movie to project.
+     * @return The card view of the movie.
+     */
+    public static MovieCard from(Movie movie) {
+        Movie.VideoDetails details = movie.getVideoDetails();
+        VideoSummary video = details == null ? null : new VideoSummary(
+                details.getDurationSeconds(),
+                details.getThumbnailSpriteUrl(),
+                details.getPreviewGifUrl(),
+                details.isProcessingCompleted()
+        );
+        Movie.Statistics stats = movie.getStatistics();
+        StatsSummary statistics = stats == null
+                ? new StatsSummary(0, 0)
+                : new StatsSummary(stats.getViews(), stats.getLikes());
+
+        return new MovieCard(
+                movie.getMovieId(),
+                movie.getMovieTitle(),
+                movie.getMovieDescription(),
+                movie.getMoviePoster(),
+                movie.getGenres(),
+                movie.getImdbRating(),
+                movie.getReleaseYear(),
+                movie.getReleaseDate(),
+                movie.getCreatedAt(),
+                video,
+                statistics
+        );
+    }
+
+    /**
+     * Builds cards for a list of movies, keeping their order.
+     *
+     * @param movies The movies to project.
+     * @return The card views, in the same order.
+     */
+    public static List<MovieCard> fromAll(List<Movie> movies) {
+        return movies.stream().map(MovieCard::from).toList();
+    }
+}
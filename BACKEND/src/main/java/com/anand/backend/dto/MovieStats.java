@@ -0,0 +1,19 @@
+package com.anand.backend.dto;
+
+/**
+ * Data Transfer Object (DTO) with the current engagement counters of a movie.
+ * <p>
+ * Returned by {@code /api/movies/{id}/stats}. The view count includes views that are still
+ * buffered in memory and not yet written to MongoDB, so it is fresher than the
+ * {@code statistics} block of the cached movie document.
+ * </p>
+ *
+ * @param movieId The unique identifier of the movie.
+ * @param views   The number of views, including pending ones.
+ * @param likes   The number of likes.
+ */
+public record MovieStats(
+        String movieId,
+        long views,
+        long likes
+) {}
@@ -0,0 +1,16 @@
+package com.anand.backend.dto;
+
+/**
+ * Data Transfer Object (DTO) for a single typeahead suggestion.
+ * <p>
+ * Returned by {@code /api/movies/suggest}. It deliberately carries only what the search box
+ * needs to render a suggestion and navigate to the movie, instead of the full {@code Movie} document.
+ * </p>
+ *
+ * @param movieId    The unique identifier of the suggested movie.
+ * @param movieTitle The display title of the suggested movie.
+ */
+public record TitleSuggestion(
+        String movieId,
+        String movieTitle
+) {}
@@ -0,0 +1,48 @@
+package com.anand.backend.entity;
+
+import com.anand.backend.enums.InteractionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Entity recording one user interaction in the outbox read by the recommender.
+ * <p>
+ * Events are appended in batches and numbered from a shared sequence, which is also the
+ * document ID, so consumers can resume from the last sequence number they processed.
+ * Events expire after 30 days; a consumer that falls further behind rescans the source
+ * collections instead. The {@code type_written_idx} index lets the retraining check count recent
+ * events of a few types without scanning the collection.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "interaction_events")
+@CompoundIndex(name = "type_written_idx", def = "{'type': 1, 'writtenAt': 1}")
+public class InteractionEvent {
+
+    @Id
+    private Long seq;
+
+    private InteractionType type;
+
+    private String userId;   // Links to User.id
+
+    private String movieId;  // Links to Movie.movieId
+
+    private Double value;    // Watched fraction for PROGRESS, otherwise null
+
+    private Instant occurredAt;
+
+    @Indexed(expireAfter = "30d")
+    private Instant writtenAt;
+}
@@ -2,6 +2,8 @@ package com.anand.backend.entity;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -14,6 +16,10 @@ import java.util.List;
  * related to a movie, including descriptive information, video processing details, and
  * aggregated statistics (views, likes).
  * </p>
+ * <p>
+ * The compound indexes back keyset (cursor) pagination, which orders listings by
+ * {@code (createdAt DESC, _id DESC)} overall and within a genre.
+ * </p>
  */
 @Data
 @AllArgsConstructor
@@ -21,6 +27,10 @@ import java.util.List;
 @ToString
 @Builder
 @Document(collection = "movies")
+@CompoundIndexes({
+        @CompoundIndex(name = "created_id_idx", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "genre_created_id_idx", def = "{'genres': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Movie {
 
     @Id
@@ -74,16 +84,7 @@ public class Movie {
         
         @Builder.Default
         private long likes = 0;
-        
-        @Builder.Default
-        private List<String> likedByUserIds = new java.util.ArrayList<>();
-        
-        // Custom getter to ensure it exists
-        public List<String> getLikedByUserIds() {
-            if (likedByUserIds == null) {
-                likedByUserIds = new java.util.ArrayList<>();
-            }
-            return likedByUserIds;
-        }
+
+        // Who liked the movie lives in the "movie_likes" collection (see MovieLike)
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.anand.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Entity recording that a user liked (favorited) a movie.
+ * <p>
+ * This document replaces the {@code likedByUserIds} array that used to be embedded in
+ * {@link Movie.Statistics}. Keeping one small document per (movie, user) pair stops popular
+ * movies from growing without bound, while {@link Movie.Statistics#getLikes()} keeps the count.
+ * The unique compound index makes a like idempotent. The same records form each user's
+ * favorites list, which the (userId, createdAt) index pages newest first.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "movie_likes")
+@CompoundIndexes({
+        @CompoundIndex(name = "movie_user_idx", def = "{'movieId': 1, 'userId': 1}", unique = true),
+        @CompoundIndex(name = "user_created_idx", def = "{'userId': 1, 'createdAt': -1}")
+})
+public class MovieLike {
+
+    @Id
+    private String id;
+
+    private String movieId;  // Links to Movie.movieId
+
+    private String userId;   // Links to User.id
+
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
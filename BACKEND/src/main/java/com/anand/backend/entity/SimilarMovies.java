@@ -0,0 +1,37 @@
+package com.anand.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+/**
+ * Entity holding the precomputed most similar movies of one movie, for one table version.
+ * <p>
+ * Each export from the ML service is written under a new {@code version}; readers only use the
+ * version named by the current-version pointer, so a half-written export is never visible.
+ * Older versions are deleted once a newer one is live.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "similar_movies")
+@CompoundIndex(name = "version_movie_idx", def = "{'version': 1, 'movieId': 1}", unique = true)
+public class SimilarMovies {
+
+    @Id
+    private String id;
+
+    private long version;
+
+    private String movieId;  // Links to Movie.movieId
+
+    private List<String> similarMovieIds;  // Most similar first
+}
@@ -5,18 +5,18 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Entity representing a User in the system.
  * <p>
  * This document is stored in the "users" collection. It maps the Firebase User ID to
- * local application data, including roles, profile information, and lightweight lists
- * for user preferences (favorites, watch later).
+ * local application data, including roles and profile information. Favorites and the
+ * "Watch Later" list live in their own collections ({@link MovieLike}, {@link WatchLaterEntry}),
+ * so the user document stays small no matter how long those lists grow.
  * </p>
  */
 @Document(collection = "users")
@@ -27,6 +27,8 @@ import java.util.List;
 public class User {
     @Id
     private String id;
+
+    @Indexed
     private String email;
     private String name;
     private String picture;
@@ -34,21 +36,8 @@ public class User {
     @Builder.Default
     private UserRole role = UserRole.USER;
 
-    /**
-     * List of Movie IDs marked as "Watch Later" by the user.
-     * <p>
-     * This is an embedded list for performance reasons. Detailed movie information
-     * is fetched separately when needed.
-     * </p>
-     */
-    @Builder.Default
-    private List<String> watchLaterMovieIds = new ArrayList<>();
-
-    /**
-     * List of Movie IDs marked as "Favorite" by the user.
-     */
-    @Builder.Default
-    private List<String> favoriteMovieIds = new ArrayList<>();
+    // Firebase UID of a user matched by email, whose ID is not the UID; keys its cached identity
+    private String firebaseUid;
 
     // Note: WatchHistory is NOT here. It is in a separate collection.
 
@@ -0,0 +1,41 @@
+package com.anand.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Entity recording that a user saved a movie to their "Watch Later" list.
+ * <p>
+ * This document replaces the {@code watchLaterMovieIds} array that used to be embedded in
+ * {@link User}. The unique (userId, movieId) index makes membership checks and removals a single
+ * index lookup and makes adding idempotent; the (userId, addedAt) index serves the paged list.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "watch_later")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_movie_idx", def = "{'userId': 1, 'movieId': 1}", unique = true),
+        @CompoundIndex(name = "user_added_idx", def = "{'userId': 1, 'addedAt': -1}")
+})
+public class WatchLaterEntry {
+
+    @Id
+    private String id;
+
+    private String userId;   // Links to User.id
+    private String movieId;  // Links to Movie.movieId
+
+    @Builder.Default
+    private Instant addedAt = Instant.now();
+}
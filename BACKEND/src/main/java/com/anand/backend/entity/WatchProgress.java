@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -15,7 +16,8 @@ import java.time.Instant;
  * <p>
  * This document is used to implement "Continue Watching" functionality.
  * It stores the last watched timestamp and completion status.
- * A compound index on (userId, movieId) ensures efficient lookups and uniqueness.
+ * A compound index on (userId, movieId) ensures efficient lookups and uniqueness;
+ * a second one on (userId, lastWatchedAt) serves the bounded "Continue Watching" query.
  * </p>
  */
 @Data
@@ -23,7 +25,10 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "watch_progress")
-@CompoundIndex(name = "user_movie_idx", def = "{'userId': 1, 'movieId': 1}", unique = true)
+@CompoundIndexes({
+        @CompoundIndex(name = "user_movie_idx", def = "{'userId': 1, 'movieId': 1}", unique = true),
+        @CompoundIndex(name = "user_recent_idx", def = "{'userId': 1, 'lastWatchedAt': -1}")
+})
 public class WatchProgress {
 
     @Id
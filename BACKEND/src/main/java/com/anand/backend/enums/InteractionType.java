@@ -0,0 +1,14 @@
+package com.anand.backend.enums;
+
+/**
+ * Kinds of user interaction recorded in the interaction outbox for the recommender.
+ */
+public enum InteractionType {
+    VIEW,
+    LIKE,
+    UNLIKE,
+    WATCH_LATER_ADD,
+    WATCH_LATER_REMOVE,
+    PROGRESS,  // value = watched fraction of the movie
+    COMPLETE
+}
@@ -0,0 +1,6 @@
+package com.anand.backend.enums;
+
+public enum MovieSort {
+    NEWEST,
+    POPULAR
+}
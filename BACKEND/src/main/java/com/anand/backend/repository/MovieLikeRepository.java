@@ -0,0 +1,27 @@
+package com.anand.backend.repository;
+
+import com.anand.backend.entity.MovieLike;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for {@link MovieLike} records.
+ * <p>
+ * Backs per-user like tracking. All lookups hit the unique (movieId, userId) index,
+ * so membership checks stay constant-time no matter how popular a movie is. A user's
+ * favorites list is paged through the (userId, createdAt) index.
+ */
+@Repository
+public interface MovieLikeRepository extends MongoRepository<MovieLike, String> {
+    boolean existsByMovieIdAndUserId(String movieId, String userId);
+    long deleteByMovieId(String movieId);
+
+    // A user's favorites, newest first
+    Page<MovieLike> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
+    List<MovieLike> findByUserIdAndMovieIdIn(String userId, Collection<String> movieIds);
+}
@@ -7,12 +7,16 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 
 /**
  * Repository interface for managing {@link Movie} documents in MongoDB.
  * <p>
- * Provides standard CRUD operations and custom queries for content discovery,
- * including full-text search simulation via regex and complex filtering pipelines.
+ * Provides standard CRUD operations and custom queries for content discovery.
+ * Free-text search is served by the in-memory {@link com.anand.backend.service.MovieSearchIndex};
+ * the title query here is only used while that index is still loading.
  * This repository serves as the primary data access layer for the content catalog.
  */
 @Repository
@@ -24,12 +28,18 @@ public interface MovieRepository extends MongoRepository<Movie, String> {
     @Query("{ 'videoDetails.processingCompleted': true }")
     Page<Movie> findByProcessingCompleted(Pageable pageable);
 
-    
-    @Query("{ " +
-            "  $and: [ " +
-            "    { 'movieTitle': { $regex: ?0, $options: 'i' } }, " +
-            "    { $or: [ { ?1: null }, { 'genres': ?1 } ] } " +
-            "  ] " +
-            "}")
-    Page<Movie> searchAndFilter(String titleKeyword, String genre, Pageable pageable);
+    // Keyset pagination over (createdAt DESC, _id DESC). Returning List skips the count query,
+    // and the range predicates let the compound indexes on Movie seek straight to the next slice.
+
+    @Query("{}")
+    List<Movie> findFirstSlice(Pageable pageable);
+
+    @Query("{ $or: [ { 'createdAt': { $lt: ?0 } }, { 'createdAt': ?0, '_id': { $lt: ?1 } } ] }")
+    List<Movie> findSliceAfter(Instant createdAt, String movieId, Pageable pageable);
+
+    @Query("{ 'genres': ?0 }")
+    List<Movie> findFirstSliceByGenre(String genre, Pageable pageable);
+
+    @Query("{ 'genres': ?0, $or: [ { 'createdAt': { $lt: ?1 } }, { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }")
+    List<Movie> findSliceByGenreAfter(String genre, Instant createdAt, String movieId, Pageable pageable);
 }
\ No newline at end of file
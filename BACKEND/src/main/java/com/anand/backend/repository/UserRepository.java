@@ -2,6 +2,8 @@ package com.anand.backend.repository;
 
 import com.anand.backend.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,4 +18,15 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+
+    // Identity lookups for authentication: only ID, email and role are read
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'email': 1, 'role': 1 }")
+    Optional<User> findIdentityById(String id);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'role': 1, 'firebaseUid': 1 }")
+    Optional<User> findIdentityByEmail(String email);
+
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'firebaseUid': ?1 } }")
+    void setFirebaseUid(String id, String firebaseUid);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.anand.backend.repository;
+
+import com.anand.backend.entity.WatchLaterEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for {@link WatchLaterEntry} records.
+ * <p>
+ * Membership lookups and removals hit the unique (userId, movieId) index; the paged list is
+ * served by the (userId, addedAt) index.
+ */
+@Repository
+public interface WatchLaterRepository extends MongoRepository<WatchLaterEntry, String> {
+    Page<WatchLaterEntry> findByUserIdOrderByAddedAtDesc(String userId, Pageable pageable);
+    List<WatchLaterEntry> findByUserIdAndMovieIdIn(String userId, Collection<String> movieIds);
+    long deleteByUserIdAndMovieId(String userId, String movieId);
+    long deleteByMovieId(String movieId);
+}
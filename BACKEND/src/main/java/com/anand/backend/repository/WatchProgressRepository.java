@@ -1,7 +1,10 @@
 package com.anand.backend.repository;
 
 import com.anand.backend.entity.WatchProgress;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,8 @@ import java.util.Optional;
 public interface WatchProgressRepository extends MongoRepository<WatchProgress, String> {
     Optional<WatchProgress> findByUserIdAndMovieId(String userId, String movieId);
     List<WatchProgress> findByUserIdOrderByLastWatchedAtDesc(String userId);
+
+    // Bounded "Continue Watching" reads, served by user_recent_idx
+    List<WatchProgress> findByUserIdAndCompletedFalseOrderByLastWatchedAtDesc(String userId, Pageable pageable);
+    List<WatchProgress> findByUserIdAndMovieIdIn(String userId, Collection<String> movieIds);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.anand.backend.security;
+
+import org.springframework.security.core.annotation.CurrentSecurityContext;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@link UserIdentity} of the caller into a controller method parameter.
+ * <p>
+ * Resolves to null when the request is anonymous or the Firebase user has not been synced
+ * into MongoDB yet.
+ * </p>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@CurrentSecurityContext(expression = "authentication?.details")
+public @interface CurrentUser {
+}
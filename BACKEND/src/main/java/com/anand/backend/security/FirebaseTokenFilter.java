@@ -1,6 +1,5 @@
 package com.anand.backend.security;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -8,14 +7,17 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Custom Security Filter for Firebase Authentication.
@@ -24,12 +26,47 @@ import java.util.ArrayList;
  * It verifies the token using the Firebase Admin SDK. If the token is valid, it authenticates the user
  * in the Spring Security context, allowing the request to proceed to protected resources.
  * </p>
+ * <p>
+ * The token's UID is also resolved to a {@link UserIdentity} (user ID and role) through the
+ * cached {@link UserIdentityService} and stored as the authentication details, together with a
+ * {@code ROLE_*} authority. Controllers read it via {@link CurrentUser} instead of looking the
+ * user up by email on every call.
+ * </p>
+ * <p>
+ * Verified tokens are cached by {@link VerifiedTokenCache}. Streaming paths that carry their own
+ * signed URL tokens ({@link #BYPASS_PATHS}) skip this filter entirely.
+ * </p>
  */
 @Component
+@RequiredArgsConstructor
 public class FirebaseTokenFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseTokenFilter.class);
 
+    /**
+     * Paths authorized by their own JWT or served publicly; they never need a Firebase identity.
+     */
+    static final List<String> BYPASS_PATHS = List.of(
+            "/api/videos/*/segments/**",
+            "/api/movies/stream/**"
+    );
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final UserIdentityService userIdentityService;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : BYPASS_PATHS) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Filters incoming requests to validate Firebase ID tokens.
      *
@@ -48,14 +85,19 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                // Verify the ID token with Firebase
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
+                // Verify the ID token with Firebase (cached until the token expires)
+                FirebaseToken decodedToken = verifiedTokenCache.verify(token);
+
+                // Resolve the local user once per request; null until the user has been synced
+                UserIdentity identity = resolveIdentity(decodedToken);
 
                 // Create an Authentication object and set it in the SecurityContext
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        decodedToken, null, new ArrayList<>());
+                        decodedToken, null, identity == null || identity.role() == null
+                                ? List.of()
+                                : List.of(new SimpleGrantedAuthority("ROLE_" + identity.role().name())));
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authentication.setDetails(identity);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
             } catch (Exception e) {
@@ -64,4 +106,14 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserIdentity resolveIdentity(FirebaseToken token) {
+        try {
+            return userIdentityService.resolve(token.getUid(), token.getEmail());
+        } catch (Exception e) {
+            // Authentication still succeeds; endpoints that need the user answer 401/403
+            logger.warn("Could not resolve user identity for {}: {}", token.getUid(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.anand.backend.security;
+
+import com.anand.backend.enums.UserRole;
+
+/**
+ * The application-side identity behind a verified Firebase token.
+ * <p>
+ * Resolved once per request by {@link FirebaseTokenFilter} and stored as the details of the
+ * authentication, so controllers can read the user ID and role without querying MongoDB.
+ * Inject it with {@link CurrentUser}.
+ * </p>
+ *
+ * @param userId The ID of the local {@code User} document.
+ * @param email  The user's email address.
+ * @param role   The user's role.
+ */
+public record UserIdentity(
+        String userId,
+        String email,
+        UserRole role
+) {
+
+    /**
+     * @return true if the user has the ADMIN role.
+     */
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+}
@@ -0,0 +1,54 @@
+package com.anand.backend.security;
+
+import com.anand.backend.entity.User;
+import com.anand.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maps Firebase UIDs to {@link UserIdentity} values.
+ * <p>
+ * Lookups are cached in the two-level {@code userIdentity} region, so an authenticated request
+ * normally costs an in-memory hit instead of a MongoDB query. Misses read only the ID, email and
+ * role of the user. Unknown users are not cached, which lets a freshly synced user resolve on the
+ * next request. Role changes evict the entry on every node through the cache's invalidation channel.
+ * Entries are keyed by UID, so a user found by email gets the UID stored as {@code firebaseUid},
+ * which lets a role change evict the entry it is cached under.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class UserIdentityService {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Resolves the identity of a Firebase user.
+     *
+     * @param uid   The Firebase UID, which is also the ID of users created by sync.
+     * @param email The email from the token, used for users stored under another ID.
+     * @return The identity, or null if the user has not been synced yet.
+     */
+    @Cacheable(value = "userIdentity", key = "#uid", unless = "#result == null")
+    public UserIdentity resolve(String uid, String email) {
+        User user = userRepository.findIdentityById(uid).orElse(null);
+        if (user == null && email != null) {
+            user = userRepository.findIdentityByEmail(email).orElse(null);
+            if (user != null && !uid.equals(user.getFirebaseUid())) {
+                userRepository.setFirebaseUid(user.getId(), uid);
+            }
+        }
+        return user == null ? null : new UserIdentity(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    /**
+     * Drops the cached identity of a user, e.g. after a role change.
+     *
+     * @param uid The Firebase UID: the user ID for synced users, otherwise {@link User#getFirebaseUid()}.
+     */
+    @CacheEvict(value = "userIdentity", key = "#uid")
+    public void evict(String uid) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.anand.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of Firebase ID tokens that have already been verified.
+ * <p>
+ * Clients send the same ID token on every request until it is refreshed (about once an hour),
+ * so verifying the signature and claims each time is repeated work. Entries are keyed by the
+ * SHA-256 digest of the token, so raw credentials are never held as map keys, and expire at the
+ * token's own {@code exp} claim or after the configured maximum TTL, whichever comes first.
+ * An expired token is therefore never served from the cache.
+ * </p>
+ * <p>
+ * Metrics: {@code firebase.token.verify} times actual SDK verifications, and the standard
+ * Caffeine cache metrics are published under the name {@code firebaseTokens}.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, FirebaseToken> cache;
+    private final Timer verifyTimer;
+    private final long maxTtlNanos;
+
+    public VerifiedTokenCache(
+            MeterRegistry meterRegistry,
+            @Value("${security.token-cache.max-size:100000}") long maxSize,
+            @Value("${security.token-cache.max-ttl-seconds:600}") long maxTtlSeconds
+    ) {
+        this.maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        this.verifyTimer = Timer.builder("firebase.token.verify")
+                .description("Firebase ID token verifications that missed the cache")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "firebaseTokens");
+    }
+
+    /**
+     * Returns the decoded token, verifying it with Firebase only if it is not cached.
+     *
+     * @param idToken The raw ID token from the Authorization header.
+     * @return The verified token.
+     * @throws FirebaseAuthException If the token is invalid or expired.
+     */
+    public FirebaseToken verify(String idToken) throws FirebaseAuthException {
+        String key = digest(idToken);
+        FirebaseToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            FirebaseToken verified = FirebaseAuth.getInstance().verifyIdToken(idToken);
+            cache.put(key, verified);
+            return verified;
+        } finally {
+            sample.stop(verifyTimer);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expires each entry at the token's {@code exp} claim, capped at the maximum TTL.
+     */
+    private final class UntilTokenExpiry implements Expiry<String, FirebaseToken> {
+
+        @Override
+        public long expireAfterCreate(String key, FirebaseToken token, long currentTime) {
+            Object exp = token.getClaims().get("exp");
+            if (!(exp instanceof Number expSeconds)) {
+                return 0;
+            }
+            long remainingMillis = expSeconds.longValue() * 1000 - System.currentTimeMillis();
+            return Math.max(0, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, FirebaseToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, FirebaseToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+
+import java.util.Collection;
+
+/**
+ * Contract for in-memory structures derived from the movie catalog.
+ * <p>
+ * Implementations are kept in sync in two ways: {@link MovieService} pushes single-movie
+ * changes as they happen, and {@link CatalogIndexRefresher} periodically rebuilds every
+ * index from a full catalog read so that changes made by other nodes are picked up.
+ * </p>
+ */
+public interface CatalogIndex {
+
+    /**
+     * Replaces the whole index content with the given catalog snapshot.
+     *
+     * @param movies All movies currently in the catalog.
+     */
+    void rebuild(Collection<Movie> movies);
+
+    /**
+     * Adds a movie to the index, or replaces the existing entry with the same ID.
+     *
+     * @param movie The new or updated movie.
+     */
+    void upsert(Movie movie);
+
+    /**
+     * Removes a movie from the index. Unknown IDs are ignored.
+     *
+     * @param movieId The ID of the deleted movie.
+     */
+    void remove(String movieId);
+}
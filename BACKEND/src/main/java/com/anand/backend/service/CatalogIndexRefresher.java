@@ -0,0 +1,55 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import com.anand.backend.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads every {@link CatalogIndex} at startup and rebuilds them on a fixed cadence.
+ * <p>
+ * Single-movie changes are applied incrementally by {@link MovieService}. The periodic
+ * rebuild reconciles the indexes with changes made by other backend instances and picks up
+ * slowly-changing data such as view and like counts.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogIndexRefresher {
+
+    private final MovieRepository movieRepository;
+    private final List<CatalogIndex> catalogIndexes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds all catalog indexes from a single full read of the movies collection.
+     */
+    @Scheduled(
+            initialDelayString = "${catalog.index.refresh-interval-ms:300000}",
+            fixedDelayString = "${catalog.index.refresh-interval-ms:300000}"
+    )
+    public void refresh() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Movie> movies = movieRepository.findAll();
+            for (CatalogIndex index : catalogIndexes) {
+                index.rebuild(movies);
+            }
+            log.info("Rebuilt {} catalog indexes over {} movies in {} ms",
+                    catalogIndexes.size(), movies.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Catalog index refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.WatchProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-user "Continue Watching" ordering kept in Redis sorted sets.
+ * <p>
+ * Each user has a ZSET {@code cw:{userId}} of unfinished movie IDs scored by last-watched time
+ * in epoch milliseconds. {@link WatchProgressBuffer} applies every flushed batch in one pipeline:
+ * unfinished titles are added or re-scored, completed ones are removed, and each set is trimmed
+ * to {@value #CAPACITY} entries and given a fresh TTL.
+ * </p>
+ * <p>
+ * A set can be incomplete, for example after its TTL expired or for history written before it
+ * existed. Entries missing that way are always older than the ones present, so the top N of a set
+ * with at least N members is exact. When {@link #replace} loads fewer than {@value #CAPACITY}
+ * entries the set holds the user's whole history, which it records in a marker key
+ * {@code cw:complete:{userId}} with the same TTL; a trim drops the marker again. Callers fall back
+ * to MongoDB (and {@link #replace}) when a set is shorter than the page they need and not marked
+ * complete.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContinueWatchingIndex {
+
+    static final int CAPACITY = 50;
+    private static final String KEY_PREFIX = "cw:";
+    private static final String COMPLETE_PREFIX = "cw:complete:";
+    private static final Duration TTL = Duration.ofDays(30);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * Applies a batch of persisted heartbeats.
+     *
+     * @param batch The heartbeats that were just written to MongoDB.
+     */
+    public void apply(Collection<WatchProgress> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            List<WatchProgress> ordered = List.copyOf(batch);
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = new DefaultStringRedisConnection(connection);
+                for (WatchProgress progress : ordered) {
+                    String key = key(progress.getUserId());
+                    if (isRemoval(progress)) {
+                        redis.zRem(key, progress.getMovieId());
+                    } else {
+                        redis.zAdd(key, progress.getLastWatchedAt().toEpochMilli(), progress.getMovieId());
+                        redis.zRemRange(key, 0, -(CAPACITY + 1));
+                        redis.expire(key, TTL.toSeconds());
+                    }
+                }
+                return null;
+            });
+
+            // A trimmed set no longer holds the whole history.
+            Set<String> trimmed = new HashSet<>();
+            int index = 0;
+            for (WatchProgress progress : ordered) {
+                if (isRemoval(progress)) {
+                    index++;
+                    continue;
+                }
+                if (results.get(index + 1) instanceof Long removed && removed > 0) {
+                    trimmed.add(completeKey(progress.getUserId()));
+                }
+                index += 3;
+            }
+            if (!trimmed.isEmpty()) {
+                redisTemplate.delete(trimmed);
+            }
+        } catch (Exception e) {
+            log.warn("Continue-watching index update failed for {} entries: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces a user's set with the given history, e.g. after reading it from MongoDB.
+     *
+     * @param userId  The ID of the user.
+     * @param entries Unfinished progress entries, at most {@value #CAPACITY}; fewer means this is
+     *                the user's whole history and the set is marked complete.
+     */
+    public void replace(String userId, List<WatchProgress> entries) {
+        String key = key(userId);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = new DefaultStringRedisConnection(connection);
+                redis.del(key, completeKey(userId));
+                for (WatchProgress progress : entries) {
+                    if (progress.getLastWatchedAt() != null) {
+                        redis.zAdd(key, progress.getLastWatchedAt().toEpochMilli(), progress.getMovieId());
+                    }
+                }
+                redis.expire(key, TTL.toSeconds());
+                if (entries.size() < CAPACITY) {
+                    redis.setEx(completeKey(userId), TTL.toSeconds(), "1");
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Continue-watching index rebuild failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the most recently watched unfinished movies of a user.
+     *
+     * @param userId The ID of the user.
+     * @param limit  The maximum number of entries.
+     * @return The entries and whether the set holds the user's whole history; null if Redis is unavailable.
+     */
+    public Snapshot recent(String userId, int limit) {
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = new DefaultStringRedisConnection(connection);
+                redis.zRevRangeWithScores(key(userId), 0, limit - 1);
+                redis.exists(completeKey(userId));
+                return null;
+            });
+            List<Entry> entries = new ArrayList<>();
+            if (results.get(0) instanceof Set<?> tuples) {
+                for (Object item : tuples) {
+                    if (item instanceof ZSetOperations.TypedTuple<?> tuple && tuple.getValue() != null) {
+                        entries.add(new Entry(tuple.getValue().toString(),
+                                tuple.getScore() == null ? 0 : tuple.getScore().longValue()));
+                    }
+                }
+            }
+            return new Snapshot(entries, Boolean.TRUE.equals(results.get(1)));
+        } catch (Exception e) {
+            log.warn("Continue-watching index read failed for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param entries  Movie IDs with last-watched time, newest first.
+     * @param complete Whether the set holds every unfinished title of the user.
+     */
+    public record Snapshot(List<Entry> entries, boolean complete) {
+
+        /**
+         * @param size The page size the caller needs.
+         * @return Whether the page can be served from the set alone.
+         */
+        public boolean covers(int size) {
+            return complete || entries.size() >= size;
+        }
+    }
+
+    /**
+     * @param movieId          The ID of the movie.
+     * @param lastWatchedMillis When the user last watched it, in epoch milliseconds.
+     */
+    public record Entry(String movieId, long lastWatchedMillis) {}
+
+    private static boolean isRemoval(WatchProgress progress) {
+        return progress.isCompleted() || progress.getLastWatchedAt() == null;
+    }
+
+    private static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static String completeKey(String userId) {
+        return COMPLETE_PREFIX + userId;
+    }
+}
@@ -0,0 +1,77 @@
+package com.anand.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used by keyset pagination.
+ * <p>
+ * A cursor holds the sort key of the last item a client has seen. Two shapes exist:
+ * {@code (createdAt, movieId)} for catalog and genre listings, and {@code (score, movieId)}
+ * for ranked search results. Both are Base64url-encoded so clients treat them as opaque.
+ * </p>
+ */
+final class CursorCodec {
+
+    private static final String CREATED_PREFIX = "c";
+    private static final String SCORE_PREFIX = "s";
+
+    record CreatedAtKey(Instant createdAt, String movieId) {}
+
+    record ScoreKey(double score, String movieId) {}
+
+    private CursorCodec() {
+    }
+
+    static String encode(CreatedAtKey key) {
+        return wrap(CREATED_PREFIX + ":" + key.createdAt().toEpochMilli() + ":" + key.movieId());
+    }
+
+    static String encode(ScoreKey key) {
+        // Hex bits keep the score exact, so the next slice starts precisely after the last hit
+        return wrap(SCORE_PREFIX + ":" + Long.toHexString(Double.doubleToLongBits(key.score())) + ":" + key.movieId());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or of another shape.
+     */
+    static CreatedAtKey decodeCreatedAt(String cursor) {
+        String[] parts = unwrap(cursor, CREATED_PREFIX);
+        try {
+            return new CreatedAtKey(Instant.ofEpochMilli(Long.parseLong(parts[1])), parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or of another shape.
+     */
+    static ScoreKey decodeScore(String cursor) {
+        String[] parts = unwrap(cursor, SCORE_PREFIX);
+        try {
+            return new ScoreKey(Double.longBitsToDouble(Long.parseUnsignedLong(parts[1], 16)), parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String wrap(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] unwrap(String cursor, String expectedPrefix) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || !parts[0].equals(expectedPrefix) || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,230 @@
+package com.anand.backend.service;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, in-memory copy of one trained NMF model, able to score users locally.
+ * <p>
+ * A user's predicted affinity for a movie is the dot product of their factor vectors, exactly as
+ * in the Python recommender. User factors are kept row-major and movie factors component-major
+ * in flat {@code float[]} arrays, which is the layout {@link FactorScoring} streams through.
+ * Scoring a user is one pass over {@code components x movies} floats plus a bounded heap for the
+ * top K, with no I/O.
+ * </p>
+ */
+public final class FactorModel {
+
+    private final long version;
+    private final int components;
+    private final Map<String, Integer> userIndex;
+    private final Map<String, Integer> movieIndex;
+    private final String[] movieIds;
+    private final float[] userFactors;
+    private final float[] movieFactors;
+
+    private FactorModel(long version, int components, String[] userIds, String[] movieIds,
+                        float[] userFactors, float[] movieFactors) {
+        this.version = version;
+        this.components = components;
+        this.userIndex = indexOf(userIds);
+        this.movieIndex = indexOf(movieIds);
+        this.movieIds = movieIds;
+        this.userFactors = userFactors;
+        this.movieFactors = movieFactors;
+    }
+
+    /**
+     * Parses the binary export of {@code GET /model/factors}.
+     * <p>
+     * Layout (little-endian): {@code int64 version, int32 components, int32 users, int32 movies},
+     * the user IDs and then the movie IDs as {@code uint16} length + UTF-8, then the user and
+     * movie factor matrices as row-major {@code float32}.
+     * </p>
+     *
+     * @param data The raw export.
+     * @return The parsed model.
+     * @throws IllegalArgumentException If the data is truncated or inconsistent.
+     */
+    public static FactorModel parse(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            long version = buffer.getLong();
+            int components = buffer.getInt();
+            int users = buffer.getInt();
+            int movies = buffer.getInt();
+            if (components <= 0 || users < 0 || movies < 0) {
+                throw new IllegalArgumentException("Invalid factor export header");
+            }
+
+            String[] userIds = readIds(buffer, users);
+            String[] movieIds = readIds(buffer, movies);
+            // Size the matrices from the header only once the remaining bytes agree with it
+            int userValues = Math.multiplyExact(users, components);
+            int movieValues = Math.multiplyExact(movies, components);
+            if (((long) userValues + movieValues) * Float.BYTES != buffer.remaining()) {
+                throw new IllegalArgumentException("Factor export size does not match its header");
+            }
+            float[] userFactors = new float[userValues];
+            buffer.asFloatBuffer().get(userFactors);
+            buffer.position(buffer.position() + userFactors.length * Float.BYTES);
+
+            // Transpose movie factors to component-major while reading
+            float[] movieFactors = new float[movieValues];
+            for (int j = 0; j < movies; j++) {
+                for (int c = 0; c < components; c++) {
+                    movieFactors[c * movies + j] = buffer.getFloat();
+                }
+            }
+            return new FactorModel(version, components, userIds, movieIds, userFactors, movieFactors);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated factor export", e);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Factor export header is too large", e);
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int users() {
+        return userIndex.size();
+    }
+
+    public int movies() {
+        return movieIds.length;
+    }
+
+    public int components() {
+        return components;
+    }
+
+    public boolean hasUser(String userId) {
+        return userIndex.containsKey(userId);
+    }
+
+    /**
+     * Returns a movie's latent factor vector, e.g. to embed it for similarity search.
+     *
+     * @param movieId The ID of the movie.
+     * @return A new array of {@link #components()} factors, or null if the movie was not trained on.
+     */
+    public float[] movieVector(String movieId) {
+        Integer movie = movieIndex.get(movieId);
+        if (movie == null) return null;
+        float[] vector = new float[components];
+        for (int c = 0; c < components; c++) {
+            vector[c] = movieFactors[c * movieIds.length + movie];
+        }
+        return vector;
+    }
+
+    /**
+     * Returns the user's highest-scoring movies.
+     *
+     * @param userId   The ID of the user.
+     * @param limit    The maximum number of movies.
+     * @param excluded Movie IDs never to return, e.g. titles the user already watched or saved.
+     * @return Movie IDs, best first, or null if the user was not part of this model's training.
+     */
+    public List<String> recommend(String userId, int limit, Collection<String> excluded) {
+        Integer user = userIndex.get(userId);
+        if (user == null) return null;
+        if (limit <= 0 || movieIds.length == 0) return List.of();
+
+        float[] vector = new float[components];
+        System.arraycopy(userFactors, user * components, vector, 0, components);
+        float[] scores = new float[movieIds.length];
+        FactorScoring.scores(vector, movieFactors, movieIds.length, scores);
+
+        for (String movieId : excluded) {
+            Integer movie = movieIndex.get(movieId);
+            if (movie != null) scores[movie] = Float.NEGATIVE_INFINITY;
+        }
+        return topK(scores, limit);
+    }
+
+    // Helper to select the K best scores with a bounded min-heap of movie indexes: O(n log K)
+    private List<String> topK(float[] scores, int k) {
+        int[] heap = new int[Math.min(k, scores.length)];
+        int size = 0;
+        for (int j = 0; j < scores.length; j++) {
+            float score = scores[j];
+            if (score == Float.NEGATIVE_INFINITY) continue;
+            if (size < heap.length) {
+                heap[size] = j;
+                siftUp(heap, size++, scores);
+            } else if (score > scores[heap[0]]) {
+                heap[0] = j;
+                siftDown(heap, size, scores);
+            }
+        }
+
+        List<String> result = new ArrayList<>(size);
+        while (size > 0) {
+            result.add(movieIds[heap[0]]);
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static void siftUp(int[] heap, int i, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[heap[parent]] <= scores[heap[i]]) return;
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) return;
+            int smallest = left + 1 < size && scores[heap[left + 1]] < scores[heap[left]] ? left + 1 : left;
+            if (scores[heap[i]] <= scores[heap[smallest]]) return;
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private static String[] readIds(ByteBuffer buffer, int count) {
+        // Every ID takes at least its length prefix
+        if (count > buffer.remaining() / Short.BYTES) throw new BufferUnderflowException();
+        String[] ids = new String[count];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < count; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            if (scratch.length < length) scratch = new byte[length];
+            buffer.get(scratch, 0, length);
+            ids[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        return ids;
+    }
+
+    private static Map<String, Integer> indexOf(String[] ids) {
+        Map<String, Integer> index = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            index.put(ids[i], i);
+        }
+        return index;
+    }
+}
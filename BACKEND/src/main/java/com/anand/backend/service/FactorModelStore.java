@@ -0,0 +1,213 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.MovieLike;
+import com.anand.backend.entity.WatchLaterEntry;
+import com.anand.backend.entity.WatchProgress;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the latest NMF {@link FactorModel} in memory so recommendations can be scored locally.
+ * <p>
+ * After each training run the binary factor export is downloaded from the ML service and stored
+ * in GridFS (file {@value #FILE_NAME}, {@code metadata.version} = training time), so the backend
+ * can score users even when the ML service is down or restarting. Every instance loads the
+ * newest stored version at startup and polls for newer ones every
+ * {@code recommendations.model.poll-interval-ms}. A new model is parsed completely before it
+ * replaces the old one in a single compare-and-set, so requests never see a partial model. The
+ * swap only moves forward: a poll that parsed an older version while an export swapped in a
+ * newer one leaves the newer one live.
+ * </p>
+ * <p>
+ * Users who joined after the last training are unknown to the model; {@link #recommend} returns
+ * null for them and callers fall back to the ML service's cold-start logic.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FactorModelStore {
+
+    private static final String FILE_NAME = "nmf-factors";
+    private static final String VERSION_FIELD = "metadata.version";
+
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final MLServiceClient mlServiceClient;
+
+    private final AtomicReference<FactorModel> model = new AtomicReference<>();
+    private final AtomicBoolean exporting = new AtomicBoolean();
+    private final ExecutorService exportExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public FactorModelStore(GridFsTemplate gridFsTemplate, MongoTemplate mongoTemplate, MLServiceClient mlServiceClient) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.mlServiceClient = mlServiceClient;
+    }
+
+    /**
+     * Scores a user with the local model, skipping movies they already liked, saved or started.
+     *
+     * @param userId The ID of the user.
+     * @param limit  The maximum number of movies.
+     * @return Movie IDs, best first, or null if no model is loaded or the user is not in it.
+     */
+    public List<String> recommend(String userId, int limit) {
+        FactorModel current = model.get();
+        if (current == null) return null;
+        return current.recommend(userId, limit, seenMovieIds(userId));
+    }
+
+    /**
+     * Tells whether the live model was trained with a user's interactions.
+     *
+     * @param userId The ID of the user.
+     * @return false for users who joined or first interacted after the last training, or if no
+     *         model is loaded.
+     */
+    public boolean knowsUser(String userId) {
+        FactorModel current = model.get();
+        return current != null && current.hasUser(userId);
+    }
+
+    /**
+     * Returns the model currently used for scoring.
+     *
+     * @return The live model, or null if none has been loaded yet.
+     */
+    public FactorModel model() {
+        return model.get();
+    }
+
+    /**
+     * Downloads and stores a new factor export in the background, e.g. after training.
+     * Requests made while an export is running are ignored.
+     */
+    public void exportAsync() {
+        if (!exporting.compareAndSet(false, true)) return;
+        try {
+            exportExecutor.execute(() -> {
+                try {
+                    export();
+                } catch (MLServiceClient.ModelNotReadyException e) {
+                    log.info("Factor export skipped: model not trained yet");
+                } catch (Exception e) {
+                    log.warn("Factor export failed, keeping the current model: {}", e.getMessage());
+                } finally {
+                    exporting.set(false);
+                }
+            });
+        } catch (Exception e) {
+            exporting.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        syncWithLatestVersion();
+        if (model.get() == null) {
+            exportAsync();
+        }
+        log.info("Local recommendation scoring uses the {} kernel",
+                FactorScoring.VECTORIZED ? "Vector API (SIMD)" : "scalar");
+    }
+
+    @Scheduled(
+            initialDelayString = "${recommendations.model.poll-interval-ms:60000}",
+            fixedDelayString = "${recommendations.model.poll-interval-ms:60000}"
+    )
+    public void syncWithLatestVersion() {
+        try {
+            GridFSFile latest = latestFile();
+            if (latest == null) return;
+            long version = versionOf(latest);
+            FactorModel current = model.get();
+            if (current != null && current.version() >= version) return;
+
+            try (InputStream in = gridFsTemplate.getResource(latest).getInputStream()) {
+                swapIn(FactorModel.parse(in.readAllBytes()));
+            }
+        } catch (Exception e) {
+            log.warn("Could not load the latest factor model: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exportExecutor.shutdownNow();
+    }
+
+    // Helper to fetch the export, swap it in, persist it and drop all but it and the previous version
+    private void export() throws IOException {
+        byte[] data = mlServiceClient.factors();
+        FactorModel exported = FactorModel.parse(data);
+        FactorModel current = model.get();
+        if (current != null && current.version() >= exported.version()) return;
+
+        if (!swapIn(exported)) return;
+        Query sameVersion = new Query(Criteria.where("filename").is(FILE_NAME)
+                .and(VERSION_FIELD).is(exported.version()));
+        if (gridFsTemplate.findOne(sameVersion) == null) {
+            try (InputStream in = new ByteArrayInputStream(data)) {
+                gridFsTemplate.store(in, FILE_NAME, "application/octet-stream",
+                        new Document("version", exported.version()));
+            }
+        }
+
+        long keepFrom = current == null ? exported.version() : current.version();
+        gridFsTemplate.delete(new Query(Criteria.where("filename").is(FILE_NAME)
+                .and(VERSION_FIELD).lt(keepFrom)));
+    }
+
+    // Helper to make a model live unless the live one is the same version or newer
+    private boolean swapIn(FactorModel next) {
+        FactorModel live = model.updateAndGet(current ->
+                current != null && current.version() >= next.version() ? current : next);
+        if (live != next) return false;
+        log.info("Factor model version {} live ({} users, {} movies)", next.version(), next.users(), next.movies());
+        return true;
+    }
+
+    // Helper to collect what the user already interacted with, mirroring the Python exclusions
+    private Set<String> seenMovieIds(String userId) {
+        Query byUser = new Query(Criteria.where("userId").is(userId));
+        Set<String> seen = new HashSet<>();
+        seen.addAll(mongoTemplate.findDistinct(byUser, "movieId", MovieLike.class, String.class));
+        seen.addAll(mongoTemplate.findDistinct(byUser, "movieId", WatchLaterEntry.class, String.class));
+        seen.addAll(mongoTemplate.findDistinct(byUser, "movieId", WatchProgress.class, String.class));
+        return seen;
+    }
+
+    private GridFSFile latestFile() {
+        Query query = new Query(Criteria.where("filename").is(FILE_NAME))
+                .with(Sort.by(Sort.Direction.DESC, VERSION_FIELD));
+        return gridFsTemplate.find(query).first();
+    }
+
+    private static long versionOf(GridFSFile file) {
+        Document metadata = file.getMetadata();
+        Object version = metadata == null ? null : metadata.get("version");
+        return version instanceof Number number ? number.longValue() : 0;
+    }
+}
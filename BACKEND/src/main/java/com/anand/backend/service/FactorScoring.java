@@ -0,0 +1,60 @@
+package com.anand.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Dot-product kernels that score one user against every movie of a {@link FactorModel}.
+ * <p>
+ * Movie factors are stored component-major ({@code factors[c * movies + j]}), so each component
+ * contributes one contiguous multiply-add over all movies. When the {@code jdk.incubator.vector}
+ * module is available (start the JVM with {@code --add-modules jdk.incubator.vector}) the
+ * {@link VectorFactorScoring} SIMD kernel is used; otherwise the scalar loop below, which the JIT
+ * may still auto-vectorize.
+ * </p>
+ */
+final class FactorScoring {
+
+    static final boolean VECTORIZED = detectVectorSupport();
+
+    private FactorScoring() {
+    }
+
+    /**
+     * Computes {@code out[j] = sum_c user[c] * factors[c * movies + j]} for every movie.
+     *
+     * @param user    The user's factor vector.
+     * @param factors The movie factors, component-major.
+     * @param movies  The number of movies.
+     * @param out     Receives one score per movie; at least {@code movies} long.
+     */
+    static void scores(float[] user, float[] factors, int movies, float[] out) {
+        if (VECTORIZED) {
+            VectorFactorScoring.scores(user, factors, movies, out);
+        } else {
+            scalarScores(user, factors, movies, out);
+        }
+    }
+
+    // Scalar fallback; also the baseline in FactorScoringBenchmark
+    static void scalarScores(float[] user, float[] factors, int movies, float[] out) {
+        Arrays.fill(out, 0, movies, 0f);
+        for (int c = 0; c < user.length; c++) {
+            float weight = user[c];
+            if (weight == 0f) continue;  // NMF factors are non-negative and often sparse
+            int base = c * movies;
+            for (int j = 0; j < movies; j++) {
+                out[j] += weight * factors[base + j];
+            }
+        }
+    }
+
+    // The incubator classes are only touched once the module is known to be present
+    private static boolean detectVectorSupport() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return false;
+        try {
+            return VectorFactorScoring.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
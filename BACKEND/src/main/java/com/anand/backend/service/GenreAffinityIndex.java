@@ -0,0 +1,260 @@
+package com.anand.backend.service;
+
+import com.anand.backend.dto.MovieCard;
+import com.anand.backend.entity.MovieLike;
+import com.anand.backend.entity.WatchProgress;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user genre affinity, updated the moment a user likes or watches a title, used to
+ * personalize recommendations for users the trained model does not know yet.
+ * <p>
+ * Each user has a small {@code float[]} with one weight per genre dimension, i.e. per
+ * {@link com.anand.backend.enums.Genre} ordinal plus hashed buckets for other genres
+ * ({@link GenreDimensions}). A like adds {@value #LIKE_WEIGHT} spread over the movie's genres
+ * and an unlike takes it back if the vector counted that like; otherwise the vector is dropped and
+ * re-seeded on next use. Watching at least {@value #MIN_WATCHED_FRACTION} of a movie adds
+ * {@value #WATCH_WEIGHT} once. A ring of the last {@value #SEEN_CAPACITY} counted movie IDs keeps
+ * player heartbeats from counting the same title twice and keeps seen titles out of the results.
+ * </p>
+ * <p>
+ * A vector is seeded on first use from the user's most recent likes and watch progress, so it
+ * survives restarts and includes activity served by other instances, and is re-seeded
+ * {@code recommendations.affinity.ttl-seconds} after it was built. Events for users without a
+ * vector in memory are skipped; the next seed reads them from MongoDB.
+ * </p>
+ */
+@Component
+public class GenreAffinityIndex {
+
+    static final float LIKE_WEIGHT = 2f;
+    static final float WATCH_WEIGHT = 1f;
+    static final double MIN_WATCHED_FRACTION = 0.1;
+    static final int SEEN_CAPACITY = 32;
+    private static final int SEED_SIZE = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final MovieCardHydrator movieCardHydrator;
+    private final WatchProgressBuffer watchProgressBuffer;
+    private final float affinityWeight;
+    private final Cache<String, Affinity> affinities;
+
+    public GenreAffinityIndex(
+            MongoTemplate mongoTemplate,
+            MovieCardHydrator movieCardHydrator,
+            WatchProgressBuffer watchProgressBuffer,
+            MeterRegistry meterRegistry,
+            @Value("${recommendations.affinity.weight:2.0}") float affinityWeight,
+            @Value("${recommendations.affinity.max-users:100000}") long maxUsers,
+            @Value("${recommendations.affinity.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.movieCardHydrator = movieCardHydrator;
+        this.watchProgressBuffer = watchProgressBuffer;
+        this.affinityWeight = affinityWeight;
+        this.affinities = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, affinities, "genreAffinity");
+    }
+
+    // One user's weights and recently counted titles; guarded by its own monitor
+    private static final class Affinity {
+        final float[] weights = new float[GenreDimensions.COUNT];
+        final String[] seen = new String[SEEN_CAPACITY];
+        // Movies whose like is counted in the weights
+        final Set<String> liked = new HashSet<>();
+        int nextSeen;
+
+        boolean hasSeen(String movieId) {
+            for (String id : seen) {
+                if (movieId.equals(id)) return true;
+            }
+            return false;
+        }
+
+        void markSeen(String movieId) {
+            seen[nextSeen] = movieId;
+            nextSeen = (nextSeen + 1) % SEEN_CAPACITY;
+        }
+
+        void add(List<String> genres, float weight) {
+            if (genres == null || genres.isEmpty()) return;
+            float share = weight / genres.size();
+            for (String genre : genres) {
+                int dim = GenreDimensions.of(genre);
+                if (dim >= 0) weights[dim] = Math.max(0f, weights[dim] + share);
+            }
+        }
+    }
+
+    /**
+     * Counts a like, or takes one back.
+     *
+     * @param userId  The ID of the user.
+     * @param movieId The ID of the movie.
+     * @param liked   true for a new like, false for an unlike.
+     */
+    public void recordLike(String userId, String movieId, boolean liked) {
+        Affinity affinity = affinities.getIfPresent(userId);
+        if (affinity == null) return;
+        List<String> genres = genresOf(movieId);
+        synchronized (affinity) {
+            if (liked) {
+                if (!affinity.liked.add(movieId)) return;
+                affinity.add(genres, LIKE_WEIGHT);
+                if (!affinity.hasSeen(movieId)) affinity.markSeen(movieId);
+            } else if (affinity.liked.remove(movieId)) {
+                affinity.add(genres, -LIKE_WEIGHT);
+            } else {
+                // A like older than the seed was never counted
+                affinities.asMap().remove(userId, affinity);
+            }
+        }
+    }
+
+    /**
+     * Counts a watched title once its watched fraction reaches the threshold. Cheap enough to
+     * call on every player heartbeat.
+     *
+     * @param userId   The ID of the user.
+     * @param movieId  The ID of the movie.
+     * @param fraction The watched fraction of the movie.
+     */
+    public void recordProgress(String userId, String movieId, double fraction) {
+        if (fraction < MIN_WATCHED_FRACTION) return;
+        Affinity affinity = affinities.getIfPresent(userId);
+        if (affinity == null) return;
+        synchronized (affinity) {
+            if (affinity.hasSeen(movieId)) return;
+            affinity.markSeen(movieId);
+        }
+        List<String> genres = genresOf(movieId);
+        synchronized (affinity) {
+            affinity.add(genres, WATCH_WEIGHT);
+        }
+    }
+
+    /**
+     * Re-ranks popularity-ordered candidates by the user's genre affinity.
+     * <p>
+     * A candidate at rank {@code r} of {@code n} scores {@code 1 - r/n} for popularity plus
+     * {@code recommendations.affinity.weight} times the mean normalized affinity of its genres,
+     * so titles in the user's favorite genres rise above more popular ones while popularity
+     * still orders titles of equal affinity. Titles the user recently liked or watched are left out.
+     * </p>
+     *
+     * @param userId     The ID of the user.
+     * @param candidates Movie cards, most popular first.
+     * @return The re-ranked cards, or null if the user has no genre signal yet.
+     */
+    public List<MovieCard> rerank(String userId, List<MovieCard> candidates) {
+        Affinity affinity = affinities.get(userId, this::seed);
+        float[] weights;
+        String[] seen;
+        synchronized (affinity) {
+            weights = affinity.weights.clone();
+            seen = affinity.seen.clone();
+        }
+        float max = 0;
+        for (float weight : weights) max = Math.max(max, weight);
+        if (max == 0) return null;
+
+        List<String> excluded = Arrays.asList(seen);
+        int n = candidates.size();
+        List<MovieCard> kept = new ArrayList<>(n);
+        double[] scores = new double[n];
+        for (int rank = 0; rank < n; rank++) {
+            MovieCard card = candidates.get(rank);
+            if (excluded.contains(card.movieId())) continue;
+            scores[kept.size()] = 1.0 - (double) rank / n + affinityWeight * meanAffinity(weights, max, card.genres());
+            kept.add(card);
+        }
+
+        Integer[] order = new Integer[kept.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+        List<MovieCard> ranked = new ArrayList<>(order.length);
+        for (int i : order) ranked.add(kept.get(i));
+        return ranked;
+    }
+
+    // Helper to build a user's vector from their recent likes and watch progress
+    private Affinity seed(String userId) {
+        Query byUser = new Query(Criteria.where("userId").is(userId)).limit(SEED_SIZE);
+        List<String> liked = mongoTemplate.find(Query.of(byUser).with(Sort.by(Sort.Direction.DESC, "createdAt")),
+                MovieLike.class).stream().map(MovieLike::getMovieId).toList();
+
+        Map<String, WatchProgress> watched = new HashMap<>();
+        for (WatchProgress progress : mongoTemplate.find(
+                Query.of(byUser).with(Sort.by(Sort.Direction.DESC, "lastWatchedAt")), WatchProgress.class)) {
+            watched.put(progress.getMovieId(), progress);
+        }
+        for (WatchProgress progress : watchProgressBuffer.getAll(userId)) {
+            watched.put(progress.getMovieId(), progress);
+        }
+
+        Collection<String> movieIds = new ArrayList<>(liked);
+        movieIds.addAll(watched.keySet());
+        Map<String, MovieCard> cards = movieCardHydrator.lookup(movieIds);
+
+        Affinity affinity = new Affinity();
+        for (String movieId : liked) {
+            MovieCard card = cards.get(movieId);
+            if (card != null) affinity.add(card.genres(), LIKE_WEIGHT);
+            affinity.liked.add(movieId);
+            affinity.markSeen(movieId);
+        }
+        for (WatchProgress progress : watched.values()) {
+            if (watchedFraction(progress) < MIN_WATCHED_FRACTION || affinity.hasSeen(progress.getMovieId())) continue;
+            MovieCard card = cards.get(progress.getMovieId());
+            if (card != null) affinity.add(card.genres(), WATCH_WEIGHT);
+            affinity.markSeen(progress.getMovieId());
+        }
+        return affinity;
+    }
+
+    private List<String> genresOf(String movieId) {
+        MovieCard card = movieCardHydrator.lookup(List.of(movieId)).get(movieId);
+        return card == null ? null : card.genres();
+    }
+
+    // Mean of the genres' weights, each scaled to [0, 1] by the user's strongest genre
+    private static double meanAffinity(float[] weights, float max, List<String> genres) {
+        if (genres == null || genres.isEmpty()) return 0;
+        double sum = 0;
+        for (String genre : genres) {
+            int dim = GenreDimensions.of(genre);
+            if (dim >= 0) sum += weights[dim] / max;
+        }
+        return sum / genres.size();
+    }
+
+    private static double watchedFraction(WatchProgress progress) {
+        Double total = progress.getTotalDurationSeconds();
+        Double position = progress.getTimestampSeconds();
+        if (total == null || position == null || total <= 0) return 0;
+        return position / total;
+    }
+}
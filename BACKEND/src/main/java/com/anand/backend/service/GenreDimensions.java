@@ -0,0 +1,36 @@
+package com.anand.backend.service;
+
+import com.anand.backend.enums.Genre;
+
+import java.util.Locale;
+
+/**
+ * Maps free-form genre names to dense vector dimensions.
+ * <p>
+ * Known genres take the dimension of their {@link Genre} ordinal; any other genre is hashed into
+ * one of {@value #OTHER_BUCKETS} buckets after them, so genres outside the enum (e.g. "Thriller")
+ * still carry signal. Names are matched ignoring case, spaces and punctuation ("Sci-Fi" is
+ * {@link Genre#SCIFI}).
+ * </p>
+ */
+final class GenreDimensions {
+
+    static final int OTHER_BUCKETS = 8;
+    static final int COUNT = Genre.values().length + OTHER_BUCKETS;
+
+    private GenreDimensions() {
+    }
+
+    /**
+     * @return The dimension of the genre, or -1 if the name is blank.
+     */
+    static int of(String genre) {
+        if (genre == null) return -1;
+        String key = genre.replaceAll("[^\\p{L}\\p{Nd}]", "").toUpperCase(Locale.ROOT);
+        if (key.isEmpty()) return -1;
+        for (Genre known : Genre.values()) {
+            if (known.name().equals(key)) return known.ordinal();
+        }
+        return Genre.values().length + Math.floorMod(key.hashCode(), OTHER_BUCKETS);
+    }
+}
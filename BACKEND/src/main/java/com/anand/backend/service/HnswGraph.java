@@ -0,0 +1,491 @@
+package com.anand.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World (HNSW) graph for approximate nearest-neighbour search over
+ * vectors of at most unit length, ranked by inner product (cosine similarity for unit vectors).
+ * <p>
+ * Every vector is a node on layer 0 and, with exponentially decreasing probability, on higher
+ * layers. A search descends greedily from the top layer's entry point and then runs a best-first
+ * search on layer 0 with a candidate list of size {@code ef}. Each node keeps at most {@code m}
+ * neighbours per layer ({@code 2m} on layer 0), chosen with the diversity heuristic from the HNSW
+ * paper so the graph stays navigable across clusters. Insertion and search cost about
+ * {@code O(log n)} distance computations, and memory grows linearly with the catalog.
+ * </p>
+ * <p>
+ * Tuning: larger {@code m} and {@code efConstruction} build a better graph more slowly; the
+ * per-query {@code ef} trades latency for recall.
+ * </p>
+ * <p>
+ * Nodes are addressed by a string key. Replacing or removing a key only marks the old node
+ * deleted: it still routes searches but is never returned. Callers rebuild the graph once the
+ * {@link #deletedFraction()} grows. Searches share a read lock; insertions and deletions take the
+ * write lock.
+ * </p>
+ */
+public final class HnswGraph {
+
+    private static final int[] NO_LINKS = new int[0];
+
+    private final int dims;
+    private final int m;
+    private final int maxLinksLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private float[] vectors;
+    private int[][][] links;  // links[node][layer] = neighbour nodes
+    private String[] keys;
+    private final BitSet deleted = new BitSet();
+    private final Map<String, Integer> nodesByKey = new HashMap<>();
+    private int size;
+    private int entryPoint = -1;
+    private int maxLayer = -1;
+    // Visited marks for insertions, which run one at a time under the write lock
+    private int[] visitedStamps = new int[16];
+    private int stamp;
+
+    /**
+     * One search result.
+     *
+     * @param key        The key of the matching node.
+     * @param similarity The inner product with the query.
+     */
+    public record Hit(String key, float similarity) {}
+
+    public HnswGraph(int dims, int m, int efConstruction, long seed) {
+        if (dims <= 0 || m < 2 || efConstruction < m) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.dims = dims;
+        this.m = m;
+        this.maxLinksLayer0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+        this.vectors = new float[16 * dims];
+        this.links = new int[16][][];
+        this.keys = new String[16];
+    }
+
+    public int dims() {
+        return dims;
+    }
+
+    /**
+     * Inserts a vector, replacing any live node with the same key.
+     *
+     * @param key    The key returned by searches.
+     * @param vector A vector of at most unit length with {@link #dims()} components; it is copied.
+     */
+    public void upsert(String key, float[] vector) {
+        if (vector.length != dims) throw new IllegalArgumentException("Expected " + dims + " dimensions");
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodesByKey.remove(key);
+            if (previous != null) deleted.set(previous);
+            nodesByKey.put(key, insert(key, vector));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a key from search results. Unknown keys are ignored.
+     *
+     * @param key The key to remove.
+     */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesByKey.remove(key);
+            if (node != null) deleted.set(node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the live vector stored under a key.
+     *
+     * @param key The key.
+     * @return The vector, or null if the key is not in the graph.
+     */
+    public float[] vector(String key) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesByKey.get(key);
+            return node == null ? null : Arrays.copyOfRange(vectors, node * dims, (node + 1) * dims);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the keys of all live nodes.
+     *
+     * @return A snapshot of the keys.
+     */
+    public Set<String> keys() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(nodesByKey.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the share of nodes that are deleted but still part of the graph.
+     *
+     * @return A value between 0 and 1.
+     */
+    public double deletedFraction() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : (double) deleted.cardinality() / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the live nodes most similar to a query vector.
+     *
+     * @param query    A unit-length query vector.
+     * @param k        The maximum number of results.
+     * @param ef       The search list size; raised to {@code k} if smaller.
+     * @param excluded Keys never to return, e.g. the query's own movie.
+     * @return Up to {@code k} hits, most similar first.
+     */
+    public List<Hit> search(float[] query, int k, int ef, Collection<String> excluded) {
+        if (query.length != dims) throw new IllegalArgumentException("Expected " + dims + " dimensions");
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) return List.of();
+
+            IntSet rejected = new IntSet(excluded.size());
+            for (String key : excluded) {
+                Integer node = nodesByKey.get(key);
+                if (node != null) rejected.add(node);
+            }
+
+            int current = entryPoint;
+            for (int layer = maxLayer; layer > 0; layer--) {
+                current = greedyClosest(query, current, layer);
+            }
+            NodeHeap found = searchLayer(query, current, Math.max(ef, k), 0, new IntSet(Math.max(ef, k) * m), rejected);
+
+            int[] nodes = found.drainDescending();
+            List<Hit> hits = new ArrayList<>(Math.min(k, nodes.length));
+            for (int i = 0; i < nodes.length && hits.size() < k; i++) {
+                hits.add(new Hit(keys[nodes[i]], similarity(query, nodes[i])));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper to add a node and link it on every layer up to its random level; caller holds the write lock
+    private int insert(String key, float[] vector) {
+        int node = size++;
+        ensureCapacity(size);
+        System.arraycopy(vector, 0, vectors, node * dims, dims);
+        keys[node] = key;
+
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        links[node] = new int[level + 1][];
+        Arrays.fill(links[node], NO_LINKS);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLayer = level;
+            return node;
+        }
+
+        int current = entryPoint;
+        for (int layer = maxLayer; layer > level; layer--) {
+            current = greedyClosest(vector, current, layer);
+        }
+        for (int layer = Math.min(level, maxLayer); layer >= 0; layer--) {
+            NodeHeap found = searchLayer(vector, current, efConstruction, layer, null, null);
+            int[] candidates = found.drainDescending();
+            int[] neighbours = selectNeighbours(node, candidates, m);
+            links[node][layer] = neighbours;
+            for (int neighbour : neighbours) {
+                connect(neighbour, node, layer);
+            }
+            current = candidates[0];
+        }
+
+        if (level > maxLayer) {
+            maxLayer = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    // Helper to add a back link, re-pruning the neighbour's list if it overflows
+    private void connect(int from, int to, int layer) {
+        int[] existing = links[from][layer];
+        int limit = layer == 0 ? maxLinksLayer0 : m;
+        int[] extended = Arrays.copyOf(existing, existing.length + 1);
+        extended[existing.length] = to;
+        if (extended.length <= limit) {
+            links[from][layer] = extended;
+            return;
+        }
+
+        // Order by similarity to the owner, then keep a diverse subset
+        NodeHeap ranked = new NodeHeap(extended.length);
+        for (int candidate : extended) {
+            ranked.push(candidate, similarity(from, candidate));
+        }
+        links[from][layer] = selectNeighbours(from, ranked.drainDescending(), limit);
+    }
+
+    // Diversity heuristic: keep a candidate only if it is closer to the base than to any kept neighbour
+    private int[] selectNeighbours(int base, int[] candidatesDescending, int limit) {
+        int[] selected = new int[Math.min(limit, candidatesDescending.length)];
+        int count = 0;
+        for (int candidate : candidatesDescending) {
+            if (count == selected.length) break;
+            if (candidate == base) continue;
+            float toBase = similarity(base, candidate);
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (similarity(candidate, selected[i]) > toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) selected[count++] = candidate;
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    // Helper to walk greedily towards the query on one upper layer
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float best = similarity(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : linksOf(current, layer)) {
+                float score = similarity(query, neighbour);
+                if (score > best) {
+                    best = score;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Best-first search on one layer; deleted and rejected nodes are traversed but never returned.
+    // Searches (visited != null) only return live nodes; insertions link to any node.
+    private NodeHeap searchLayer(float[] query, int start, int ef, int layer, IntSet visited, IntSet rejected) {
+        boolean searching = visited != null;
+        if (!searching) stamp++;
+        NodeHeap candidates = new NodeHeap(ef * 2);  // max-heap via negated scores
+        NodeHeap results = new NodeHeap(ef + 1);     // min-heap of the best ef
+
+        float startScore = similarity(query, start);
+        markVisited(start, visited);
+        candidates.push(start, -startScore);
+        if (!searching || returnable(start, rejected)) results.push(start, startScore);
+
+        while (candidates.size() > 0) {
+            float score = -candidates.peekScore();
+            int node = candidates.pop();
+            if (results.size() >= ef && score < results.peekScore()) break;
+
+            for (int neighbour : linksOf(node, layer)) {
+                if (!markVisited(neighbour, visited)) continue;
+                float neighbourScore = similarity(query, neighbour);
+                if (results.size() < ef || neighbourScore > results.peekScore()) {
+                    candidates.push(neighbour, -neighbourScore);
+                    if (!searching || returnable(neighbour, rejected)) {
+                        results.push(neighbour, neighbourScore);
+                        if (results.size() > ef) results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean returnable(int node, IntSet rejected) {
+        return !deleted.get(node) && !rejected.contains(node);
+    }
+
+    // Marks a node visited; false if it already was
+    private boolean markVisited(int node, IntSet visited) {
+        if (visited != null) return visited.add(node);
+        if (visitedStamps[node] == stamp) return false;
+        visitedStamps[node] = stamp;
+        return true;
+    }
+
+    private int[] linksOf(int node, int layer) {
+        int[][] nodeLinks = links[node];
+        return layer < nodeLinks.length ? nodeLinks[layer] : NO_LINKS;
+    }
+
+    private float similarity(float[] query, int node) {
+        int offset = node * dims;
+        float sum = 0f;
+        for (int i = 0; i < dims; i++) {
+            sum += query[i] * vectors[offset + i];
+        }
+        return sum;
+    }
+
+    private float similarity(int a, int b) {
+        int offsetA = a * dims;
+        int offsetB = b * dims;
+        float sum = 0f;
+        for (int i = 0; i < dims; i++) {
+            sum += vectors[offsetA + i] * vectors[offsetB + i];
+        }
+        return sum;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes <= keys.length) return;
+        int capacity = Math.max(nodes, keys.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity * dims);
+        links = Arrays.copyOf(links, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        visitedStamps = Arrays.copyOf(visitedStamps, capacity);
+    }
+
+    /**
+     * Open-addressing set of non-negative ints, sized for one search instead of the whole graph.
+     */
+    private static final class IntSet {
+        private int[] slots;
+        private int size;
+
+        IntSet(int expected) {
+            slots = new int[Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1];
+            Arrays.fill(slots, -1);
+        }
+
+        boolean contains(int value) {
+            int mask = slots.length - 1;
+            for (int i = mix(value) & mask; slots[i] != -1; i = (i + 1) & mask) {
+                if (slots[i] == value) return true;
+            }
+            return false;
+        }
+
+        // Adds a value; false if it was already present
+        boolean add(int value) {
+            int mask = slots.length - 1;
+            int i = mix(value) & mask;
+            for (; slots[i] != -1; i = (i + 1) & mask) {
+                if (slots[i] == value) return false;
+            }
+            slots[i] = value;
+            if (++size * 2 > slots.length) grow();
+            return true;
+        }
+
+        private void grow() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            Arrays.fill(slots, -1);
+            size = 0;
+            for (int value : old) {
+                if (value != -1) add(value);
+            }
+        }
+
+        private static int mix(int value) {
+            return value * 0x9E3779B9;
+        }
+    }
+
+    /**
+     * Binary min-heap of (node, score) pairs on primitive arrays, to avoid boxing in searches.
+     */
+    private static final class NodeHeap {
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        NodeHeap(int capacity) {
+            nodes = new int[Math.max(capacity, 4)];
+            scores = new float[nodes.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= score) break;
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && scores[child + 1] < scores[child]) child++;
+                if (scores[child] >= lastScore) break;
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            scores[i] = lastScore;
+            return top;
+        }
+
+        // Empties the heap, returning nodes from highest to lowest score
+        int[] drainDescending() {
+            int[] ordered = new int[size];
+            for (int i = ordered.length - 1; i >= 0; i--) {
+                ordered[i] = pop();
+            }
+            return ordered;
+        }
+    }
+}
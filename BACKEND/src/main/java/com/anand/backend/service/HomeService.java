@@ -0,0 +1,136 @@
+package com.anand.backend.service;
+
+import com.anand.backend.dto.ContinueWatchingItem;
+import com.anand.backend.dto.HomeFeed;
+import com.anand.backend.dto.MovieCard;
+import com.anand.backend.enums.MovieSort;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service that assembles the home page in a single request.
+ * <p>
+ * Every row (featured titles, recommendations, "Continue Watching" and one row per genre) is
+ * loaded on its own virtual thread, so the page costs one round trip, one authentication and the
+ * latency of the slowest row instead of the sum of all of them.
+ * </p>
+ * <p>
+ * Each row has a deadline measured from the start of the request: catalog and user rows share
+ * {@code home.row-timeout-ms}, recommendations get {@code home.recommendations-timeout-ms} because
+ * they call the ML service. A row that misses its deadline is cancelled, and a row that fails or
+ * times out is returned empty and reported in {@link HomeFeed#degradedRows()}.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeService {
+
+    private static final int FEATURED_POOL = 10;
+
+    private final MovieService movieService;
+    private final MLRecommendationService mlRecommendationService;
+    private final UserService userService;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${home.row-timeout-ms:800}")
+    private long rowTimeoutMs;
+
+    @Value("${home.recommendations-timeout-ms:1500}")
+    private long recommendationsTimeoutMs;
+
+    /**
+     * Loads all home-page rows concurrently.
+     *
+     * @param userId  The ID of the user, used for personalized rows.
+     * @param rowSize The maximum number of movies per row.
+     * @return The assembled feed; rows that failed or timed out are empty.
+     */
+    public HomeFeed getHomeFeed(String userId, int rowSize) {
+        long start = System.nanoTime();
+
+        Row<List<MovieCard>> featured = submit("featured", rowTimeoutMs, start,
+                () -> MovieCard.fromAll(movieService.getAllMovies(0, FEATURED_POOL).getContent()));
+        Row<List<MovieCard>> recommended = submit("recommended", recommendationsTimeoutMs, start,
+                () -> mlRecommendationService.getRecommendationsForUser(userId, rowSize));
+        Row<List<ContinueWatchingItem>> continueWatching = submit("continueWatching", rowTimeoutMs, start,
+                () -> userService.getContinueWatching(userId, rowSize));
+
+        // Genre names come from the in-memory facet index, so this does not wait on I/O
+        Map<String, Long> genreCounts = movieService.getGenreCounts();
+        List<Row<List<MovieCard>>> genres = new ArrayList<>(genreCounts.size());
+        for (String genre : genreCounts.keySet()) {
+            genres.add(submit("genre:" + genre, rowTimeoutMs, start,
+                    () -> movieService.filterByFacets(List.of(genre), null, null, null,
+                            MovieSort.NEWEST, 0, rowSize).content()));
+        }
+
+        List<String> degraded = new ArrayList<>();
+        List<HomeFeed.GenreRow> genreRows = new ArrayList<>(genres.size());
+        for (Row<List<MovieCard>> row : genres) {
+            List<MovieCard> movies = row.await(List.of(), degraded);
+            if (!movies.isEmpty()) {
+                genreRows.add(new HomeFeed.GenreRow(row.name().substring("genre:".length()), movies));
+            }
+        }
+
+        HomeFeed feed = new HomeFeed(
+                featured.await(List.of(), degraded),
+                recommended.await(List.of(), degraded),
+                continueWatching.await(List.of(), degraded),
+                genreRows,
+                List.copyOf(degraded)
+        );
+        log.debug("Home feed for user {} built in {} ms ({} degraded rows)", userId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), degraded.size());
+        return feed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Helper to start one row on a virtual thread with a deadline relative to the request start
+    private <T> Row<T> submit(String name, long timeoutMs, long startNanos, Callable<T> loader) {
+        return new Row<>(name, executor.submit(loader), startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * A row being loaded, with the absolute deadline it must meet.
+     */
+    private record Row<T>(String name, Future<T> future, long deadlineNanos) {
+
+        T await(T fallback, List<String> degraded) {
+            long remaining = deadlineNanos - System.nanoTime();
+            try {
+                return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Home row '{}' timed out, using fallback", name);
+            } catch (ExecutionException e) {
+                log.warn("Home row '{}' failed, using fallback: {}", name, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            degraded.add(name);
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.InteractionEvent;
+import com.anand.backend.entity.WatchProgress;
+import com.anand.backend.enums.InteractionType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Outbox of user interactions (views, likes, watch-later changes, progress and completions),
+ * exported as an incremental feed so the recommender can train from deltas instead of
+ * rescanning every interaction collection.
+ * <p>
+ * Events are queued in memory and appended by a scheduled flush as unordered bulk inserts of up
+ * to {@value #WRITE_BATCH_SIZE} documents. Each batch takes a contiguous range of sequence numbers
+ * with a single {@code $inc} on a shared counter, so numbers are unique across instances and
+ * serve as the export cursor. Events that fail to insert are retried in the next flush under new
+ * numbers, which leaves gaps in the sequence; delivery is at-least-once. At most {@code interactions.outbox.max-pending} events are
+ * held in memory; beyond that new events are dropped and counted in
+ * {@code interactions.outbox.dropped}. Player heartbeats are not recorded one by one: the
+ * {@link WatchProgressBuffer} hands over each coalesced batch after persisting it.
+ * </p>
+ * <p>
+ * Two instances may number their batches in one order and finish writing them in the other, so
+ * the export only reads up to a committed watermark. While flushing, each instance keeps a marker
+ * in {@code interaction_event_writers} holding a lower bound of the numbers it is writing (the
+ * counter value before it allocates, plus one). The watermark is the counter value read first,
+ * lowered to just below every live marker, so no consumer moves its cursor past a batch that is
+ * still being inserted. Markers older than {@code interactions.outbox.writer-lease-ms}, e.g. left
+ * by a crashed instance, are ignored.
+ * </p>
+ */
+@Slf4j
+@Component
+public class InteractionOutbox {
+
+    private static final String COLLECTION = "interaction_events";
+    private static final String SEQUENCE_COLLECTION = "interaction_event_sequence";
+    private static final String SEQUENCE_ID = COLLECTION;
+    private static final String WRITERS_COLLECTION = "interaction_event_writers";
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final int maxPending;
+    private final long writerLeaseMs;
+    private final Counter dropped;
+    private final String writerId = UUID.randomUUID().toString();
+
+    private final ConcurrentLinkedQueue<InteractionEvent> pending = new ConcurrentLinkedQueue<>();
+    // Events queued or awaiting a retry; bounded by maxPending
+    private final AtomicInteger unwritten = new AtomicInteger();
+    // Events whose insert failed; only touched by flush(), which is synchronized
+    private final Deque<InteractionEvent> retries = new ArrayDeque<>();
+
+    public InteractionOutbox(
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${interactions.outbox.max-pending:100000}") int maxPending,
+            @Value("${interactions.outbox.writer-lease-ms:60000}") long writerLeaseMs
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxPending = maxPending;
+        this.writerLeaseMs = writerLeaseMs;
+        this.dropped = Counter.builder("interactions.outbox.dropped")
+                .description("Interaction events dropped because the outbox buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an interaction for the next flush. Anonymous interactions are ignored.
+     *
+     * @param type    The kind of interaction.
+     * @param userId  The ID of the user, or null.
+     * @param movieId The ID of the movie.
+     * @param value   The watched fraction for {@link InteractionType#PROGRESS}, otherwise null.
+     */
+    public void record(InteractionType type, String userId, String movieId, Double value) {
+        if (userId == null || movieId == null) return;
+        if (unwritten.incrementAndGet() > maxPending) {
+            unwritten.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.add(InteractionEvent.builder()
+                .type(type)
+                .userId(userId)
+                .movieId(movieId)
+                .value(value)
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Queues one {@link InteractionType#PROGRESS} event per persisted heartbeat.
+     *
+     * @param batch The heartbeats just written by the {@link WatchProgressBuffer}.
+     */
+    public void recordProgress(Collection<WatchProgress> batch) {
+        for (WatchProgress progress : batch) {
+            Double total = progress.getTotalDurationSeconds();
+            Double position = progress.getTimestampSeconds();
+            if (total == null || position == null || total <= 0) continue;
+            record(InteractionType.PROGRESS, progress.getUserId(), progress.getMovieId(),
+                    Math.min(1.0, position / total));
+        }
+    }
+
+    /**
+     * Appends all queued events, one numbered bulk insert per batch.
+     */
+    @Scheduled(
+            initialDelayString = "${interactions.outbox.flush-interval-ms:5000}",
+            fixedDelayString = "${interactions.outbox.flush-interval-ms:5000}"
+    )
+    public synchronized void flush() {
+        if (retries.isEmpty() && pending.isEmpty()) return;
+        try {
+            markInFlight();
+        } catch (Exception e) {
+            log.warn("Interaction outbox flush postponed, could not register the writer: {}", e.getMessage());
+            return;
+        }
+        try {
+            List<InteractionEvent> batch;
+            while (!(batch = nextBatch()).isEmpty()) {
+                if (!write(batch)) return;
+            }
+        } finally {
+            clearInFlight();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Streams committed events after a cursor as newline-delimited JSON, oldest first.
+     * <p>
+     * Each line holds {@code seq}, {@code type}, {@code userId}, {@code movieId}, {@code at}
+     * (epoch millis) and, for progress events, {@code value}. Pass the {@code seq} of the last
+     * line as {@code after} to fetch the next slice; an empty response means the consumer is
+     * up to date. Sequence numbers may have gaps, left by retried or lost batches.
+     * </p>
+     *
+     * @param after The last sequence number already processed, 0 to start from the oldest event.
+     * @param limit The maximum number of events.
+     * @param out   The stream to write to; it is not closed.
+     * @return The number of events written.
+     * @throws IOException If writing fails.
+     */
+    public int export(long after, int limit, OutputStream out) throws IOException {
+        Query query = new Query(Criteria.where("_id").gt(after).lte(committedSeq()))
+                .with(Sort.by("_id"))
+                .limit(limit);
+        query.fields().include("type", "userId", "movieId", "value", "occurredAt");
+
+        int count = 0;
+        try (Stream<Document> events = mongoTemplate.stream(query, Document.class, COLLECTION);
+             JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            for (Document event : (Iterable<Document>) events::iterator) {
+                json.writeStartObject();
+                json.writeNumberField("seq", ((Number) event.get("_id")).longValue());
+                json.writeStringField("type", event.getString("type"));
+                json.writeStringField("userId", event.getString("userId"));
+                json.writeStringField("movieId", event.getString("movieId"));
+                Date occurredAt = event.getDate("occurredAt");
+                if (occurredAt != null) json.writeNumberField("at", occurredAt.getTime());
+                Object value = event.get("value");
+                if (value instanceof Number number) json.writeNumberField("value", number.doubleValue());
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the committed watermark: every event numbered at or below it is either written or
+     * will never be, so a consumer may move its cursor up to it.
+     *
+     * @return The watermark, 0 if nothing was written yet.
+     */
+    long committedSeq() {
+        Document counter = mongoTemplate.findById(SEQUENCE_ID, Document.class, SEQUENCE_COLLECTION);
+        long committed = counter == null ? 0 : ((Number) counter.get("value")).longValue();
+        Query live = new Query(Criteria.where("since").gt(Instant.now().minusMillis(writerLeaseMs)));
+        for (Document writer : mongoTemplate.find(live, Document.class, WRITERS_COLLECTION)) {
+            committed = Math.min(committed, ((Number) writer.get("pendingFrom")).longValue() - 1);
+        }
+        return committed;
+    }
+
+    // Helper to announce that this instance is about to allocate and insert events
+    private void markInFlight() {
+        Document counter = mongoTemplate.findById(SEQUENCE_ID, Document.class, SEQUENCE_COLLECTION);
+        long next = counter == null ? 1 : ((Number) counter.get("value")).longValue() + 1;
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(writerId)),
+                new Update().set("pendingFrom", next).set("since", Instant.now()),
+                WRITERS_COLLECTION
+        );
+    }
+
+    private void clearInFlight() {
+        try {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(writerId)), WRITERS_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Could not clear the outbox writer marker, the export waits for its lease: {}", e.getMessage());
+        }
+    }
+
+    // Helper to take retries first, then queued events, up to one write batch
+    private List<InteractionEvent> nextBatch() {
+        List<InteractionEvent> batch = new ArrayList<>();
+        while (batch.size() < WRITE_BATCH_SIZE && !retries.isEmpty()) {
+            batch.add(retries.pollFirst());
+        }
+        InteractionEvent event;
+        while (batch.size() < WRITE_BATCH_SIZE && (event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    // Helper to number and insert a batch; events that failed are kept for a retry
+    private boolean write(List<InteractionEvent> batch) {
+        try {
+            long seq = allocate(batch.size());
+            Instant now = Instant.now();
+            for (InteractionEvent event : batch) {
+                event.setSeq(seq++);
+                event.setWrittenAt(now);
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InteractionEvent.class)
+                    .insert(batch)
+                    .execute();
+            unwritten.addAndGet(-batch.size());
+            return true;
+        } catch (BulkOperationException e) {
+            List<InteractionEvent> failed = e.getErrors().stream()
+                    .map(error -> batch.get(error.getIndex()))
+                    .toList();
+            unwritten.addAndGet(failed.size() - batch.size());
+            retry(failed);
+            log.warn("Interaction outbox flush wrote {} of {} events, retrying the rest: {}",
+                    batch.size() - failed.size(), batch.size(), e.getMessage());
+            return false;
+        } catch (Exception e) {
+            retry(batch);
+            log.warn("Interaction outbox flush failed, {} events will be retried: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Reserves count consecutive sequence numbers and returns the first
+    private long allocate(int count) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(SEQUENCE_ID)),
+                new Update().inc("value", (long) count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                SEQUENCE_COLLECTION
+        );
+        return ((Number) counter.get("value")).longValue() - count + 1;
+    }
+
+    private void retry(List<InteractionEvent> events) {
+        for (int i = events.size() - 1; i >= 0; i--) {
+            InteractionEvent event = events.get(i);
+            event.setSeq(null);
+            retries.addFirst(event);
+        }
+    }
+}
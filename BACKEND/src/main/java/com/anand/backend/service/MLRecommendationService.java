@@ -1,28 +1,24 @@
 package com.anand.backend.service;
 
-import com.anand.backend.entity.Movie;
-import com.anand.backend.repository.MovieRepository;
+import com.anand.backend.dto.MovieCard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Service for interacting with the Machine Learning (ML) microservice.
  * <p>
- * This service acts as a client to the external Python-based ML service. It handles:
+ * This service calls the external Python-based ML service through {@link MLServiceClient},
+ * which adds timeouts, a circuit breaker and a bulkhead. It handles:
  * <ul>
- *   <li>Fetching personalized movie recommendations for users.</li>
+ *   <li>Fetching personalized movie recommendations for users, via a stale-while-revalidate cache.</li>
  *   <li>Retrieving similar movies based on content or collaborative filtering.</li>
- *   <li>Triggering model retraining tasks.</li>
- *   <li>Providing fallback recommendations (e.g., popular movies) when the ML service is unavailable.</li>
+ *   <li>Providing fallback recommendations (trending movies) when the ML service is unavailable.</li>
  * </ul>
  * </p>
  */
@@ -31,127 +27,120 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MLRecommendationService {
 
-    private final MovieRepository movieRepository;
-    private final RestClient restClient = RestClient.create();
+    // Extra neighbours fetched from the index to backfill titles the hydrator drops
+    private static final int HYDRATION_SLACK = 10;
 
-    @Value("${ml.service.url:http://localhost:5000}")
-    private String mlServiceUrl;
+    // Trending titles re-ranked by genre affinity for users the model does not know yet
+    private static final int COLD_START_CANDIDATES = 200;
+
+    private final MovieService movieService;
+    private final MLServiceClient mlServiceClient;
+    private final RecommendationCache recommendationCache;
+    private final MovieCardHydrator movieCardHydrator;
+    private final SimilarMoviesTable similarMoviesTable;
+    private final SimilarTitleIndex similarTitleIndex;
+    private final FactorModelStore factorModelStore;
+    private final GenreAffinityIndex genreAffinityIndex;
 
     /**
      * Retrieves personalized movie recommendations for a specific user.
      * <p>
-     * If the ML service is unavailable or returns no results, this method falls back
-     * to returning the most popular movies to ensure a consistent user experience.
+     * The list comes from the {@link RecommendationCache}, which serves the user's last ML answer
+     * immediately and refreshes it in the background when stale, so the ML service is only on the
+     * request path for users without any cached list. The cards are resolved by the
+     * {@link MovieCardHydrator}; the whole cached list is hydrated, so titles dropped as deleted or
+     * unprocessed are backfilled from further down the ranking. If no list is available at all,
+     * this method falls back to the trending movies.
+     * </p>
+     * <p>
+     * Users a loaded factor model does not know yet (joined or first active after the last
+     * training) are served in real time instead: trending titles re-ranked by the user's
+     * {@link GenreAffinityIndex}, which reflects their likes and views as they happen. Only if
+     * they have no genre signal yet do they take the path above.
      * </p>
      *
      * @param userId The unique identifier of the user.
      * @param limit  The maximum number of recommendations to return.
-     * @return A list of recommended Movie entities.
+     * @return The recommended movie cards, best first.
      */
-    public List<Movie> getRecommendationsForUser(String userId, int limit) {
-        try {
-            log.info("Fetching ML recommendations for user: {}", userId);
-
-            // Call ML service
-            List<RecommendationResponse> recommendations = restClient.get()
-                    .uri(mlServiceUrl + "/recommendations/{userId}?limit={limit}", userId, limit)
-                    .retrieve()
-                    .onStatus(status -> status.value() == 503, (request, response) -> {
-                        log.warn("ML model not trained yet (503), using fallback");
-                    })
-                    .body(new ParameterizedTypeReference<List<RecommendationResponse>>() {});
-
-            if (recommendations == null || recommendations.isEmpty()) {
-                log.warn("No recommendations from ML service, falling back to popular movies");
-                return getFallbackRecommendations(limit);
-            }
-
-            // Extract movie IDs
-            List<String> movieIds = recommendations.stream()
-                    .map(RecommendationResponse::getMovie_id)
-                    .collect(Collectors.toList());
-
-            // Fetch movies from database
-            List<Movie> movies = new ArrayList<>();
-            for (String movieId : movieIds) {
-                movieRepository.findById(movieId).ifPresent(movies::add);
+    public List<MovieCard> getRecommendationsForUser(String userId, int limit) {
+        if (factorModelStore.model() != null && !factorModelStore.knowsUser(userId)) {
+            List<MovieCard> personalized = genreAffinityIndex.rerank(
+                    userId, movieService.getTrending(null, Math.max(limit, COLD_START_CANDIDATES)));
+            if (personalized != null) {
+                return personalized.size() > limit ? personalized.subList(0, limit) : personalized;
             }
+        }
 
-            log.info("Retrieved {} recommended movies", movies.size());
-            return movies;
-
-        } catch (Exception e) {
-            log.warn("ML service error: {} - Using fallback recommendations", e.getMessage());
+        List<String> movieIds = recommendationCache.get(userId);
+        if (movieIds == null || movieIds.isEmpty()) {
             return getFallbackRecommendations(limit);
         }
+
+        List<MovieCard> cards = movieCardHydrator.hydrate(movieIds);
+        log.debug("Retrieved {} recommended movies for user {}", Math.min(limit, cards.size()), userId);
+        return cards.size() > limit ? cards.subList(0, limit) : cards;
     }
 
     /**
      * Retrieves a list of movies similar to the specified movie.
+     * <p>
+     * The answer is the same for every user, so it is served locally: first from the
+     * {@link SimilarTitleIndex} (HNSW over factor and genre embeddings, which also covers titles
+     * added since the last training), then from the precomputed {@link SimilarMoviesTable} while
+     * the index is still being built. Only movies neither of them knows are looked up live in the
+     * ML service.
+     * </p>
      *
      * @param movieId The unique identifier of the source movie.
      * @param limit   The maximum number of similar movies to return.
-     * @return A list of similar Movie entities.
+     * @return The similar movie cards, most similar first.
      */
-    public List<Movie> getSimilarMovies(String movieId, int limit) {
+    public List<MovieCard> getSimilarMovies(String movieId, int limit) {
+        List<String> nearest = similarTitleIndex.similar(movieId, limit + HYDRATION_SLACK);
+        if (nearest != null) {
+            List<MovieCard> cards = movieCardHydrator.hydrate(nearest);
+            return cards.size() > limit ? cards.subList(0, limit) : cards;
+        }
+
+        List<String> precomputed = similarMoviesTable.get(movieId);
+        if (precomputed != null) {
+            List<MovieCard> cards = movieCardHydrator.hydrate(precomputed);
+            return cards.size() > limit ? cards.subList(0, limit) : cards;
+        }
+
         try {
             log.info("Fetching similar movies for: {}", movieId);
 
-            List<RecommendationResponse> similar = restClient.get()
-                    .uri(mlServiceUrl + "/similar-movies/{movieId}?limit={limit}", movieId, limit)
-                    .retrieve()
-                    .body(new ParameterizedTypeReference<List<RecommendationResponse>>() {});
+            List<MLServiceClient.Recommendation> similar = mlServiceClient.similarMovies(movieId, limit);
 
             if (similar == null || similar.isEmpty()) {
                 return new ArrayList<>();
             }
 
             List<String> movieIds = similar.stream()
-                    .map(RecommendationResponse::getMovie_id)
+                    .map(MLServiceClient.Recommendation::movie_id)
                     .collect(Collectors.toList());
 
-            List<Movie> movies = new ArrayList<>();
-            for (String id : movieIds) {
-                movieRepository.findById(id).ifPresent(movies::add);
-            }
-
-            return movies;
+            return movieCardHydrator.hydrate(movieIds);
 
-        } catch (RestClientException e) {
+        } catch (Exception e) {
             log.error("Failed to get similar movies: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
 
     /**
-     * Triggers the training process for the ML model.
-     * <p>
-     * This is typically called after significant data changes (e.g., new user interactions)
-     * to ensure the recommendations remain up-to-date.
-     * </p>
+     * Retrieves movies similar to a group of movies ("more like this"), from the
+     * {@link SimilarTitleIndex}.
      *
-     * @return A status message indicating the result of the training initiation.
+     * @param movieIds The seed movies; they are not returned.
+     * @param limit    The maximum number of movies to return.
+     * @return The movie cards closest to the seeds as a whole, most similar first.
      */
-    public String trainModel() {
-        try {
-            log.info("Triggering ML model training...");
-
-            TrainResponse response = restClient.post()
-                    .uri(mlServiceUrl + "/train")
-                    .retrieve()
-                    .body(TrainResponse.class);
-
-            if (response != null) {
-                log.info("Training completed: {}", response.getMessage());
-                return response.getMessage();
-            }
-
-            return "Training initiated";
-
-        } catch (RestClientException e) {
-            log.error("Failed to train model: {}", e.getMessage());
-            throw new RuntimeException("ML service unavailable");
-        }
+    public List<MovieCard> getMoreLikeThis(Collection<String> movieIds, int limit) {
+        List<MovieCard> cards = movieCardHydrator.hydrate(similarTitleIndex.moreLikeThis(movieIds, limit + HYDRATION_SLACK));
+        return cards.size() > limit ? cards.subList(0, limit) : cards;
     }
 
     /**
@@ -161,65 +150,26 @@ public class MLRecommendationService {
      */
     public boolean isMLServiceHealthy() {
         try {
-            String response = restClient.get()
-                    .uri(mlServiceUrl + "/health")
-                    .retrieve()
-                    .body(String.class);
+            String response = mlServiceClient.health();
             return response != null && response.contains("healthy");
-        } catch (RestClientException e) {
+        } catch (Exception e) {
             return false;
         }
     }
 
     /**
-     * Generates fallback recommendations based on movie popularity.
+     * Generates fallback recommendations from the trending ranking.
      * <p>
      * This method is used when the ML service is unavailable or cannot provide recommendations.
-     * It sorts movies by a calculated popularity score (views + likes * 2).
+     * It reads the top of the {@link TrendingIndex} (time-decayed views + likes * 2) instead of
+     * loading and sorting the whole catalog on every call.
      * </p>
      *
      * @param limit The maximum number of movies to return.
-     * @return A list of popular Movie entities.
+     * @return The trending movie cards.
      */
-    private List<Movie> getFallbackRecommendations(int limit) {
-        log.info("Using fallback recommendations (popular movies)");
-        
-        return movieRepository.findAll().stream()
-                .sorted((a, b) -> {
-                    long scoreA = getPopularityScore(a);
-                    long scoreB = getPopularityScore(b);
-                    return Long.compare(scoreB, scoreA);
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
-    }
-
-    private long getPopularityScore(Movie movie) {
-        if (movie.getStatistics() == null) return 0;
-        return movie.getStatistics().getLikes() * 2 + movie.getStatistics().getViews();
-    }
-
-    // Response DTOs
-    private static class RecommendationResponse {
-        private String movie_id;
-        private double score;
-        private String reason;
-
-        public String getMovie_id() { return movie_id; }
-        public void setMovie_id(String movie_id) { this.movie_id = movie_id; }
-        public double getScore() { return score; }
-        public void setScore(double score) { this.score = score; }
-        public String getReason() { return reason; }
-        public void setReason(String reason) { this.reason = reason; }
-    }
-
-    private static class TrainResponse {
-        private String status;
-        private String message;
-
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
-        public String getMessage() { return message; }
-        public void setMessage(String message) { this.message = message; }
+    private List<MovieCard> getFallbackRecommendations(int limit) {
+        log.info("Using fallback recommendations (trending movies)");
+        return movieService.getTrending(null, limit);
     }
 }
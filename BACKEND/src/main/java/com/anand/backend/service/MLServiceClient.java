@@ -0,0 +1,445 @@
+package com.anand.backend.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Resilient HTTP client for the Python ML service.
+ * <p>
+ * Every call is protected in layers:
+ * <ul>
+ *   <li><b>Timeouts</b>: one shared connect timeout and a read timeout per endpoint, so a slow
+ *       model cannot pin request threads.</li>
+ *   <li><b>Circuit breaker</b>: once enough recent calls fail or time out, calls are rejected
+ *       immediately for a cool-down period, then a few trial calls decide whether to close again.
+ *       A 503 "model not trained" answer is a healthy response and does not count as a failure.</li>
+ *   <li><b>Bulkhead</b>: a cap on concurrent calls; calls beyond it are rejected at once instead of
+ *       queueing behind a struggling service.</li>
+ *   <li><b>Hedging</b> (optional): for the read endpoints, a second identical request is sent if the
+ *       first has not answered within the hedge delay and the bulkhead has a spare permit, and
+ *       whichever succeeds first wins. The other one is then cancelled by interrupting its thread,
+ *       which aborts the HTTP exchange and frees its bulkhead permit; a call cancelled that way
+ *       does not count as a breaker failure.</li>
+ * </ul>
+ * Rejected calls throw {@link CallNotPermittedException} or {@link BulkheadFullException}, which
+ * callers treat like any other failure and answer from their fallback.
+ * </p>
+ * <p>
+ * Metrics: the standard Resilience4j breaker and bulkhead meters (state, call outcomes,
+ * not-permitted calls, available permits) tagged {@code name=mlService}, plus
+ * {@code ml.client.transitions{to}} for breaker state changes, {@code ml.client.rejected{reason}}
+ * and {@code ml.client.hedged}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MLServiceClient {
+
+    private static final String NAME = "mlService";
+
+    private final String baseUrl;
+    private final RestClient recommendationsClient;
+    private final RestClient similarClient;
+    private final RestClient exportClient;
+    private final RestClient trainClient;
+    private final RestClient healthClient;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    private final boolean hedgeEnabled;
+    private final long hedgeDelayMs;
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter rejectedByBreaker;
+    private final Counter rejectedByBulkhead;
+    private final Counter hedged;
+
+    public MLServiceClient(
+            MeterRegistry meterRegistry,
+            @Value("${ml.service.url:http://localhost:5000}") String baseUrl,
+            @Value("${ml.client.connect-timeout-ms:500}") long connectTimeoutMs,
+            @Value("${ml.client.recommendations-timeout-ms:1500}") long recommendationsTimeoutMs,
+            @Value("${ml.client.similar-timeout-ms:1000}") long similarTimeoutMs,
+            @Value("${ml.client.export-timeout-ms:120000}") long exportTimeoutMs,
+            @Value("${ml.client.train-timeout-ms:5000}") long trainTimeoutMs,
+            @Value("${ml.client.health-timeout-ms:500}") long healthTimeoutMs,
+            @Value("${ml.client.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${ml.client.breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${ml.client.breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${ml.client.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${ml.client.hedge.delay-ms:300}") long hedgeDelayMs
+    ) {
+        this.baseUrl = baseUrl;
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.recommendationsClient = restClient(httpClient, recommendationsTimeoutMs);
+        this.similarClient = restClient(httpClient, similarTimeoutMs);
+        this.exportClient = restClient(httpClient, exportTimeoutMs);
+        this.trainClient = restClient(httpClient, trainTimeoutMs);
+        this.healthClient = restClient(httpClient, healthTimeoutMs);
+
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .ignoreExceptions(ModelNotReadyException.class)
+                // A hedged call cancelled after the other one won
+                .ignoreException(error -> Thread.currentThread().isInterrupted())
+                .build());
+        this.circuitBreaker = breakers.circuitBreaker(NAME);
+
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.bulkhead = bulkheads.bulkhead(NAME);
+
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeDelayMs = hedgeDelayMs;
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        this.rejectedByBreaker = rejectedCounter(meterRegistry, "circuit_open");
+        this.rejectedByBulkhead = rejectedCounter(meterRegistry, "bulkhead_full");
+        this.hedged = Counter.builder("ml.client.hedged")
+                .description("ML read calls that sent a second, hedged request")
+                .register(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.State to = event.getStateTransition().getToState();
+            meterRegistry.counter("ml.client.transitions", "to", to.name()).increment();
+            log.warn("ML service circuit breaker: {}", event.getStateTransition());
+        });
+    }
+
+    /**
+     * Thrown when the ML service answers 503 because no model has been trained yet.
+     */
+    public static class ModelNotReadyException extends RuntimeException {
+        public ModelNotReadyException() {
+            super("ML model not trained yet");
+        }
+    }
+
+    /**
+     * One scored movie returned by the ML service.
+     *
+     * @param movie_id The ID of the movie.
+     * @param score    The model score.
+     * @param reason   A short human-readable explanation.
+     */
+    public record Recommendation(String movie_id, double score, String reason) {}
+
+    /**
+     * The precomputed neighbours of one movie.
+     *
+     * @param movie_id The ID of the movie.
+     * @param similar  The IDs of the most similar movies, most similar first.
+     */
+    public record SimilarList(String movie_id, List<String> similar) {}
+
+    /**
+     * The live model of the ML service.
+     *
+     * @param trained_at The model version, in epoch millis; 0 while untrained.
+     */
+    public record ModelInfo(long trained_at) {}
+
+    /**
+     * A training job run by the ML service.
+     *
+     * @param job_id       The ID to poll the job with.
+     * @param status       One of {@code queued}, {@code running}, {@code succeeded} or {@code failed}.
+     * @param submitted_at When the job was submitted, in epoch millis.
+     * @param finished_at  When the job finished, in epoch millis, or null while it runs.
+     * @param trained_at   The version of the model it produced, or null unless it succeeded.
+     * @param metrics      Training metrics such as {@code rmse}, {@code n_users} and {@code sparsity}.
+     * @param error        Why the job failed, or null.
+     */
+    public record TrainingJob(String job_id, String status, long submitted_at, Long finished_at,
+                              Long trained_at, Map<String, Object> metrics, String error) {
+
+        public boolean finished() {
+            return "succeeded".equals(status) || "failed".equals(status);
+        }
+
+        public boolean succeeded() {
+            return "succeeded".equals(status);
+        }
+    }
+
+    /**
+     * Fetches personalized recommendations.
+     *
+     * @param userId The ID of the user.
+     * @param limit  The maximum number of results.
+     * @return The scored movies, possibly empty.
+     * @throws ModelNotReadyException If the model is not trained yet.
+     */
+    public List<Recommendation> recommendations(String userId, int limit) {
+        return hedge(() -> protect(() -> recommendationsClient.get()
+                .uri(baseUrl + "/recommendations/{userId}?limit={limit}", userId, limit)
+                .retrieve()
+                .onStatus(status -> status.value() == 503, (request, response) -> {
+                    throw new ModelNotReadyException();
+                })
+                .body(new ParameterizedTypeReference<List<Recommendation>>() {})));
+    }
+
+    /**
+     * Fetches movies similar to a given movie.
+     *
+     * @param movieId The ID of the source movie.
+     * @param limit   The maximum number of results.
+     * @return The scored movies, possibly empty.
+     */
+    public List<Recommendation> similarMovies(String movieId, int limit) {
+        return hedge(() -> protect(() -> similarClient.get()
+                .uri(baseUrl + "/similar-movies/{movieId}?limit={limit}", movieId, limit)
+                .retrieve()
+                .onStatus(status -> status.value() == 503, (request, response) -> {
+                    throw new ModelNotReadyException();
+                })
+                .body(new ParameterizedTypeReference<List<Recommendation>>() {})));
+    }
+
+    /**
+     * Exports the top similar movies of every movie the model knows. Guarded by the circuit
+     * breaker but not the bulkhead, since the export runs once per training and is long-running.
+     *
+     * @param limit The number of similar movies per movie.
+     * @return One entry per movie, possibly empty.
+     * @throws ModelNotReadyException If the model is not trained yet.
+     */
+    public List<SimilarList> similarTable(int limit) {
+        return guardBreaker(() -> exportClient.get()
+                .uri(baseUrl + "/similar-movies?limit={limit}", limit)
+                .retrieve()
+                .onStatus(status -> status.value() == 503, (request, response) -> {
+                    throw new ModelNotReadyException();
+                })
+                .body(new ParameterizedTypeReference<List<SimilarList>>() {}));
+    }
+
+    /**
+     * Downloads the binary export of the model's NMF factor matrices. Guarded by the circuit
+     * breaker but not the bulkhead, like {@link #similarTable}.
+     *
+     * @return The raw export, in the layout read by {@link FactorModel#parse}.
+     * @throws ModelNotReadyException If the model is not trained yet.
+     */
+    public byte[] factors() {
+        return guardBreaker(() -> exportClient.get()
+                .uri(baseUrl + "/model/factors")
+                .retrieve()
+                .onStatus(status -> status.value() == 503, (request, response) -> {
+                    throw new ModelNotReadyException();
+                })
+                .body(byte[].class));
+    }
+
+    /**
+     * Fetches the version of the live model.
+     *
+     * @return The model's {@code trained_at} in epoch millis, 0 if it is not trained yet.
+     */
+    public long modelVersion() {
+        ModelInfo info = guardBreaker(() -> trainClient.get()
+                .uri(baseUrl + "/model")
+                .retrieve()
+                .body(ModelInfo.class));
+        return info == null ? 0 : info.trained_at();
+    }
+
+    /**
+     * Asks the ML service to start a training job. The call returns as soon as the job is
+     * queued; if a job is already running, that job is returned instead of starting another.
+     * Guarded by the circuit breaker but not the bulkhead, since training requests are rare.
+     *
+     * @return The submitted or already running job.
+     */
+    public TrainingJob train() {
+        return guardBreaker(() -> trainClient.post()
+                .uri(baseUrl + "/train")
+                .retrieve()
+                .body(TrainingJob.class));
+    }
+
+    /**
+     * Fetches the status of a training job.
+     *
+     * @param jobId The ID returned by {@link #train()}.
+     * @return The job, or null if the ML service does not know it (e.g. it restarted).
+     */
+    public TrainingJob trainingJob(String jobId) {
+        return guardBreaker(() -> trainClient.get()
+                .uri(baseUrl + "/train/{jobId}", jobId)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().value() == 404) return null;
+                    if (response.getStatusCode().isError()) {
+                        throw new IllegalStateException("Training job lookup failed: " + response.getStatusCode());
+                    }
+                    return response.bodyTo(TrainingJob.class);
+                }));
+    }
+
+    /**
+     * Probes the ML service health endpoint directly, bypassing the breaker and bulkhead.
+     *
+     * @return The raw health response body.
+     */
+    public String health() {
+        return healthClient.get()
+                .uri(baseUrl + "/health")
+                .retrieve()
+                .body(String.class);
+    }
+
+    /**
+     * Returns the current circuit breaker state, e.g. for health reporting.
+     *
+     * @return The breaker state.
+     */
+    public CircuitBreaker.State breakerState() {
+        return circuitBreaker.getState();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    // Helper to run one call through the bulkhead and the circuit breaker
+    private <T> T protect(Supplier<T> call) {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, () -> guardBreaker(call)).get();
+        } catch (BulkheadFullException e) {
+            rejectedByBulkhead.increment();
+            throw e;
+        }
+    }
+
+    // Helper to run one call through the circuit breaker only
+    private <T> T guardBreaker(Supplier<T> call) {
+        try {
+            return circuitBreaker.executeSupplier(call);
+        } catch (CallNotPermittedException e) {
+            rejectedByBreaker.increment();
+            throw e;
+        }
+    }
+
+    // Helper to send a second request if the first is slow; the first successful answer wins and the other is cancelled
+    private <T> T hedge(Supplier<T> call) {
+        if (!hedgeEnabled || circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return call.get();
+        }
+
+        Attempt<T> primary = start(call);
+        Attempt<T> secondary = null;
+        try {
+            return primary.result().get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (bulkhead.getMetrics().getAvailableConcurrentCalls() <= 0) {
+                return primary.result().join();
+            }
+            hedged.increment();
+            secondary = start(call);
+            return firstSuccessful(primary.result(), secondary.result()).join();
+        } catch (CompletionException failed) {
+            throw unwrap(failed.getCause());
+        } catch (ExecutionException failed) {
+            throw unwrap(failed.getCause());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ML service", interrupted);
+        } finally {
+            primary.task().cancel(true);
+            if (secondary != null) secondary.task().cancel(true);
+        }
+    }
+
+    // One request on the hedge executor: its outcome, and the task to interrupt to cancel it
+    private record Attempt<T>(CompletableFuture<T> result, Future<?> task) {}
+
+    private <T> Attempt<T> start(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = hedgeExecutor.submit(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return new Attempt<>(result, task);
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    // Helper to complete with whichever future succeeds first, or fail once both have failed
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> a, CompletableFuture<T> b) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        a.whenComplete((value, error) -> {
+            if (error == null) winner.complete(value);
+            else b.whenComplete((other, otherError) -> {
+                if (otherError == null) winner.complete(other);
+                else winner.completeExceptionally(error);
+            });
+        });
+        b.whenComplete((value, error) -> {
+            if (error == null) winner.complete(value);
+        });
+        return winner;
+    }
+
+    private static RestClient restClient(HttpClient httpClient, long readTimeoutMs) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return RestClient.builder().requestFactory(factory).build();
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ml.client.rejected")
+                .description("ML calls rejected without reaching the service")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
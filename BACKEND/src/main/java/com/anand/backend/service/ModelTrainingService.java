@@ -0,0 +1,179 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.InteractionEvent;
+import com.anand.backend.enums.InteractionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs model training as background jobs on the ML service.
+ * <p>
+ * Submitting returns at once with a job ID. The ML service fits a fresh model off its request
+ * path, swaps it in only if training succeeds, and collapses concurrent submissions into the job
+ * already running. This service polls the active job every {@code training.poll-interval-ms};
+ * once it has succeeded, new exports of the {@link SimilarMoviesTable} and of the
+ * {@link FactorModelStore} factors are started, so nothing from a failed run ever goes live.
+ * Since only the polling instance starts them, every {@code training.export-check-interval-ms}
+ * the live model's version is also compared with what is exported, and an export that fell
+ * behind, e.g. because the instance restarted while the job ran, is started again.
+ * </p>
+ * <p>
+ * Retraining also starts on its own: every {@code training.retrain.check-interval-ms} the like,
+ * watch-later and progress events the {@link InteractionOutbox} wrote since the live model was
+ * trained are counted, and a job is submitted once there are {@code training.retrain.min-interactions} of them, or
+ * once the model is older than {@code training.retrain.max-age-hours} and anything changed.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ModelTrainingService {
+
+    private static final List<InteractionType> COUNTED_TYPES =
+            List.of(InteractionType.LIKE, InteractionType.WATCH_LATER_ADD, InteractionType.PROGRESS);
+
+    private final MLServiceClient mlServiceClient;
+    private final MongoTemplate mongoTemplate;
+    private final FactorModelStore factorModelStore;
+    private final SimilarMoviesTable similarMoviesTable;
+    private final int minInteractions;
+    private final Duration maxModelAge;
+
+    // The job this instance submitted or joined, with its last polled status
+    private final AtomicReference<MLServiceClient.TrainingJob> activeJob = new AtomicReference<>();
+
+    public ModelTrainingService(
+            MLServiceClient mlServiceClient,
+            MongoTemplate mongoTemplate,
+            FactorModelStore factorModelStore,
+            SimilarMoviesTable similarMoviesTable,
+            @Value("${training.retrain.min-interactions:500}") int minInteractions,
+            @Value("${training.retrain.max-age-hours:24}") long maxAgeHours
+    ) {
+        this.mlServiceClient = mlServiceClient;
+        this.mongoTemplate = mongoTemplate;
+        this.factorModelStore = factorModelStore;
+        this.similarMoviesTable = similarMoviesTable;
+        this.minInteractions = minInteractions;
+        this.maxModelAge = Duration.ofHours(maxAgeHours);
+    }
+
+    /**
+     * Starts a training job, or returns the one already running.
+     *
+     * @return The job to poll with {@link #status(String)}.
+     */
+    public MLServiceClient.TrainingJob submit() {
+        MLServiceClient.TrainingJob active = activeJob.get();
+        if (active != null) return active;
+
+        MLServiceClient.TrainingJob job = mlServiceClient.train();
+        activeJob.compareAndSet(null, job);
+        log.info("Training job {} submitted ({})", job.job_id(), job.status());
+        return job;
+    }
+
+    /**
+     * Fetches the current status and metrics of a training job.
+     *
+     * @param jobId The ID returned by {@link #submit()}.
+     * @return The job, or null if the ML service does not know it.
+     */
+    public MLServiceClient.TrainingJob status(String jobId) {
+        return mlServiceClient.trainingJob(jobId);
+    }
+
+    @Scheduled(
+            initialDelayString = "${training.poll-interval-ms:5000}",
+            fixedDelayString = "${training.poll-interval-ms:5000}"
+    )
+    public void pollActiveJob() {
+        MLServiceClient.TrainingJob active = activeJob.get();
+        if (active == null) return;
+        try {
+            MLServiceClient.TrainingJob latest = mlServiceClient.trainingJob(active.job_id());
+            if (latest == null) {
+                log.warn("Training job {} is unknown to the ML service, giving up on it", active.job_id());
+                activeJob.compareAndSet(active, null);
+                return;
+            }
+            if (!latest.finished()) {
+                activeJob.compareAndSet(active, latest);
+                return;
+            }
+
+            activeJob.compareAndSet(active, null);
+            if (latest.succeeded()) {
+                log.info("Training job {} succeeded: {}", latest.job_id(), latest.metrics());
+                similarMoviesTable.exportAsync();
+                factorModelStore.exportAsync();
+            } else {
+                log.warn("Training job {} failed, keeping the current model: {}", latest.job_id(), latest.error());
+            }
+        } catch (Exception e) {
+            log.warn("Could not poll training job {}: {}", active.job_id(), e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${training.export-check-interval-ms:300000}",
+            fixedDelayString = "${training.export-check-interval-ms:300000}"
+    )
+    public void exportIfBehind() {
+        if (activeJob.get() != null) return;
+        try {
+            long trainedAt = mlServiceClient.modelVersion();
+            if (trainedAt == 0) return;
+
+            FactorModel model = factorModelStore.model();
+            if (model == null || model.version() < trainedAt) {
+                log.info("Factor export is behind model version {}, exporting", trainedAt);
+                factorModelStore.exportAsync();
+            }
+            // Table versions are export times, so a table exported after training is newer than it
+            if (similarMoviesTable.version() < trainedAt) {
+                log.info("Similar movies table is behind model version {}, exporting", trainedAt);
+                similarMoviesTable.exportAsync();
+            }
+        } catch (Exception e) {
+            log.warn("Export check failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${training.retrain.check-interval-ms:600000}",
+            fixedDelayString = "${training.retrain.check-interval-ms:600000}"
+    )
+    public void retrainIfDue() {
+        if (activeJob.get() != null) return;
+        try {
+            FactorModel model = factorModelStore.model();
+            Instant trainedAt = model == null ? Instant.EPOCH : Instant.ofEpochMilli(model.version());
+            long fresh = interactionsSince(trainedAt);
+            boolean expired = model != null && trainedAt.plus(maxModelAge).isBefore(Instant.now());
+
+            if (fresh >= minInteractions || (expired && fresh > 0)) {
+                log.info("Retraining: {} new interactions since {}", fresh, trainedAt);
+                submit();
+            }
+        } catch (Exception e) {
+            log.warn("Retraining check failed: {}", e.getMessage());
+        }
+    }
+
+    // Helper to count outbox events newer than a point in time, stopping once the threshold is reached
+    private long interactionsSince(Instant since) {
+        Query query = new Query(Criteria.where("type").in(COUNTED_TYPES).and("writtenAt").gt(since))
+                .limit(minInteractions);
+        return mongoTemplate.count(query, InteractionEvent.class);
+    }
+}
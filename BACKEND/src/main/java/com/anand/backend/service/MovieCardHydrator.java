@@ -0,0 +1,132 @@
+package com.anand.backend.service;
+
+import com.anand.backend.dto.MovieCard;
+import com.anand.backend.entity.Movie;
+import com.anand.backend.repository.MovieRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns ranked lists of movie IDs into {@link MovieCard}s with at most one database query.
+ * <p>
+ * Recommendations, similar titles, trending, favorites, "Watch Later" and "Continue Watching" all
+ * produce movie IDs first and need cards for them. This component looks the IDs up in a small,
+ * short-lived local cache and loads all misses with a single {@code _id $in} query, so a row
+ * costs one round trip instead of one per title, and popular titles usually cost none.
+ * </p>
+ * <p>
+ * The input order is kept. Movies that no longer exist or whose video is not processed yet are
+ * dropped, since they cannot be played. As a {@link CatalogIndex}, entries are evicted when a
+ * movie is updated or deleted; otherwise they expire after {@code hydration.cache.ttl-seconds},
+ * which bounds how stale view and like counts on cards can be.
+ * </p>
+ */
+@Component
+public class MovieCardHydrator implements CatalogIndex {
+
+    private final MovieRepository movieRepository;
+    private final Cache<String, MovieCard> cards;
+
+    public MovieCardHydrator(
+            MovieRepository movieRepository,
+            MeterRegistry meterRegistry,
+            @Value("${hydration.cache.max-size:10000}") long maxSize,
+            @Value("${hydration.cache.ttl-seconds:30}") long ttlSeconds
+    ) {
+        this.movieRepository = movieRepository;
+        this.cards = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cards, "movieCards");
+    }
+
+    /**
+     * Loads cards for a ranked list of movie IDs.
+     *
+     * @param movieIds The IDs, in the desired order.
+     * @return Cards for the playable movies, in the same order; other IDs are skipped.
+     */
+    public List<MovieCard> hydrate(List<String> movieIds) {
+        if (movieIds.isEmpty()) return List.of();
+        Map<String, MovieCard> byId = lookup(movieIds);
+        List<MovieCard> result = new ArrayList<>(byId.size());
+        for (String movieId : movieIds) {
+            MovieCard card = byId.get(movieId);
+            if (card != null) result.add(card);
+        }
+        return result;
+    }
+
+    /**
+     * Loads cards for a page of movie IDs, keeping the page metadata.
+     * <p>
+     * Skipped movies make the page shorter but do not change the total, which still counts the
+     * underlying list entries.
+     * </p>
+     *
+     * @param movieIds A page of IDs, in the desired order.
+     * @return The page of cards.
+     */
+    public Page<MovieCard> hydrate(Page<String> movieIds) {
+        return new PageImpl<>(hydrate(movieIds.getContent()), movieIds.getPageable(), movieIds.getTotalElements());
+    }
+
+    /**
+     * Loads cards keyed by movie ID, for callers that attach them to their own items.
+     *
+     * @param movieIds The IDs to load.
+     * @return Cards of the playable movies among {@code movieIds}.
+     */
+    public Map<String, MovieCard> lookup(Collection<String> movieIds) {
+        Map<String, MovieCard> byId = new HashMap<>(cards.getAllPresent(movieIds));
+        Set<String> missing = new LinkedHashSet<>();
+        for (String movieId : movieIds) {
+            if (!byId.containsKey(movieId)) missing.add(movieId);
+        }
+        if (missing.isEmpty()) return byId;
+
+        for (Movie movie : movieRepository.findAllById(missing)) {
+            if (!isPlayable(movie)) continue;
+            MovieCard card = MovieCard.from(movie);
+            cards.put(movie.getMovieId(), card);
+            byId.put(movie.getMovieId(), card);
+        }
+        return byId;
+    }
+
+    @Override
+    public void rebuild(Collection<Movie> movies) {
+        cards.invalidateAll();
+    }
+
+    @Override
+    public void upsert(Movie movie) {
+        cards.invalidate(movie.getMovieId());
+    }
+
+    @Override
+    public void remove(String movieId) {
+        cards.invalidate(movieId);
+    }
+
+    private static boolean isPlayable(Movie movie) {
+        return movie.getVideoDetails() != null && movie.getVideoDetails().isProcessingCompleted();
+    }
+}
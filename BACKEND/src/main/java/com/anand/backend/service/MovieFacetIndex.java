@@ -0,0 +1,315 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import com.anand.backend.enums.Genre;
+import com.anand.backend.enums.MovieSort;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Bitmap index for combined genre, release-year and rating filters.
+ * <p>
+ * Every movie gets a dense integer document number. Facet values are dictionary-encoded and
+ * each value owns a compressed (Roaring) bitmap of the documents that carry it:
+ * <ul>
+ *   <li><b>Genre</b>: IDs {@code 0..n-1} are the {@link Genre} ordinals; genres outside the enum
+ *       (e.g. "Thriller") are appended after them. Names are matched ignoring case and punctuation,
+ *       so "Sci-Fi" maps to {@link Genre#SCIFI}.</li>
+ *   <li><b>Release year</b>: one bitmap per year; ranges OR the years together.</li>
+ *   <li><b>IMDb rating</b>: one bitmap per 0.1 step; thresholds OR the buckets above them.</li>
+ * </ul>
+ * A query is a chain of bitmap intersections. Sorting uses orderings precomputed at build time
+ * (newest first, most popular first), so no comparison of movies happens per request.
+ * </p>
+ * <p>
+ * The index is rebuilt as an immutable snapshot on every catalog change and swapped atomically.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MovieFacetIndex implements CatalogIndex {
+
+    private static final int RATING_BUCKETS = 101; // 0.0 .. 10.0 in steps of 0.1
+
+    // Guarded by "this"; only touched by writers
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    private record Entry(String movieId, List<String> genres, Integer releaseYear, Double imdbRating,
+                         Instant createdAt, long popularity) {}
+
+    /**
+     * Outcome of a facet query, before the movies are loaded.
+     *
+     * @param movieIds    The IDs on the requested page, in sort order.
+     * @param total       The number of matching movies.
+     * @param genreCounts Matching movies per genre display name (non-zero only).
+     * @param yearCounts  Matching movies per release year (non-zero only).
+     */
+    public record Result(List<String> movieIds, long total,
+                         Map<String, Long> genreCounts, Map<Integer, Long> yearCounts) {}
+
+    /**
+     * Intersects the selected facets and returns one sorted page of matches.
+     *
+     * @param genres    Genres that must all be present; null or empty for no genre filter.
+     * @param minYear   Inclusive lower bound on release year, or null.
+     * @param maxYear   Inclusive upper bound on release year, or null.
+     * @param minRating Inclusive lower bound on IMDb rating, or null.
+     * @param sort      The result ordering.
+     * @param page      The zero-based page number.
+     * @param size      The page size.
+     * @return The page of matching IDs together with facet counts.
+     */
+    public Result query(List<String> genres, Integer minYear, Integer maxYear, Double minRating,
+                        MovieSort sort, int page, int size) {
+        Snapshot current = snapshot;
+        RoaringBitmap matches = current.all.clone();
+
+        if (genres != null) {
+            for (String genre : genres) {
+                Integer genreId = current.genreIds.get(genreKey(genre));
+                if (genreId == null) {
+                    matches = new RoaringBitmap();
+                    break;
+                }
+                matches.and(current.genreBitmaps[genreId]);
+            }
+        }
+        if (minYear != null || maxYear != null) {
+            matches.and(current.yearRange(minYear, maxYear));
+        }
+        if (minRating != null) {
+            matches.and(current.ratingAtLeast(minRating));
+        }
+
+        Map<String, Long> genreCounts = new LinkedHashMap<>();
+        for (int id = 0; id < current.genreBitmaps.length; id++) {
+            long count = RoaringBitmap.andCardinality(matches, current.genreBitmaps[id]);
+            if (count > 0) genreCounts.put(current.genreNames[id], count);
+        }
+        Map<Integer, Long> yearCounts = new LinkedHashMap<>();
+        for (Map.Entry<Integer, RoaringBitmap> year : current.yearBitmaps.entrySet()) {
+            long count = RoaringBitmap.andCardinality(matches, year.getValue());
+            if (count > 0) yearCounts.put(year.getKey(), count);
+        }
+
+        return new Result(current.page(matches, sort, page, size), matches.getLongCardinality(),
+                genreCounts, yearCounts);
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Movie> movies) {
+        entries.clear();
+        for (Movie movie : movies) {
+            entries.put(movie.getMovieId(), toEntry(movie));
+        }
+        publish();
+    }
+
+    @Override
+    public synchronized void upsert(Movie movie) {
+        entries.put(movie.getMovieId(), toEntry(movie));
+        publish();
+    }
+
+    @Override
+    public synchronized void remove(String movieId) {
+        if (entries.remove(movieId) != null) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        Snapshot next = Snapshot.build(entries.values());
+        snapshot = next;
+        log.debug("Facet index rebuilt: {} movies, {} genres, {} years",
+                next.movieIds.length, next.genreNames.length, next.yearBitmaps.size());
+    }
+
+    private static Entry toEntry(Movie movie) {
+        long popularity = 0;
+        if (movie.getStatistics() != null) {
+            popularity = movie.getStatistics().getLikes() * 2 + movie.getStatistics().getViews();
+        }
+        List<String> genres = movie.getGenres() == null ? List.of() : List.copyOf(movie.getGenres());
+        return new Entry(movie.getMovieId(), genres, movie.getReleaseYear(), movie.getImdbRating(),
+                movie.getCreatedAt(), popularity);
+    }
+
+    // "Sci-Fi", "sci fi" and "SCIFI" all share the key "SCIFI"
+    private static String genreKey(String genre) {
+        return genre == null ? "" : genre.replaceAll("[^\\p{L}\\p{Nd}]", "").toUpperCase(Locale.ROOT);
+    }
+
+    private static int ratingBucket(double rating) {
+        return (int) Math.max(0, Math.min(RATING_BUCKETS - 1, Math.floor(rating * 10 + 1e-9)));
+    }
+
+    private static final class Snapshot {
+        private final String[] movieIds;
+        private final double[] ratings;
+        private final RoaringBitmap all;
+
+        private final Map<String, Integer> genreIds;
+        private final String[] genreNames;
+        private final RoaringBitmap[] genreBitmaps;
+        private final NavigableMap<Integer, RoaringBitmap> yearBitmaps;
+        private final RoaringBitmap[] ratingBitmaps;
+
+        // order[rank] = document, rank[document] = position in that order
+        private final int[] newestOrder;
+        private final int[] newestRank;
+        private final int[] popularOrder;
+        private final int[] popularRank;
+
+        private Snapshot(String[] movieIds, double[] ratings, RoaringBitmap all,
+                         Map<String, Integer> genreIds, String[] genreNames, RoaringBitmap[] genreBitmaps,
+                         NavigableMap<Integer, RoaringBitmap> yearBitmaps, RoaringBitmap[] ratingBitmaps,
+                         int[] newestOrder, int[] popularOrder) {
+            this.movieIds = movieIds;
+            this.ratings = ratings;
+            this.all = all;
+            this.genreIds = genreIds;
+            this.genreNames = genreNames;
+            this.genreBitmaps = genreBitmaps;
+            this.yearBitmaps = yearBitmaps;
+            this.ratingBitmaps = ratingBitmaps;
+            this.newestOrder = newestOrder;
+            this.newestRank = invert(newestOrder);
+            this.popularOrder = popularOrder;
+            this.popularRank = invert(popularOrder);
+        }
+
+        RoaringBitmap yearRange(Integer minYear, Integer maxYear) {
+            int from = minYear != null ? minYear : Integer.MIN_VALUE;
+            int to = maxYear != null ? maxYear : Integer.MAX_VALUE;
+            if (from > to) return new RoaringBitmap();
+            return RoaringBitmap.or(yearBitmaps.subMap(from, true, to, true).values().iterator());
+        }
+
+        RoaringBitmap ratingAtLeast(double minRating) {
+            int boundary = ratingBucket(minRating);
+            RoaringBitmap result = new RoaringBitmap();
+            for (int bucket = boundary + 1; bucket < RATING_BUCKETS; bucket++) {
+                result.or(ratingBitmaps[bucket]);
+            }
+            // The boundary bucket may hold ratings just below the threshold (e.g. 7.25 vs 7.2x)
+            for (int document : ratingBitmaps[boundary]) {
+                if (ratings[document] >= minRating) result.add(document);
+            }
+            return result;
+        }
+
+        List<String> page(RoaringBitmap matches, MovieSort sort, int page, int size) {
+            int[] order = sort == MovieSort.POPULAR ? popularOrder : newestOrder;
+            int[] rank = sort == MovieSort.POPULAR ? popularRank : newestRank;
+
+            // Map matching documents to their precomputed ranks and sort the primitive ranks
+            int[] ranks = matches.toArray();
+            for (int i = 0; i < ranks.length; i++) {
+                ranks[i] = rank[ranks[i]];
+            }
+            Arrays.sort(ranks);
+
+            long from = Math.min((long) page * size, ranks.length);
+            int to = (int) Math.min(from + size, ranks.length);
+            List<String> ids = new ArrayList<>(Math.max(0, to - (int) from));
+            for (int i = (int) from; i < to; i++) {
+                ids.add(movieIds[order[ranks[i]]]);
+            }
+            return ids;
+        }
+
+        static Snapshot build(Collection<Entry> catalog) {
+            Entry[] docs = catalog.toArray(new Entry[0]);
+            int n = docs.length;
+
+            String[] movieIds = new String[n];
+            double[] ratings = new double[n];
+            RoaringBitmap all = new RoaringBitmap();
+            if (n > 0) all.add(0L, n);
+
+            // Genre dictionary: enum ordinals first, then anything else seen in the catalog
+            Map<String, Integer> genreIds = new HashMap<>();
+            List<String> genreNames = new ArrayList<>();
+            for (Genre genre : Genre.values()) {
+                genreIds.put(genre.name(), genre.ordinal());
+                genreNames.add(null); // display name filled from the first catalog spelling
+            }
+            List<RoaringBitmap> genreBitmaps = new ArrayList<>();
+            for (int i = 0; i < genreNames.size(); i++) genreBitmaps.add(new RoaringBitmap());
+
+            NavigableMap<Integer, RoaringBitmap> yearBitmaps = new TreeMap<>();
+            RoaringBitmap[] ratingBitmaps = new RoaringBitmap[RATING_BUCKETS];
+            for (int i = 0; i < RATING_BUCKETS; i++) ratingBitmaps[i] = new RoaringBitmap();
+
+            for (int doc = 0; doc < n; doc++) {
+                Entry entry = docs[doc];
+                movieIds[doc] = entry.movieId();
+
+                for (String genre : entry.genres()) {
+                    String key = genreKey(genre);
+                    if (key.isEmpty()) continue;
+                    Integer id = genreIds.get(key);
+                    if (id == null) {
+                        id = genreNames.size();
+                        genreIds.put(key, id);
+                        genreNames.add(genre);
+                        genreBitmaps.add(new RoaringBitmap());
+                    } else if (genreNames.get(id) == null) {
+                        genreNames.set(id, genre);
+                    }
+                    genreBitmaps.get(id).add(doc);
+                }
+
+                if (entry.releaseYear() != null) {
+                    yearBitmaps.computeIfAbsent(entry.releaseYear(), y -> new RoaringBitmap()).add(doc);
+                }
+
+                ratings[doc] = entry.imdbRating() != null ? entry.imdbRating() : -1;
+                if (entry.imdbRating() != null) {
+                    ratingBitmaps[ratingBucket(entry.imdbRating())].add(doc);
+                }
+            }
+
+            for (Genre genre : Genre.values()) {
+                if (genreNames.get(genre.ordinal()) == null) genreNames.set(genre.ordinal(), genre.name());
+            }
+            genreBitmaps.forEach(RoaringBitmap::runOptimize);
+            yearBitmaps.values().forEach(RoaringBitmap::runOptimize);
+            for (RoaringBitmap bitmap : ratingBitmaps) bitmap.runOptimize();
+
+            Comparator<Integer> newest = Comparator.comparing(
+                    (Integer doc) -> docs[doc].createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(doc -> docs[doc].movieId());
+            Comparator<Integer> popular = Comparator.comparingLong((Integer doc) -> docs[doc].popularity())
+                    .reversed()
+                    .thenComparing(newest);
+
+            return new Snapshot(movieIds, ratings, all, genreIds, genreNames.toArray(new String[0]),
+                    genreBitmaps.toArray(new RoaringBitmap[0]), yearBitmaps, ratingBitmaps,
+                    sortedDocuments(n, newest), sortedDocuments(n, popular));
+        }
+
+        private static int[] sortedDocuments(int n, Comparator<Integer> comparator) {
+            Integer[] docs = new Integer[n];
+            for (int i = 0; i < n; i++) docs[i] = i;
+            Arrays.sort(docs, comparator);
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) order[i] = docs[i];
+            return order;
+        }
+
+        private static int[] invert(int[] order) {
+            int[] rank = new int[order.length];
+            for (int i = 0; i < order.length; i++) rank[order[i]] = i;
+            return rank;
+        }
+    }
+}
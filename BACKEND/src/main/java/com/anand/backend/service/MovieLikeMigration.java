@@ -0,0 +1,82 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.MovieLike;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-time migration of embedded like lists into the {@code movie_likes} collection.
+ * <p>
+ * Older movie documents carry {@code statistics.likedByUserIds}. On startup this component copies
+ * every (movie, user) pair into {@link MovieLike} documents with idempotent upserts and then unsets
+ * the array. Running it again, or on several instances at once, is harmless; once no document
+ * has the field, startup only pays for one existence query.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MovieLikeMigration {
+
+    private static final String MOVIES_COLLECTION = "movies";
+    private static final String LEGACY_FIELD = "statistics.likedByUserIds";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedLikes() {
+        Query legacy = new Query(Criteria.where(LEGACY_FIELD).exists(true));
+        legacy.fields().include(LEGACY_FIELD);
+
+        int migratedMovies = 0;
+        long migratedLikes = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(legacy, Document.class, MOVIES_COLLECTION)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                String movieId = document.get("_id").toString();
+                Document statistics = document.get("statistics", Document.class);
+                List<String> userIds = statistics.getList("likedByUserIds", String.class, List.of());
+
+                if (!userIds.isEmpty()) {
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieLike.class);
+                    for (String userId : userIds) {
+                        bulk.upsert(
+                                new Query(Criteria.where("movieId").is(movieId).and("userId").is(userId)),
+                                new Update().setOnInsert("createdAt", Instant.now())
+                        );
+                    }
+                    bulk.execute();
+                    migratedLikes += userIds.size();
+                }
+
+                mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(document.get("_id"))),
+                        new Update().unset(LEGACY_FIELD),
+                        MOVIES_COLLECTION
+                );
+                migratedMovies++;
+            }
+        } catch (Exception e) {
+            log.error("Like migration failed after {} movies: {}", migratedMovies, e.getMessage());
+            return;
+        }
+
+        if (migratedMovies > 0) {
+            log.info("Migrated {} embedded likes from {} movies into movie_likes", migratedLikes, migratedMovies);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over movie titles, descriptions and genres.
+ * <p>
+ * Replaces the regex scans that used to back {@code /api/movies/search}. The match phase runs
+ * entirely in memory and returns ranked movie IDs; only the requested page is then loaded from
+ * MongoDB. Matching is done in three tiers for every query token:
+ * <ul>
+ *   <li><b>Exact</b>: the token is a term of the document.</li>
+ *   <li><b>Prefix</b>: the token is the beginning of a term (as-you-type queries).</li>
+ *   <li><b>Trigram</b>: the token shares enough character trigrams with a term (typo tolerance).
+ *       Only used when the first two tiers find nothing.</li>
+ * </ul>
+ * Documents are ranked with BM25 over field-weighted term frequencies, multiplied by the share
+ * of query tokens that matched. A token's IDF counts every document any of its expansions
+ * matched, so an expansion to a rare term cannot outrank an exact match of a common one.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MovieSearchIndex implements CatalogIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // Field weights applied to term frequencies
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float GENRE_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Score multipliers for non-exact matches
+    private static final double PREFIX_MATCH_WEIGHT = 0.7;
+    private static final double FUZZY_MATCH_WEIGHT = 0.5;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.3;
+    private static final int MIN_FUZZY_TOKEN_LENGTH = 3;
+    private static final int MAX_TERM_EXPANSIONS = 50;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (movieId -> field-weighted term frequency)
+    private NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    // trigram -> terms containing it
+    private Map<String, Set<String>> trigramIndex = new HashMap<>();
+    // movieId -> indexed form, kept so that updates and removals are exact
+    private Map<String, IndexedDocument> documents = new HashMap<>();
+    private double totalLength;
+
+    private volatile boolean ready;
+
+    /**
+     * A ranked search result.
+     *
+     * @param movieId The ID of the matching movie.
+     * @param score   The relevance score; higher is better.
+     */
+    public record Hit(String movieId, double score) {}
+
+    private record IndexedDocument(Map<String, Float> termFrequencies, float length) {}
+
+    /**
+     * Indicates whether the index has been populated at least once since startup.
+     *
+     * @return true once the first full build has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Runs a ranked query against the index.
+     *
+     * @param query The raw user input.
+     * @return All matching movies ordered by descending score, ties broken by movie ID.
+     */
+    public List<Hit> search(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) return List.of();
+
+        Map<String, double[]> accumulators = new HashMap<>(); // movieId -> {score, matchedTokens}
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) return List.of();
+            double averageLength = totalLength / documentCount;
+
+            for (String token : tokens) {
+                Map<String, Double> tokenScores = new HashMap<>();
+                for (Map.Entry<String, Double> expansion : expand(token).entrySet()) {
+                    for (Map.Entry<String, Float> posting : postings.get(expansion.getKey()).entrySet()) {
+                        float docLength = documents.get(posting.getKey()).length();
+                        double score = expansion.getValue() * saturate(posting.getValue(), docLength, averageLength);
+                        tokenScores.merge(posting.getKey(), score, Math::max);
+                    }
+                }
+                double idf = idf(tokenScores.size(), documentCount);
+                tokenScores.forEach((movieId, score) -> {
+                    double[] acc = accumulators.computeIfAbsent(movieId, id -> new double[2]);
+                    acc[0] += idf * score;
+                    acc[1] += 1;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(accumulators.size());
+        accumulators.forEach((movieId, acc) -> {
+            double coverage = acc[1] / tokens.size();
+            hits.add(new Hit(movieId, acc[0] * coverage * coverage));
+        });
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::movieId));
+        return hits;
+    }
+
+    @Override
+    public void rebuild(Collection<Movie> movies) {
+        NavigableMap<String, Map<String, Float>> newPostings = new TreeMap<>();
+        Map<String, Set<String>> newTrigrams = new HashMap<>();
+        Map<String, IndexedDocument> newDocuments = new HashMap<>(movies.size() * 2);
+        double newTotalLength = 0;
+
+        for (Movie movie : movies) {
+            IndexedDocument document = analyze(movie);
+            newDocuments.put(movie.getMovieId(), document);
+            newTotalLength += document.length();
+            addPostings(movie.getMovieId(), document, newPostings, newTrigrams);
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            trigramIndex = newTrigrams;
+            documents = newDocuments;
+            totalLength = newTotalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.debug("Search index rebuilt: {} movies, {} terms", newDocuments.size(), newPostings.size());
+    }
+
+    @Override
+    public void upsert(Movie movie) {
+        IndexedDocument document = analyze(movie);
+        lock.writeLock().lock();
+        try {
+            removeInternal(movie.getMovieId());
+            documents.put(movie.getMovieId(), document);
+            totalLength += document.length();
+            addPostings(movie.getMovieId(), document, postings, trigramIndex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String movieId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lowercase, accent-free alphanumeric tokens.
+     *
+     * @param text The text to tokenize; may be null.
+     * @return The tokens in order of appearance.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Lowercases text and strips diacritics so that "Amélie" and "amelie" compare equal.
+     *
+     * @param text The text to normalize.
+     * @return The normalized text.
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // ----------------------------------------------------------------
+    // INTERNALS (callers hold the appropriate lock)
+    // ----------------------------------------------------------------
+
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> expansions = new HashMap<>();
+        if (postings.containsKey(token)) {
+            expansions.put(token, 1.0);
+        }
+
+        for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+            if (expansions.size() >= MAX_TERM_EXPANSIONS) break;
+            expansions.put(term, PREFIX_MATCH_WEIGHT);
+        }
+
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+            Set<String> tokenTrigrams = trigrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : tokenTrigrams) {
+                for (String term : trigramIndex.getOrDefault(trigram, Set.of())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+            shared.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(), jaccard(e.getValue(), tokenTrigrams.size(), e.getKey())))
+                    .filter(e -> e.getValue() >= MIN_TRIGRAM_SIMILARITY)
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(MAX_TERM_EXPANSIONS)
+                    .forEach(e -> expansions.put(e.getKey(), FUZZY_MATCH_WEIGHT * e.getValue()));
+        }
+        return expansions;
+    }
+
+    private void removeInternal(String movieId) {
+        IndexedDocument existing = documents.remove(movieId);
+        if (existing == null) return;
+        totalLength -= existing.length();
+        for (String term : existing.termFrequencies().keySet()) {
+            Map<String, Float> termPostings = postings.get(term);
+            if (termPostings == null) continue;
+            termPostings.remove(movieId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                for (String trigram : trigrams(term)) {
+                    Set<String> terms = trigramIndex.get(trigram);
+                    if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                        trigramIndex.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addPostings(String movieId,
+                                    IndexedDocument document,
+                                    NavigableMap<String, Map<String, Float>> postings,
+                                    Map<String, Set<String>> trigramIndex) {
+        document.termFrequencies().forEach((term, frequency) -> {
+            Map<String, Float> termPostings = postings.get(term);
+            if (termPostings == null) {
+                termPostings = new HashMap<>();
+                postings.put(term, termPostings);
+                for (String trigram : trigrams(term)) {
+                    trigramIndex.computeIfAbsent(trigram, t -> new HashSet<>()).add(term);
+                }
+            }
+            termPostings.put(movieId, frequency);
+        });
+    }
+
+    private static IndexedDocument analyze(Movie movie) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addField(frequencies, movie.getMovieTitle(), TITLE_WEIGHT);
+        length += addField(frequencies, movie.getMovieDescription(), DESCRIPTION_WEIGHT);
+        if (movie.getGenres() != null) {
+            for (String genre : movie.getGenres()) {
+                length += addField(frequencies, genre, GENRE_WEIGHT);
+            }
+        }
+        return new IndexedDocument(frequencies, Math.max(length, 1f));
+    }
+
+    private static float addField(Map<String, Float> frequencies, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static double jaccard(int shared, int queryTrigrams, String term) {
+        int termTrigrams = term.length(); // "$term$" always yields length(term) trigrams
+        return (double) shared / (queryTrigrams + termTrigrams - shared);
+    }
+
+    private static double idf(int documentFrequency, int documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double saturate(float termFrequency, float documentLength, double averageLength) {
+        return termFrequency * (K1 + 1) / (termFrequency + K1 * (1 - B + B * documentLength / averageLength));
+    }
+}
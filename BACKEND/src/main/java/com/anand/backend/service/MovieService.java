@@ -1,13 +1,26 @@
 package com.anand.backend.service;
 
+import com.anand.backend.dto.CursorPage;
+import com.anand.backend.dto.FacetedMoviePage;
+import com.anand.backend.dto.MovieCard;
+import com.anand.backend.dto.MovieStats;
+import com.anand.backend.dto.TitleSuggestion;
 import com.anand.backend.dto.VideoProcessingResult;
 import com.anand.backend.entity.Movie;
+import com.anand.backend.enums.InteractionType;
+import com.anand.backend.enums.MovieSort;
+import com.anand.backend.repository.MovieLikeRepository;
 import com.anand.backend.repository.MovieRepository;
+import com.anand.backend.repository.WatchLaterRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -18,8 +31,12 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Movie entities and related operations.
@@ -39,8 +56,21 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class MovieService {
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("movieId"));
+
     private final MovieRepository movieRepository;
+    private final MovieLikeRepository movieLikeRepository;
+    private final WatchLaterRepository watchLaterRepository;
     private final VideoProcessingService videoProcessingService;
+    private final MovieSearchIndex movieSearchIndex;
+    private final TitleSuggestIndex titleSuggestIndex;
+    private final MovieFacetIndex movieFacetIndex;
+    private final List<CatalogIndex> catalogIndexes;
+    private final CacheManager cacheManager;
+    private final ViewCounter viewCounter;
+    private final InteractionOutbox interactionOutbox;
+    private final TrendingIndex trendingIndex;
+    private final MovieCardHydrator movieCardHydrator;
 
     @Value("${video.upload.dir:uploads}")
     private String uploadDir;
@@ -117,6 +147,7 @@ public class MovieService {
                 .build();
 
         Movie savedMovie = movieRepository.save(movie);
+        catalogIndexes.forEach(index -> index.upsert(savedMovie));
 
         // Trigger Async Processing
         File outputDir = new File(processedRoot, savedMovie.getMovieId());
@@ -141,10 +172,15 @@ public class MovieService {
 
     /**
      * Retrieves a movie by its ID.
+     * <p>
+     * Results are cached in the two-level {@code videoMetadata} region. Processing updates and
+     * deletions evict the entry; view and like counters may lag by up to the cache TTL.
+     * </p>
      *
      * @param id The movie ID.
      * @return The Movie entity, or null if not found.
      */
+    @Cacheable(value = "videoMetadata", key = "#id", unless = "#result == null")
     public Movie getMovieById(String id) {
         return movieRepository.findById(id).orElse(null);
     }
@@ -171,16 +207,128 @@ public class MovieService {
     }
 
     /**
-     * Searches for movies by title (case-insensitive).
+     * Searches movies by title, description and genre, ranked by relevance.
+     * <p>
+     * Matching runs against the in-memory {@link MovieSearchIndex}; MongoDB is only queried
+     * to load the movies on the requested page. Until the index has finished its first build,
+     * the method falls back to a case-insensitive title match in the database.
+     * </p>
      *
-     * @param title The title fragment to search for.
+     * @param title The free-text query.
      * @param page  The page number.
      * @param size  The page size.
-     * @return A Page of matching Movie entities.
+     * @return A Page of matching Movie entities, best match first.
      */
     public Page<Movie> searchMovies(String title, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return movieRepository.findByMovieTitleContainingIgnoreCase(title, pageable);
+        if (!movieSearchIndex.isReady()) {
+            return movieRepository.findByMovieTitleContainingIgnoreCase(title, pageable);
+        }
+
+        List<MovieSearchIndex.Hit> hits = movieSearchIndex.search(title);
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<String> pageIds = hits.subList(from, to).stream()
+                .map(MovieSearchIndex.Hit::movieId)
+                .toList();
+
+        return new PageImpl<>(findAllInOrder(pageIds), pageable, hits.size());
+    }
+
+    /**
+     * Retrieves one slice of the catalog, newest first, using keyset pagination.
+     * <p>
+     * The cursor holds the {@code (createdAt, movieId)} of the last movie already returned, so
+     * each slice is an index seek followed by {@code size + 1} reads, with no skip and no count.
+     * </p>
+     *
+     * @param cursor The cursor returned with the previous slice, or null for the first slice.
+     * @param size   The slice size.
+     * @return The slice and the cursor for the next one.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public CursorPage<Movie> getMoviesAfter(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1, NEWEST_FIRST);
+        if (cursor == null || cursor.isBlank()) {
+            return toCursorPage(movieRepository.findFirstSlice(limit), size);
+        }
+        CursorCodec.CreatedAtKey key = CursorCodec.decodeCreatedAt(cursor);
+        return toCursorPage(movieRepository.findSliceAfter(key.createdAt(), key.movieId(), limit), size);
+    }
+
+    /**
+     * Retrieves one slice of a genre listing, newest first, using keyset pagination.
+     *
+     * @param genre  The genre to filter by; null or blank for the whole catalog.
+     * @param cursor The cursor returned with the previous slice, or null for the first slice.
+     * @param size   The slice size.
+     * @return The slice and the cursor for the next one.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public CursorPage<Movie> filterMoviesAfter(String genre, String cursor, int size) {
+        if (genre == null || genre.isBlank()) {
+            return getMoviesAfter(cursor, size);
+        }
+        Pageable limit = PageRequest.of(0, size + 1, NEWEST_FIRST);
+        if (cursor == null || cursor.isBlank()) {
+            return toCursorPage(movieRepository.findFirstSliceByGenre(genre, limit), size);
+        }
+        CursorCodec.CreatedAtKey key = CursorCodec.decodeCreatedAt(cursor);
+        return toCursorPage(movieRepository.findSliceByGenreAfter(genre, key.createdAt(), key.movieId(), limit), size);
+    }
+
+    /**
+     * Retrieves one slice of ranked search results using keyset pagination.
+     * <p>
+     * Search results are ordered by relevance rather than age, so the cursor holds the
+     * {@code (score, movieId)} of the last hit. The next slice is found by binary search in the
+     * in-memory hit list; MongoDB only loads the movies of the slice.
+     * </p>
+     *
+     * @param title  The free-text query.
+     * @param cursor The cursor returned with the previous slice, or null for the first slice.
+     * @param size   The slice size.
+     * @return The slice and the cursor for the next one.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public CursorPage<Movie> searchMoviesAfter(String title, String cursor, int size) {
+        if (!movieSearchIndex.isReady()) {
+            // Index still loading: serve a single slice from the database
+            List<Movie> movies = movieRepository.findByMovieTitleContainingIgnoreCase(title, PageRequest.of(0, size)).getContent();
+            return new CursorPage<>(movies, null, false);
+        }
+
+        List<MovieSearchIndex.Hit> hits = movieSearchIndex.search(title);
+        int from = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            CursorCodec.ScoreKey key = CursorCodec.decodeScore(cursor);
+            from = firstHitAfter(hits, key);
+        }
+        int to = Math.min(from + size, hits.size());
+        List<MovieSearchIndex.Hit> slice = hits.subList(from, to);
+
+        boolean hasNext = to < hits.size();
+        String nextCursor = null;
+        if (hasNext && !slice.isEmpty()) {
+            MovieSearchIndex.Hit last = slice.get(slice.size() - 1);
+            nextCursor = CursorCodec.encode(new CursorCodec.ScoreKey(last.score(), last.movieId()));
+        }
+        List<String> ids = slice.stream().map(MovieSearchIndex.Hit::movieId).toList();
+        return new CursorPage<>(findAllInOrder(ids), nextCursor, hasNext);
+    }
+
+    /**
+     * Returns typeahead suggestions for a partially typed title.
+     * <p>
+     * Served entirely from the in-memory {@link TitleSuggestIndex}; no database access.
+     * </p>
+     *
+     * @param query The text typed so far.
+     * @param limit The maximum number of suggestions.
+     * @return Matching titles, most popular first.
+     */
+    public List<TitleSuggestion> suggestTitles(String query, int limit) {
+        return titleSuggestIndex.suggest(query, limit);
     }
 
     /**
@@ -200,6 +348,66 @@ public class MovieService {
         return movieRepository.findByGenresContaining(genre, pageable);
     }
 
+    /**
+     * Filters movies by any combination of genres, release-year range and minimum rating.
+     * <p>
+     * Matching, counting and sorting run on the in-memory {@link MovieFacetIndex}; MongoDB is
+     * only queried to load the movies on the requested page.
+     * </p>
+     *
+     * @param genres    Genres a movie must all have; null or empty for any.
+     * @param minYear   Inclusive minimum release year, or null.
+     * @param maxYear   Inclusive maximum release year, or null.
+     * @param minRating Inclusive minimum IMDb rating, or null.
+     * @param sort      The result ordering.
+     * @param page      The page number.
+     * @param size      The page size.
+     * @return The requested page with per-genre and per-year match counts.
+     */
+    public FacetedMoviePage filterByFacets(
+            List<String> genres,
+            Integer minYear,
+            Integer maxYear,
+            Double minRating,
+            MovieSort sort,
+            int page,
+            int size
+    ) {
+        MovieFacetIndex.Result result = movieFacetIndex.query(genres, minYear, maxYear, minRating, sort, page, size);
+        return new FacetedMoviePage(
+                MovieCard.fromAll(findAllInOrder(result.movieIds())),
+                result.total(),
+                page,
+                size,
+                result.genreCounts(),
+                result.yearCounts()
+        );
+    }
+
+    /**
+     * Returns the currently trending movies, ranked by time-decayed views and likes.
+     * <p>
+     * The ranking is read from the {@link TrendingIndex} in O(limit), and the cards are resolved
+     * by the {@link MovieCardHydrator}, which mostly serves them from memory.
+     * </p>
+     *
+     * @param genre The genre to rank within, or null for the whole catalog.
+     * @param limit The maximum number of movies.
+     * @return The trending movies, most trending first.
+     */
+    public List<MovieCard> getTrending(String genre, int limit) {
+        return movieCardHydrator.hydrate(trendingIndex.top(genre, limit));
+    }
+
+    /**
+     * Returns how many movies each genre has, straight from the {@link MovieFacetIndex}.
+     *
+     * @return Movie counts keyed by genre display name, for non-empty genres only.
+     */
+    public Map<String, Long> getGenreCounts() {
+        return movieFacetIndex.query(null, null, null, null, MovieSort.NEWEST, 0, 0).genreCounts();
+    }
+
     /**
      * Deletes a movie and cleans up all associated files.
      * <p>
@@ -223,51 +431,93 @@ public class MovieService {
             deleteRecursive(processedFolder);
         }
 
-        // 2. Delete from DB
+        // 2. Delete from DB (including the per-user like and watch-later records)
         movieRepository.deleteById(movieId);
+        movieLikeRepository.deleteByMovieId(movieId);
+        watchLaterRepository.deleteByMovieId(movieId);
+        catalogIndexes.forEach(index -> index.remove(movieId));
+        evictMovieMetadata(movieId);
         log.info("Deleted movie and files for ID: {}", movieId);
     }
 
     /**
      * Increments the view count for a movie.
+     * <p>
+     * The view is buffered by {@link ViewCounter} and written to MongoDB in the next batch,
+     * instead of loading and saving the movie document on every call. Views by signed-in users
+     * are also recorded in the {@link InteractionOutbox}.
+     * </p>
      *
      * @param movieId The ID of the movie.
+     * @param userId  The ID of the viewer, or null if unknown.
      */
-    @Transactional
-    public void incrementView(String movieId) {
-        Movie movie = movieRepository.findById(movieId).orElse(null);
-        if (movie != null) {
-            if (movie.getStatistics() == null) {
-                movie.setStatistics(Movie.Statistics.builder().views(1).likes(0).build());
-            } else {
-                movie.getStatistics().setViews(movie.getStatistics().getViews() + 1);
-            }
-            movieRepository.save(movie);
-            log.info("View count incremented for movie: {}", movieId);
+    public void incrementView(String movieId, String userId) {
+        if (!viewCounter.record(movieId)) {
+            log.debug("Ignoring view for unknown movie: {}", movieId);
+            return;
         }
+        trendingIndex.record(movieId, TrendingIndex.VIEW_WEIGHT);
+        interactionOutbox.record(InteractionType.VIEW, userId, movieId, null);
     }
 
     /**
-     * Toggles the like count for a movie.
-     * <p>
-     * Note: This is a simplified implementation that just increments the count.
-     * A production implementation should track likes per user to allow toggling off.
-     * </p>
+     * Returns the current view and like counts of a movie.
      *
      * @param movieId The ID of the movie.
+     * @return The counters including views not yet flushed, or null if the movie does not exist.
      */
-    @Transactional
-    public void toggleLike(String movieId) {
+    public MovieStats getMovieStats(String movieId) {
         Movie movie = movieRepository.findById(movieId).orElse(null);
-        if (movie != null) {
-            if (movie.getStatistics() == null) {
-                movie.setStatistics(Movie.Statistics.builder().views(0).likes(1).build());
-            } else {
-                long currentLikes = movie.getStatistics().getLikes();
-                movie.getStatistics().setLikes(currentLikes + 1);
-            }
-            movieRepository.save(movie);
-            log.info("Like toggled for movie: {}", movieId);
+        if (movie == null) return null;
+
+        Movie.Statistics stats = movie.getStatistics();
+        long views = stats == null ? 0 : stats.getViews();
+        long likes = stats == null ? 0 : stats.getLikes();
+        return new MovieStats(movieId, views + viewCounter.unflushedViews(movieId), likes);
+    }
+
+    // Helper to turn a "size + 1" keyset read into a slice plus next cursor
+    private CursorPage<Movie> toCursorPage(List<Movie> fetched, int size) {
+        boolean hasNext = fetched.size() > size;
+        List<Movie> content = hasNext ? fetched.subList(0, size) : fetched;
+        String nextCursor = null;
+        if (hasNext) {
+            Movie last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(new CursorCodec.CreatedAtKey(last.getCreatedAt(), last.getMovieId()));
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    // Helper to find the first hit strictly after the cursor in (score DESC, movieId ASC) order
+    private int firstHitAfter(List<MovieSearchIndex.Hit> hits, CursorCodec.ScoreKey key) {
+        int low = 0;
+        int high = hits.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            MovieSearchIndex.Hit hit = hits.get(mid);
+            int cmp = Double.compare(key.score(), hit.score());
+            boolean atOrBeforeCursor = cmp < 0 || (cmp == 0 && hit.movieId().compareTo(key.movieId()) <= 0);
+            if (atOrBeforeCursor) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Helper to load movies by ID while keeping the caller's order (missing IDs are skipped)
+    private List<Movie> findAllInOrder(List<String> movieIds) {
+        Map<String, Movie> byId = movieRepository.findAllById(movieIds).stream()
+                .collect(Collectors.toMap(Movie::getMovieId, Function.identity()));
+        return movieIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Helper to drop a cached movie; handleSuccess runs as a callback, so @CacheEvict would not apply
+    private void evictMovieMetadata(String movieId) {
+        Cache cache = cacheManager.getCache("videoMetadata");
+        if (cache != null) {
+            cache.evict(movieId);
         }
     }
 
@@ -300,7 +550,9 @@ public class MovieService {
         details.setPreviewGifUrl(streamingBaseUrl + result.previewGifFilename());
         details.setDurationSeconds(result.durationSeconds());
 
-        movieRepository.save(movie);
+        Movie updated = movieRepository.save(movie);
+        catalogIndexes.forEach(index -> index.upsert(updated));
+        evictMovieMetadata(movieId);
         log.info("Movie {} processing COMPLETED. URLs updated.", movieId);
     }
 
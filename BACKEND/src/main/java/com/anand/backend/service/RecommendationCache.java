@@ -0,0 +1,193 @@
+package com.anand.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stale-while-revalidate cache of per-user recommendation lists.
+ * <p>
+ * Each user has a Redis hash {@code rec:{userId}} with the movie IDs of the last successful ML
+ * answer ({@code ids}) and when it was fetched ({@code at}). Reads work like this:
+ * <ul>
+ *   <li><b>Fresh</b> (younger than {@code recommendations.cache.fresh-seconds}): served as is.</li>
+ *   <li><b>Stale</b>: served as is, and a background refresh is started; concurrent stale reads on
+ *       this instance share one refresh.</li>
+ *   <li><b>Missing</b>: loaded synchronously and stored.</li>
+ * </ul>
+ * Lists are scored in-process by the {@link FactorModelStore} for users the latest model was
+ * trained on, which takes well under a millisecond and works while the ML service is down; only
+ * users new since the last training go to the ML service for its cold-start recommendations.
+ * A failed refresh leaves the last good list in place, so an ML outage keeps serving each user
+ * their own last recommendations instead of a generic list. Only real model answers are stored.
+ * </p>
+ * <p>
+ * Interactions that change what a user should see (a favorite, a finished movie) call
+ * {@link #invalidate}, which marks the entry stale in Redis (visible to all instances) and
+ * refreshes it in the background. Entries expire after {@code recommendations.cache.ttl-hours}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RecommendationCache {
+
+    private static final String KEY_PREFIX = "rec:";
+    private static final String IDS_FIELD = "ids";
+    private static final String FETCHED_AT_FIELD = "at";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MLServiceClient mlServiceClient;
+    private final FactorModelStore factorModelStore;
+    private final long freshMillis;
+    private final Duration ttl;
+    private final int listSize;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Set<String> rerun = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RecommendationCache(
+            RedisTemplate<String, String> redisTemplate,
+            MLServiceClient mlServiceClient,
+            FactorModelStore factorModelStore,
+            @Value("${recommendations.cache.fresh-seconds:300}") long freshSeconds,
+            @Value("${recommendations.cache.ttl-hours:168}") long ttlHours,
+            @Value("${recommendations.cache.size:50}") int listSize
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.mlServiceClient = mlServiceClient;
+        this.factorModelStore = factorModelStore;
+        this.freshMillis = Duration.ofSeconds(freshSeconds).toMillis();
+        this.ttl = Duration.ofHours(ttlHours);
+        this.listSize = listSize;
+    }
+
+    /**
+     * Returns the user's recommended movie IDs, best first.
+     *
+     * @param userId The ID of the user.
+     * @return The cached or freshly loaded list, or null if there is none and the ML service
+     *         could not provide one.
+     */
+    public List<String> get(String userId) {
+        Map<String, String> entry = read(userId);
+        String ids = entry.get(IDS_FIELD);
+        if (ids != null) {
+            long fetchedAt = parseLong(entry.get(FETCHED_AT_FIELD));
+            if (System.currentTimeMillis() - fetchedAt > freshMillis) {
+                refreshAsync(userId, false);
+            }
+            return ids.isEmpty() ? List.of() : Arrays.asList(ids.split(","));
+        }
+
+        try {
+            return load(userId);
+        } catch (Exception e) {
+            log.warn("No cached recommendations for user {} and ML load failed: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Marks a user's list stale after an interaction and refreshes it in the background.
+     *
+     * @param userId The ID of the user.
+     */
+    public void invalidate(String userId) {
+        String key = key(userId);
+        try {
+            redisTemplate.opsForHash().put(key, FETCHED_AT_FIELD, "0");
+            redisTemplate.expire(key, ttl);
+        } catch (Exception e) {
+            log.warn("Could not mark recommendations stale for user {}: {}", userId, e.getMessage());
+        }
+        refreshAsync(userId, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // Helper to compute a list (locally if the model knows the user, else via the ML service) and store it
+    private List<String> load(String userId) {
+        List<String> ids = factorModelStore.recommend(userId, listSize);
+        if (ids == null) {
+            ids = mlServiceClient.recommendations(userId, listSize).stream()
+                    .map(MLServiceClient.Recommendation::movie_id)
+                    .toList();
+        }
+        if (ids.isEmpty()) return ids;
+
+        String key = key(userId);
+        try {
+            HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+            hash.putAll(key, Map.of(
+                    IDS_FIELD, String.join(",", ids),
+                    FETCHED_AT_FIELD, Long.toString(System.currentTimeMillis())
+            ));
+            redisTemplate.expire(key, ttl);
+        } catch (Exception e) {
+            log.warn("Could not cache recommendations for user {}: {}", userId, e.getMessage());
+        }
+        return ids;
+    }
+
+    // Helper to refresh in the background, at most once at a time per user on this instance
+    private void refreshAsync(String userId, boolean afterInteraction) {
+        if (!refreshing.add(userId)) {
+            // The refresh in flight may predate this interaction; run once more after it
+            if (afterInteraction) rerun.add(userId);
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(userId);
+                } catch (Exception e) {
+                    log.debug("Recommendation refresh for user {} failed, keeping last list: {}", userId, e.getMessage());
+                } finally {
+                    refreshing.remove(userId);
+                    if (rerun.remove(userId)) refreshAsync(userId, false);
+                }
+            });
+        } catch (Exception e) {
+            refreshing.remove(userId);
+        }
+    }
+
+    // Helper to read the cache entry; Redis errors read as a miss
+    private Map<String, String> read(String userId) {
+        try {
+            HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+            return hash.entries(key(userId));
+        } catch (Exception e) {
+            log.warn("Recommendation cache read failed for user {}: {}", userId, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+}
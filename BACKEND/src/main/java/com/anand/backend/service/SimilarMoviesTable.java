@@ -0,0 +1,223 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.SimilarMovies;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Precomputed "similar movies" table, served from memory.
+ * <p>
+ * Similar titles are the same for every user, so instead of asking the ML service on each
+ * request the backend exports the top {@code similar.table.size} neighbours of every movie once
+ * after each training run. The export is written to the {@code similar_movies} collection under
+ * a new version, then a pointer document in {@code similar_movies_meta} is switched to that
+ * version, and finally older versions are deleted. The in-memory copy is an immutable snapshot
+ * replaced in a single reference swap, so a request sees either the old or the new table,
+ * never a mix.
+ * </p>
+ * <p>
+ * Several instances may export at once, e.g. when each starts without a table. The pointer only
+ * moves forward: it is switched in one conditional update that also records the version it
+ * replaced, and an export that finds a newer version live drops its own rows instead. Cleanup
+ * only deletes versions older than that replaced version, so neither the live version, the one
+ * before it nor an export that can still go live is ever removed.
+ * </p>
+ * <p>
+ * Every instance loads the current version at startup and polls the pointer every
+ * {@code similar.table.poll-interval-ms}, so an export made by one instance reaches the others.
+ * Movies added after the last training are not in the table; callers ask the ML service live
+ * for those.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SimilarMoviesTable {
+
+    private static final String META_COLLECTION = "similar_movies_meta";
+    private static final String CURRENT_ID = "current";
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MLServiceClient mlServiceClient;
+    private final int tableSize;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicBoolean exporting = new AtomicBoolean();
+    private final ExecutorService exportExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SimilarMoviesTable(
+            MongoTemplate mongoTemplate,
+            MLServiceClient mlServiceClient,
+            @Value("${similar.table.size:20}") int tableSize
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.mlServiceClient = mlServiceClient;
+        this.tableSize = tableSize;
+    }
+
+    // One immutable version of the table
+    private record Snapshot(long version, Map<String, List<String>> similar) {
+        static final Snapshot EMPTY = new Snapshot(0, Map.of());
+    }
+
+    /**
+     * Returns the precomputed similar movies of a movie.
+     *
+     * @param movieId The ID of the source movie.
+     * @return Movie IDs, most similar first, or null if the movie is not in the table.
+     */
+    public List<String> get(String movieId) {
+        return snapshot.similar().get(movieId);
+    }
+
+    /**
+     * Returns the version of the table in memory.
+     *
+     * @return The export time in epoch millis, 0 if no table is loaded.
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    /**
+     * Exports a new table from the ML service in the background, e.g. after training.
+     * Requests made while an export is running are ignored.
+     */
+    public void exportAsync() {
+        if (!exporting.compareAndSet(false, true)) return;
+        try {
+            exportExecutor.execute(() -> {
+                try {
+                    export();
+                } catch (MLServiceClient.ModelNotReadyException e) {
+                    log.info("Similar movies export skipped: model not trained yet");
+                } catch (Exception e) {
+                    log.warn("Similar movies export failed, keeping version {}: {}", snapshot.version(), e.getMessage());
+                } finally {
+                    exporting.set(false);
+                }
+            });
+        } catch (Exception e) {
+            exporting.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        syncWithCurrentVersion();
+        if (snapshot.version() == 0) {
+            exportAsync();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${similar.table.poll-interval-ms:60000}",
+            fixedDelayString = "${similar.table.poll-interval-ms:60000}"
+    )
+    public void syncWithCurrentVersion() {
+        try {
+            long current = currentVersion();
+            if (current != 0 && current != snapshot.version()) {
+                load(current);
+            }
+        } catch (Exception e) {
+            log.warn("Could not sync similar movies table: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exportExecutor.shutdownNow();
+    }
+
+    // Helper to write a new version, switch the pointer to it and drop the versions before the previous one
+    private void export() {
+        List<MLServiceClient.SimilarList> rows = mlServiceClient.similarTable(tableSize);
+        if (rows == null || rows.isEmpty()) return;
+
+        long previous = currentVersion();
+        long version = Math.max(System.currentTimeMillis(), previous + 1);
+        Map<String, List<String>> similar = new HashMap<>(rows.size() * 2);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SimilarMovies.class);
+        int pending = 0;
+        for (MLServiceClient.SimilarList row : rows) {
+            if (row.movie_id() == null || row.similar() == null) continue;
+            List<String> ids = List.copyOf(row.similar());
+            similar.put(row.movie_id(), ids);
+            bulk.insert(SimilarMovies.builder().version(version).movieId(row.movie_id()).similarMovieIds(ids).build());
+            if (++pending == WRITE_BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SimilarMovies.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) bulk.execute();
+
+        Document pointer;
+        try {
+            pointer = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(CURRENT_ID).and("version").lt(version)),
+                    AggregationUpdate.update()
+                            .set("previous").toValueOf(Fields.field("version"))
+                            .set("version").toValue(version),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class,
+                    META_COLLECTION
+            );
+        } catch (DuplicateKeyException e) {
+            // A newer version went live while this one was written
+            mongoTemplate.remove(new Query(Criteria.where("version").is(version)), SimilarMovies.class);
+            log.info("Similar movies table version {} discarded, a newer version is live", version);
+            return;
+        }
+        snapshot = new Snapshot(version, Map.copyOf(similar));
+
+        // Keep the previous version for instances that are still loading it
+        Number replaced = pointer == null ? null : (Number) pointer.get("previous");
+        if (replaced != null) {
+            mongoTemplate.remove(new Query(Criteria.where("version").lt(replaced.longValue())), SimilarMovies.class);
+        }
+        log.info("Similar movies table version {} live with {} movies", version, similar.size());
+    }
+
+    // Helper to read one version from MongoDB and swap it in
+    private void load(long version) {
+        Query query = new Query(Criteria.where("version").is(version));
+        Map<String, List<String>> similar = new HashMap<>();
+        try (Stream<SimilarMovies> rows = mongoTemplate.stream(query, SimilarMovies.class)) {
+            rows.forEach(row -> similar.put(row.getMovieId(), List.copyOf(row.getSimilarMovieIds())));
+        }
+        if (similar.isEmpty()) return;
+
+        snapshot = new Snapshot(version, Map.copyOf(similar));
+        log.info("Loaded similar movies table version {} with {} movies", version, similar.size());
+    }
+
+    private long currentVersion() {
+        Document pointer = mongoTemplate.findById(CURRENT_ID, Document.class, META_COLLECTION);
+        return pointer == null ? 0 : ((Number) pointer.get("version")).longValue();
+    }
+}
@@ -0,0 +1,252 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import com.anand.backend.enums.Genre;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Approximate-nearest-neighbour index of the catalog that answers "similar titles" and
+ * "more like this" locally.
+ * <p>
+ * Each movie is embedded as the concatenation of its NMF latent factors (from the
+ * {@link FactorModelStore}) and a genre vector, each part normalized and weighted so that the
+ * inner product of two embeddings equals the ML service's hybrid score
+ * {@code 0.6 * cosine(latent) + 0.4 * cosine(genres)}. The genre part has one dimension per
+ * {@link Genre} plus a few hashed buckets for other genres (see {@link GenreDimensions}). Movies
+ * the model has not seen yet, such as titles uploaded after the last training, are embedded from
+ * their genres alone, so they are searchable from the moment they are ingested. Their latent part
+ * stays zero rather than the genre part being scaled up, so they score the
+ * {@code 0.4 * cosine(genres)} of the hybrid score and do not outrank titles with both signals.
+ * </p>
+ * <p>
+ * The embeddings live in an {@link HnswGraph}, so a query costs about {@code O(log n)} vector
+ * comparisons instead of a scan or a dense {@code n x n} similarity matrix. Single-movie changes
+ * are applied incrementally. The periodic catalog rebuild only reconciles differences, except
+ * when a new factor model is live or too many nodes are deleted: then a fresh graph is built in
+ * the background, with changes made during the build replayed before it is swapped in.
+ * Tuning: {@code similar.index.m} and {@code similar.index.ef-construction} set graph quality,
+ * {@code similar.index.ef-search} the per-query recall/latency trade-off.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SimilarTitleIndex implements CatalogIndex {
+
+    private static final float LATENT_WEIGHT = 0.6f;
+    private static final float CONTENT_WEIGHT = 0.4f;
+    private static final int GENRE_DIMS = GenreDimensions.COUNT;
+    private static final double MAX_DELETED_FRACTION = 0.2;
+
+    private final FactorModelStore factorModelStore;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+
+    private volatile Live live;
+    // Non-null while a full build runs; guarded by this
+    private List<Consumer<Live>> pendingChanges;
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("similar-index-build").daemon().factory());
+
+    public SimilarTitleIndex(
+            FactorModelStore factorModelStore,
+            @Value("${similar.index.m:16}") int m,
+            @Value("${similar.index.ef-construction:200}") int efConstruction,
+            @Value("${similar.index.ef-search:64}") int efSearch
+    ) {
+        this.factorModelStore = factorModelStore;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    // A graph together with the factor model its embeddings were computed from
+    private record Live(HnswGraph graph, FactorModel model) {
+        long modelVersion() {
+            return model == null ? 0 : model.version();
+        }
+    }
+
+    /**
+     * Finds the titles most similar to a movie.
+     *
+     * @param movieId The ID of the source movie.
+     * @param limit   The maximum number of movies.
+     * @return Movie IDs, most similar first, or null if the movie is not indexed.
+     */
+    public List<String> similar(String movieId, int limit) {
+        Live snapshot = live;
+        if (snapshot == null) return null;
+        HnswGraph current = snapshot.graph();
+        float[] vector = current.vector(movieId);
+        if (vector == null) return null;
+        return keysOf(current.search(vector, limit, efSearch, Set.of(movieId)));
+    }
+
+    /**
+     * Finds titles similar to a group of movies, e.g. a user's recent favorites, by searching
+     * around the normalized mean of their embeddings.
+     *
+     * @param movieIds The seed movies; they are never returned.
+     * @param limit    The maximum number of movies.
+     * @return Movie IDs, most similar first; empty if none of the seeds is indexed.
+     */
+    public List<String> moreLikeThis(Collection<String> movieIds, int limit) {
+        Live snapshot = live;
+        if (snapshot == null) return List.of();
+        HnswGraph current = snapshot.graph();
+        float[] centroid = new float[current.dims()];
+        boolean any = false;
+        for (String movieId : movieIds) {
+            float[] vector = current.vector(movieId);
+            if (vector == null) continue;
+            for (int i = 0; i < centroid.length; i++) centroid[i] += vector[i];
+            any = true;
+        }
+        if (!any || !normalize(centroid)) return List.of();
+        return keysOf(current.search(centroid, limit, efSearch, movieIds));
+    }
+
+    @Override
+    public void rebuild(Collection<Movie> movies) {
+        FactorModel model = factorModelStore.model();
+        long modelVersion = model == null ? 0 : model.version();
+        Live snapshot = live;
+        if (snapshot == null || modelVersion != snapshot.modelVersion()
+                || snapshot.graph().deletedFraction() > MAX_DELETED_FRACTION) {
+            buildInBackground(List.copyOf(movies), model);
+            return;
+        }
+
+        // Same model: reconcile only what differs from the catalog
+        HnswGraph current = snapshot.graph();
+        Set<String> stale = new HashSet<>(current.keys());
+        for (Movie movie : movies) {
+            stale.remove(movie.getMovieId());
+            float[] embedding = embed(movie, snapshot.model());
+            float[] indexed = current.vector(movie.getMovieId());
+            if (!Arrays.equals(embedding, indexed)) upsert(movie);
+        }
+        stale.forEach(this::remove);
+    }
+
+    @Override
+    public void upsert(Movie movie) {
+        apply(target -> {
+            float[] embedding = embed(movie, target.model());
+            if (embedding == null) target.graph().remove(movie.getMovieId());
+            else target.graph().upsert(movie.getMovieId(), embedding);
+        });
+    }
+
+    @Override
+    public void remove(String movieId) {
+        apply(target -> target.graph().remove(movieId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    // Helper to apply a change to the live graph and record it for a build in progress
+    private synchronized void apply(Consumer<Live> change) {
+        Live current = live;
+        if (current != null) change.accept(current);
+        if (pendingChanges != null) pendingChanges.add(change);
+    }
+
+    // Helper to build a fresh graph off the request path, then replay concurrent changes and swap it in
+    private void buildInBackground(List<Movie> movies, FactorModel model) {
+        synchronized (this) {
+            if (pendingChanges != null) return;
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            buildExecutor.execute(() -> {
+                try {
+                    long start = System.currentTimeMillis();
+                    Live next = new Live(new HnswGraph(embeddingDims(model), m, efConstruction, 42), model);
+                    for (Movie movie : movies) {
+                        float[] embedding = embed(movie, model);
+                        if (embedding != null) next.graph().upsert(movie.getMovieId(), embedding);
+                    }
+                    synchronized (this) {
+                        pendingChanges.forEach(change -> change.accept(next));
+                        live = next;
+                    }
+                    log.info("Built similar-title index over {} movies (model version {}) in {} ms",
+                            movies.size(), next.modelVersion(), System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    log.error("Similar-title index build failed: {}", e.getMessage());
+                } finally {
+                    synchronized (this) {
+                        pendingChanges = null;
+                    }
+                }
+            });
+        } catch (Exception e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    // Helper to embed a movie for the given model; null if it has neither factors nor genres
+    private float[] embed(Movie movie, FactorModel model) {
+        int latentDims = model == null ? 0 : model.components();
+        float[] embedding = new float[latentDims + GENRE_DIMS];
+
+        float[] latent = model == null ? null : model.movieVector(movie.getMovieId());
+        boolean hasLatent = latent != null && scaleToLength(latent, (float) Math.sqrt(LATENT_WEIGHT));
+        if (hasLatent) System.arraycopy(latent, 0, embedding, 0, latentDims);
+
+        float[] genres = new float[GENRE_DIMS];
+        if (movie.getGenres() != null) {
+            for (String genre : movie.getGenres()) {
+                int dim = GenreDimensions.of(genre);
+                if (dim >= 0) genres[dim] = 1f;
+            }
+        }
+        boolean hasGenres = scaleToLength(genres, (float) Math.sqrt(CONTENT_WEIGHT));
+        if (hasGenres) System.arraycopy(genres, 0, embedding, latentDims, GENRE_DIMS);
+
+        // A missing part stays zero, i.e. contributes nothing to the hybrid score
+        return hasLatent || hasGenres ? embedding : null;
+    }
+
+    private static int embeddingDims(FactorModel model) {
+        return (model == null ? 0 : model.components()) + GENRE_DIMS;
+    }
+
+    private static boolean normalize(float[] vector) {
+        return scaleToLength(vector, 1f);
+    }
+
+    // Scales a vector in place to the given length; false (unchanged) if it is all zeros
+    private static boolean scaleToLength(float[] vector, float length) {
+        double sumOfSquares = 0;
+        for (float value : vector) sumOfSquares += value * value;
+        if (sumOfSquares == 0) return false;
+        float scale = (float) (length / Math.sqrt(sumOfSquares));
+        for (int i = 0; i < vector.length; i++) vector[i] *= scale;
+        return true;
+    }
+
+    private static List<String> keysOf(List<HnswGraph.Hit> hits) {
+        return hits.stream().map(HnswGraph.Hit::key).toList();
+    }
+}
@@ -0,0 +1,248 @@
+package com.anand.backend.service;
+
+import com.anand.backend.dto.TitleSuggestion;
+import com.anand.backend.entity.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Popularity-weighted typeahead index over movie titles.
+ * <p>
+ * Titles are normalized the same way as {@link MovieSearchIndex} and inserted into a trie once
+ * from the start of the title and once from the start of every following word, so "knig" finds
+ * "The Dark Knight". Every trie node stores the IDs of its {@value #MAX_SUGGESTIONS} most popular
+ * titles, which makes a lookup a walk of {@code query.length()} steps followed by a copy of at
+ * most ten precomputed suggestions.
+ * </p>
+ * <p>
+ * The trie is packed into flat primitive arrays (children stored contiguously and found by binary
+ * search) and published as an immutable snapshot, so readers never lock. Any catalog change
+ * rebuilds the snapshot; uploads are rare enough that this is cheaper than a mutable structure.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TitleSuggestIndex implements CatalogIndex {
+
+    static final int MAX_SUGGESTIONS = 10;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    // Guarded by "this"; only touched by writers
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    private record Entry(String movieId, String movieTitle, long popularity) {}
+
+    /**
+     * Returns the most popular titles matching the given prefix.
+     *
+     * @param query The text typed so far.
+     * @param limit The maximum number of suggestions (capped at {@value #MAX_SUGGESTIONS}).
+     * @return Suggestions ordered by descending popularity; empty if nothing matches.
+     */
+    public List<TitleSuggestion> suggest(String query, int limit) {
+        if (query == null || limit <= 0) return List.of();
+        Snapshot current = snapshot;
+        int node = current.walk(query);
+        if (node < 0) return List.of();
+
+        int count = Math.min(Math.min(limit, MAX_SUGGESTIONS), current.topCount[node]);
+        TitleSuggestion[] result = new TitleSuggestion[count];
+        int offset = current.topStart[node];
+        for (int i = 0; i < count; i++) {
+            result[i] = current.suggestions[current.topEntries[offset + i]];
+        }
+        return Arrays.asList(result);
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Movie> movies) {
+        entries.clear();
+        for (Movie movie : movies) {
+            entries.put(movie.getMovieId(), toEntry(movie));
+        }
+        publish();
+    }
+
+    @Override
+    public synchronized void upsert(Movie movie) {
+        entries.put(movie.getMovieId(), toEntry(movie));
+        publish();
+    }
+
+    @Override
+    public synchronized void remove(String movieId) {
+        if (entries.remove(movieId) != null) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        Snapshot next = Snapshot.build(entries.values());
+        snapshot = next;
+        log.debug("Suggest index rebuilt: {} titles, {} trie nodes", next.suggestions.length, next.labels.length);
+    }
+
+    private static Entry toEntry(Movie movie) {
+        long popularity = 0;
+        if (movie.getStatistics() != null) {
+            popularity = movie.getStatistics().getLikes() * 2 + movie.getStatistics().getViews();
+        }
+        return new Entry(movie.getMovieId(), movie.getMovieTitle(), popularity);
+    }
+
+    /**
+     * Immutable, array-packed trie. Node 0 is the root; the children of a node occupy
+     * {@code [childStart, childStart + childCount)} and are sorted by label.
+     */
+    private static final class Snapshot {
+        private final TitleSuggestion[] suggestions;
+        private final char[] labels;
+        private final int[] childStart;
+        private final int[] childCount;
+        private final int[] topStart;
+        private final byte[] topCount;
+        private final int[] topEntries;
+
+        private Snapshot(TitleSuggestion[] suggestions, char[] labels, int[] childStart, int[] childCount,
+                         int[] topStart, byte[] topCount, int[] topEntries) {
+            this.suggestions = suggestions;
+            this.labels = labels;
+            this.childStart = childStart;
+            this.childCount = childCount;
+            this.topStart = topStart;
+            this.topCount = topCount;
+            this.topEntries = topEntries;
+        }
+
+        /**
+         * Follows the normalized query through the trie.
+         *
+         * @return The node reached, or -1 if the query is blank or has no match.
+         */
+        int walk(String query) {
+            String text = query;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) >= 128) {
+                    text = MovieSearchIndex.normalize(text);
+                    break;
+                }
+            }
+
+            int node = 0;
+            boolean started = false;
+            boolean pendingSpace = false;
+            for (int i = 0; i < text.length() && node >= 0; i++) {
+                char c = text.charAt(i);
+                if (!Character.isLetterOrDigit(c)) {
+                    pendingSpace = started;
+                    continue;
+                }
+                if (pendingSpace) {
+                    node = child(node, ' ');
+                    pendingSpace = false;
+                    if (node < 0) break;
+                }
+                node = child(node, Character.toLowerCase(c));
+                started = true;
+            }
+            return started ? node : -1;
+        }
+
+        private int child(int node, char label) {
+            int low = childStart[node];
+            int high = low + childCount[node] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midLabel = labels[mid];
+                if (midLabel < label) low = mid + 1;
+                else if (midLabel > label) high = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+
+        static Snapshot build(Collection<Entry> catalog) {
+            List<Entry> ordered = new ArrayList<>(catalog);
+            ordered.sort(Comparator.comparingLong(Entry::popularity).reversed()
+                    .thenComparing(Entry::movieId));
+
+            TitleSuggestion[] suggestions = new TitleSuggestion[ordered.size()];
+            BuildNode root = new BuildNode('\0');
+            for (int e = 0; e < ordered.size(); e++) {
+                Entry entry = ordered.get(e);
+                suggestions[e] = new TitleSuggestion(entry.movieId(), entry.movieTitle());
+
+                // Entries arrive in popularity order, so each node's list stays sorted
+                String key = String.join(" ", MovieSearchIndex.tokenize(entry.movieTitle()));
+                int start = key.isEmpty() ? -1 : 0;
+                while (start >= 0) {
+                    BuildNode node = root;
+                    int end = Math.min(key.length(), start + MAX_KEY_LENGTH);
+                    for (int i = start; i < end; i++) {
+                        node = node.children.computeIfAbsent(key.charAt(i), BuildNode::new);
+                        node.offer(e);
+                    }
+                    int space = key.indexOf(' ', start);
+                    start = space < 0 ? -1 : space + 1;
+                }
+            }
+            return flatten(root, suggestions);
+        }
+
+        private static Snapshot flatten(BuildNode root, TitleSuggestion[] suggestions) {
+            List<BuildNode> order = new ArrayList<>();
+            order.add(root);
+            for (int i = 0; i < order.size(); i++) {
+                order.addAll(order.get(i).children.values());
+            }
+
+            int nodeCount = order.size();
+            char[] labels = new char[nodeCount];
+            int[] childStart = new int[nodeCount];
+            int[] childCount = new int[nodeCount];
+            int[] topStart = new int[nodeCount];
+            byte[] topCount = new byte[nodeCount];
+
+            int totalTop = 0;
+            int nextChild = 1;
+            for (int i = 0; i < nodeCount; i++) {
+                BuildNode node = order.get(i);
+                labels[i] = node.label;
+                childStart[i] = nextChild;
+                childCount[i] = node.children.size();
+                nextChild += node.children.size();
+                topStart[i] = totalTop;
+                topCount[i] = (byte) node.size;
+                totalTop += node.size;
+            }
+
+            int[] topEntries = new int[totalTop];
+            for (int i = 0; i < nodeCount; i++) {
+                BuildNode node = order.get(i);
+                System.arraycopy(node.top, 0, topEntries, topStart[i], node.size);
+            }
+            return new Snapshot(suggestions, labels, childStart, childCount, topStart, topCount, topEntries);
+        }
+    }
+
+    private static final class BuildNode {
+        private final char label;
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private final int[] top = new int[MAX_SUGGESTIONS];
+        private int size;
+
+        BuildNode(char label) {
+            this.label = label;
+        }
+
+        void offer(int entry) {
+            if (size < MAX_SUGGESTIONS && (size == 0 || top[size - 1] != entry)) {
+                top[size++] = entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Continuously maintained, time-decayed popularity ranking of the catalog.
+ * <p>
+ * Every view and like adds weight to a movie's score, and weight decays exponentially with the
+ * configured half-life. Decay uses a fixed landmark time (forward decay): an event at time
+ * {@code t} adds {@code w * e^((t - landmark) / tau)}, so newer events weigh more and scores never
+ * have to be decayed in place. Relative order is the same as decaying every score to "now".
+ * When the exponent grows large the landmark is moved forward and all scores are rescaled once.
+ * </p>
+ * <p>
+ * Movies are kept in one {@link ConcurrentSkipListSet} for the global ranking and one per genre,
+ * ordered by score. An event re-inserts the movie in its lists in O(log n), and reading the top
+ * K walks the head of a list in O(K). New movies are seeded with their persisted
+ * {@code likes * 2 + views}, treated as activity at the landmark, so the ranking is meaningful
+ * right after startup. An entry remembers that landmark, and taking back a like from before it
+ * removes the full weight the seed counted.
+ * </p>
+ * <p>
+ * Each instance ranks the events it receives; the seed from the periodic catalog rebuild keeps
+ * instances roughly aligned.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TrendingIndex implements CatalogIndex {
+
+    public static final double VIEW_WEIGHT = 1.0;
+    public static final double LIKE_WEIGHT = 2.0;
+
+    // Move the landmark once event weights reach e^40, far below double overflow
+    private static final double MAX_EXPONENT = 40.0;
+
+    private final double tauMillis;
+    private final ReentrantReadWriteLock landmarkLock = new ReentrantReadWriteLock();
+    private volatile long landmarkMillis = System.currentTimeMillis();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Ranked> global = new ConcurrentSkipListSet<>();
+    private final Map<String, NavigableSet<Ranked>> byGenre = new ConcurrentHashMap<>();
+
+    public TrendingIndex(@Value("${trending.half-life-hours:24}") double halfLifeHours) {
+        this.tauMillis = halfLifeHours * 3_600_000 / Math.log(2);
+    }
+
+    // Score order: highest first, ties broken by movie ID
+    private record Ranked(double score, String movieId) implements Comparable<Ranked> {
+        private static final Comparator<Ranked> ORDER = Comparator.comparingDouble(Ranked::score).reversed()
+                .thenComparing(Ranked::movieId);
+
+        @Override
+        public int compareTo(Ranked other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Entry {
+        final String movieId;
+        final List<String> genreKeys;
+        // When the seed's likes were counted, or Long.MIN_VALUE if it counted none
+        final long seededAtMillis;
+        // Guarded by the entry's monitor
+        double score;
+
+        Entry(String movieId, List<String> genreKeys, double score, long seededAtMillis) {
+            this.movieId = movieId;
+            this.genreKeys = genreKeys;
+            this.score = score;
+            this.seededAtMillis = seededAtMillis;
+        }
+    }
+
+    /**
+     * Adds a decayed event weight to a movie. Unknown movies are ignored.
+     *
+     * @param movieId The ID of the movie.
+     * @param weight  The event weight, e.g. {@link #VIEW_WEIGHT}.
+     */
+    public void record(String movieId, double weight) {
+        add(movieId, weight, System.currentTimeMillis());
+    }
+
+    /**
+     * Takes back an earlier event, e.g. a like when the user unlikes the movie. The weight is
+     * removed as decayed at the original event's time, so the movie loses exactly what the event
+     * still contributes rather than a fresh event's larger weight. Events older than the movie's
+     * seed were counted at the seed time, and are taken back at that weight.
+     *
+     * @param movieId    The ID of the movie.
+     * @param weight     The weight the event was recorded with.
+     * @param occurredAt When the event happened; null (unknown) leaves the score unchanged.
+     */
+    public void unrecord(String movieId, double weight, Instant occurredAt) {
+        if (occurredAt == null) return;
+        add(movieId, -weight, Math.min(occurredAt.toEpochMilli(), System.currentTimeMillis()));
+    }
+
+    // Helper to add an event weight decayed to the given time, or to the seed time if earlier
+    private void add(String movieId, double weight, long atMillis) {
+        landmarkLock.readLock().lock();
+        try {
+            Entry entry = entries.get(movieId);
+            if (entry == null) return;
+            atMillis = Math.max(atMillis, entry.seededAtMillis);
+            double decayed = weight * Math.exp((atMillis - landmarkMillis) / tauMillis);
+            synchronized (entry) {
+                double previous = entry.score;
+                entry.score = Math.max(0, previous + decayed);
+                reposition(entry, previous);
+            }
+        } finally {
+            landmarkLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the currently trending movies.
+     *
+     * @param genre The genre to rank within, or null for the whole catalog.
+     * @param limit The maximum number of movies.
+     * @return Movie IDs, most trending first.
+     */
+    public List<String> top(String genre, int limit) {
+        NavigableSet<Ranked> ranking = genre == null ? global : byGenre.get(genreKey(genre));
+        if (ranking == null || limit <= 0) return List.of();
+
+        // A movie being re-ranked is briefly present twice; skip the second occurrence
+        List<String> ids = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        Iterator<Ranked> it = ranking.iterator();
+        while (ids.size() < limit && it.hasNext()) {
+            String movieId = it.next().movieId();
+            if (seen.add(movieId)) ids.add(movieId);
+        }
+        return ids;
+    }
+
+    @Override
+    public void rebuild(Collection<Movie> movies) {
+        landmarkLock.writeLock().lock();
+        try {
+            Set<String> catalogIds = new HashSet<>(movies.size() * 2);
+            for (Movie movie : movies) {
+                catalogIds.add(movie.getMovieId());
+                Entry existing = entries.get(movie.getMovieId());
+                if (existing == null || !existing.genreKeys.equals(genreKeys(movie))) {
+                    insert(movie, existing);
+                }
+            }
+            for (String movieId : List.copyOf(entries.keySet())) {
+                if (!catalogIds.contains(movieId)) removeEntry(movieId);
+            }
+            rebaseIfNeeded();
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Movie movie) {
+        landmarkLock.writeLock().lock();
+        try {
+            insert(movie, entries.get(movie.getMovieId()));
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String movieId) {
+        landmarkLock.writeLock().lock();
+        try {
+            removeEntry(movieId);
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+    }
+
+    // Helper to move an entry to its new score in every list it belongs to; add first, then remove
+    private void reposition(Entry entry, double previousScore) {
+        Ranked before = new Ranked(previousScore, entry.movieId);
+        Ranked after = new Ranked(entry.score, entry.movieId);
+        if (after.equals(before)) return;
+        global.add(after);
+        global.remove(before);
+        for (String genreKey : entry.genreKeys) {
+            NavigableSet<Ranked> ranking = byGenre.computeIfAbsent(genreKey, key -> new ConcurrentSkipListSet<>());
+            ranking.add(after);
+            ranking.remove(before);
+        }
+    }
+
+    // Helper to (re)insert a movie, keeping an existing entry's score or seeding a new one; caller holds the write lock
+    private void insert(Movie movie, Entry existing) {
+        Entry entry;
+        if (existing != null) {
+            entry = new Entry(movie.getMovieId(), genreKeys(movie), existing.score, existing.seededAtMillis);
+        } else {
+            boolean seededLikes = movie.getStatistics() != null && movie.getStatistics().getLikes() > 0;
+            entry = new Entry(movie.getMovieId(), genreKeys(movie), seedScore(movie),
+                    seededLikes ? landmarkMillis : Long.MIN_VALUE);
+        }
+        removeEntry(movie.getMovieId());
+        entries.put(entry.movieId, entry);
+        Ranked ranked = new Ranked(entry.score, entry.movieId);
+        global.add(ranked);
+        for (String genreKey : entry.genreKeys) {
+            byGenre.computeIfAbsent(genreKey, key -> new ConcurrentSkipListSet<>()).add(ranked);
+        }
+    }
+
+    // Helper to drop a movie from all lists; caller holds the write lock
+    private void removeEntry(String movieId) {
+        Entry entry = entries.remove(movieId);
+        if (entry == null) return;
+        Ranked ranked = new Ranked(entry.score, movieId);
+        global.remove(ranked);
+        for (String genreKey : entry.genreKeys) {
+            NavigableSet<Ranked> ranking = byGenre.get(genreKey);
+            if (ranking != null) ranking.remove(ranked);
+        }
+    }
+
+    // Helper to move the landmark to now and rescale every score; caller holds the write lock
+    private void rebaseIfNeeded() {
+        long now = System.currentTimeMillis();
+        double exponent = (now - landmarkMillis) / tauMillis;
+        if (exponent < MAX_EXPONENT) return;
+
+        double factor = Math.exp(-exponent);
+        global.clear();
+        byGenre.clear();
+        for (Entry entry : entries.values()) {
+            entry.score *= factor;
+            Ranked ranked = new Ranked(entry.score, entry.movieId);
+            global.add(ranked);
+            for (String genreKey : entry.genreKeys) {
+                byGenre.computeIfAbsent(genreKey, key -> new ConcurrentSkipListSet<>()).add(ranked);
+            }
+        }
+        landmarkMillis = now;
+        log.info("Trending index landmark moved forward; rescaled {} scores", entries.size());
+    }
+
+    // Helper to seed a new movie with its all-time popularity, counted as activity at the landmark
+    private static double seedScore(Movie movie) {
+        Movie.Statistics stats = movie.getStatistics();
+        if (stats == null) return 0;
+        return stats.getLikes() * LIKE_WEIGHT + stats.getViews() * VIEW_WEIGHT;
+    }
+
+    private static List<String> genreKeys(Movie movie) {
+        if (movie.getGenres() == null) return List.of();
+        Set<String> keys = new LinkedHashSet<>();
+        for (String genre : movie.getGenres()) {
+            String key = genreKey(genre);
+            if (!key.isEmpty()) keys.add(key);
+        }
+        return List.copyOf(keys);
+    }
+
+    private static String genreKey(String genre) {
+        return genre == null ? "" : genre.replaceAll("[^\\p{L}\\p{Nd}]", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,98 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.MovieLike;
+import com.anand.backend.entity.WatchLaterEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-time migration of embedded user lists into their own collections.
+ * <p>
+ * Older user documents carry {@code favoriteMovieIds} and {@code watchLaterMovieIds}. On startup
+ * this component copies them into {@link MovieLike} and {@link WatchLaterEntry} documents with
+ * idempotent upserts and then unsets both arrays. Entries are timestamped one millisecond apart
+ * so the new "most recently added first" order matches the old array order. Like counters are
+ * not touched: favorites were already counted when they were added.
+ * </p>
+ * <p>
+ * Runs after {@link MovieLikeMigration}. Running it again, or on several instances at once, is
+ * harmless; once no user has either field, startup only pays for one existence query.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserListMigration {
+
+    private static final String USERS_COLLECTION = "users";
+    private static final String FAVORITES_FIELD = "favoriteMovieIds";
+    private static final String WATCH_LATER_FIELD = "watchLaterMovieIds";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedLists() {
+        Query legacy = new Query(new Criteria().orOperator(
+                Criteria.where(FAVORITES_FIELD).exists(true),
+                Criteria.where(WATCH_LATER_FIELD).exists(true)
+        ));
+        legacy.fields().include(FAVORITES_FIELD).include(WATCH_LATER_FIELD);
+
+        int migratedUsers = 0;
+        long migratedEntries = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(legacy, Document.class, USERS_COLLECTION)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                String userId = document.get("_id").toString();
+                migratedEntries += copyList(userId, document.getList(FAVORITES_FIELD, String.class, List.of()),
+                        MovieLike.class, "createdAt");
+                migratedEntries += copyList(userId, document.getList(WATCH_LATER_FIELD, String.class, List.of()),
+                        WatchLaterEntry.class, "addedAt");
+
+                mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(document.get("_id"))),
+                        new Update().unset(FAVORITES_FIELD).unset(WATCH_LATER_FIELD),
+                        USERS_COLLECTION
+                );
+                migratedUsers++;
+            }
+        } catch (Exception e) {
+            log.error("User list migration failed after {} users: {}", migratedUsers, e.getMessage());
+            return;
+        }
+
+        if (migratedUsers > 0) {
+            log.info("Migrated {} embedded list entries from {} users", migratedEntries, migratedUsers);
+        }
+    }
+
+    // Helper to upsert one embedded list, oldest entry first, into its collection
+    private int copyList(String userId, List<String> movieIds, Class<?> entityClass, String timestampField) {
+        if (movieIds.isEmpty()) return 0;
+
+        Instant base = Instant.now().minusMillis(movieIds.size());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        for (int i = 0; i < movieIds.size(); i++) {
+            bulk.upsert(
+                    new Query(Criteria.where("userId").is(userId).and("movieId").is(movieIds.get(i))),
+                    new Update().setOnInsert(timestampField, base.plusMillis(i))
+            );
+        }
+        bulk.execute();
+        return movieIds.size();
+    }
+}
@@ -1,20 +1,43 @@
 package com.anand.backend.service;
 
+import com.anand.backend.dto.ContinueWatchingItem;
+import com.anand.backend.dto.ListMembership;
+import com.anand.backend.dto.MovieCard;
 import com.anand.backend.entity.Movie;
+import com.anand.backend.entity.MovieLike;
 import com.anand.backend.entity.User;
+import com.anand.backend.entity.WatchLaterEntry;
 import com.anand.backend.entity.WatchProgress;
-import com.anand.backend.repository.MovieRepository;
+import com.anand.backend.enums.InteractionType;
+import com.anand.backend.enums.UserRole;
+import com.anand.backend.repository.MovieLikeRepository;
 import com.anand.backend.repository.UserRepository;
+import com.anand.backend.repository.WatchLaterRepository;
 import com.anand.backend.repository.WatchProgressRepository;
+import com.anand.backend.security.UserIdentityService;
 import com.google.firebase.auth.FirebaseToken; // Import Firebase
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing User entities and their interactions.
@@ -22,7 +45,7 @@ import java.util.Optional;
  * This service handles business logic for:
  * <ul>
  *   <li>User synchronization with Firebase Authentication</li>
- *   <li>Managing user favorites and "Watch Later" lists</li>
+ *   <li>Managing and paging user favorites and "Watch Later" lists</li>
  *   <li>Tracking and updating movie watch progress</li>
  * </ul>
  * </p>
@@ -34,7 +57,17 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final WatchProgressRepository watchProgressRepository;
-    private final MovieRepository movieRepository;
+    private final MovieLikeRepository movieLikeRepository;
+    private final WatchLaterRepository watchLaterRepository;
+    private final MongoTemplate mongoTemplate;
+    private final WatchProgressBuffer watchProgressBuffer;
+    private final UserIdentityService userIdentityService;
+    private final ContinueWatchingIndex continueWatchingIndex;
+    private final MovieCardHydrator movieCardHydrator;
+    private final TrendingIndex trendingIndex;
+    private final RecommendationCache recommendationCache;
+    private final InteractionOutbox interactionOutbox;
+    private final GenreAffinityIndex genreAffinityIndex;
 
     /**
      * Synchronizes a Firebase user with the local MongoDB database.
@@ -64,87 +97,150 @@ public class UserService {
     /**
      * Toggles the favorite status of a movie for a specific user.
      * <p>
-     * This method handles the bidirectional relationship:
+     * Favorites are the user's {@link MovieLike} records, so each step is a single targeted write
+     * against the unique (movieId, userId) index and concurrent toggles never overwrite each other:
      * <ul>
-     *   <li>Adding/Removing the movie ID from the user's favorites list.</li>
-     *   <li>Incrementing/Decrementing the movie's global like count.</li>
-     *   <li>Updating the list of users who liked the movie.</li>
+     *   <li>Delete the record; if one was deleted, this is a removal.</li>
+     *   <li>Otherwise upsert it, after checking that the movie exists.</li>
+     *   <li>{@code $inc} the movie's like count only if that record was actually created or deleted.</li>
      * </ul>
+     * The unique index makes the like record the source of truth, so repeated or racing
+     * requests cannot push the counter past the number of users who liked the movie.
+     * Either way the user's cached recommendations are invalidated.
      * </p>
      *
      * @param userId  The ID of the user.
      * @param movieId The ID of the movie.
      */
-    @Transactional
     public void toggleFavorite(String userId, String movieId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        boolean isRemoving = user.getFavoriteMovieIds().contains(movieId);
-
-        Optional<Movie> movieOpt = movieRepository.findById(movieId);
-        
-        if (movieOpt.isEmpty()) {
-            if (isRemoving) {
-                user.getFavoriteMovieIds().remove(movieId);
-                userRepository.save(user);
-                return;
-            }
-            throw new RuntimeException("Movie not found");
+        MovieLike removed = mongoTemplate.findAndRemove(
+                new Query(Criteria.where("movieId").is(movieId).and("userId").is(userId)),
+                MovieLike.class
+        );
+        if (removed != null) {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(movieId).and("statistics.likes").gt(0)),
+                    new Update().inc("statistics.likes", -1),
+                    Movie.class
+            );
+            trendingIndex.unrecord(movieId, TrendingIndex.LIKE_WEIGHT, removed.getCreatedAt());
+            interactionOutbox.record(InteractionType.UNLIKE, userId, movieId, null);
+            genreAffinityIndex.recordLike(userId, movieId, false);
+            recommendationCache.invalidate(userId);
+            return;
         }
 
-        Movie movie = movieOpt.get();
-        
-        if (movie.getStatistics() == null) {
-            movie.setStatistics(Movie.Statistics.builder()
-                    .views(0)
-                    .likes(0)
-                    .likedByUserIds(new java.util.ArrayList<>())
-                    .build());
-        }
-        
-        if (isRemoving) {
-            user.getFavoriteMovieIds().remove(movieId);
-            if (movie.getStatistics().getLikes() > 0) {
-                movie.getStatistics().setLikes(movie.getStatistics().getLikes() - 1);
-            }
-            movie.getStatistics().getLikedByUserIds().remove(userId);
-        } else {
-            user.getFavoriteMovieIds().add(movieId);
-            movie.getStatistics().setLikes(movie.getStatistics().getLikes() + 1);
-            if (!movie.getStatistics().getLikedByUserIds().contains(userId)) {
-                movie.getStatistics().getLikedByUserIds().add(userId);
-            }
+        requireMovie(movieId);
+        UpdateResult like = mongoTemplate.upsert(
+                new Query(Criteria.where("movieId").is(movieId).and("userId").is(userId)),
+                new Update().setOnInsert("createdAt", Instant.now()),
+                MovieLike.class
+        );
+        if (like.getUpsertedId() != null) {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(movieId)),
+                    new Update().inc("statistics.likes", 1),
+                    Movie.class
+            );
+            trendingIndex.record(movieId, TrendingIndex.LIKE_WEIGHT);
+            interactionOutbox.record(InteractionType.LIKE, userId, movieId, null);
+            genreAffinityIndex.recordLike(userId, movieId, true);
         }
-        
-        userRepository.save(user);
-        movieRepository.save(movie);
+        recommendationCache.invalidate(userId);
     }
 
     /**
      * Toggles the "Watch Later" status of a movie for a specific user.
+     * <p>
+     * Deletes the user's {@link WatchLaterEntry} for the movie or, if there was none, upserts one.
+     * Both are single writes on the unique (userId, movieId) index; the user document is not touched.
+     * </p>
      *
      * @param userId  The ID of the user.
      * @param movieId The ID of the movie.
      */
-    @Transactional
     public void toggleWatchLater(String userId, String movieId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (watchLaterRepository.deleteByUserIdAndMovieId(userId, movieId) > 0) {
+            interactionOutbox.record(InteractionType.WATCH_LATER_REMOVE, userId, movieId, null);
+            return;
+        }
 
-        if (user.getWatchLaterMovieIds().contains(movieId)) {
-            user.getWatchLaterMovieIds().remove(movieId);
-        } else {
-            user.getWatchLaterMovieIds().add(movieId);
+        requireMovie(movieId);
+        UpdateResult entry = mongoTemplate.upsert(
+                new Query(Criteria.where("userId").is(userId).and("movieId").is(movieId)),
+                new Update().setOnInsert("addedAt", Instant.now()),
+                WatchLaterEntry.class
+        );
+        if (entry.getUpsertedId() != null) {
+            interactionOutbox.record(InteractionType.WATCH_LATER_ADD, userId, movieId, null);
+        }
+    }
+
+    /**
+     * Retrieves one page of the user's favorites, most recently added first.
+     * <p>
+     * The page of IDs comes from the (userId, createdAt) index and is hydrated by the
+     * {@link MovieCardHydrator}. Movies deleted since they were added are skipped.
+     * </p>
+     *
+     * @param userId The ID of the user.
+     * @param page   The page number (0-based).
+     * @param size   The page size.
+     * @return A page of movie cards.
+     */
+    public Page<MovieCard> getFavorites(String userId, int page, int size) {
+        Page<MovieLike> likes = movieLikeRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(page, size));
+        return movieCardHydrator.hydrate(likes.map(MovieLike::getMovieId));
+    }
+
+    /**
+     * Retrieves one page of the user's "Watch Later" list, most recently added first.
+     *
+     * @param userId The ID of the user.
+     * @param page   The page number (0-based).
+     * @param size   The page size.
+     * @return A page of movie cards.
+     */
+    public Page<MovieCard> getWatchLater(String userId, int page, int size) {
+        Page<WatchLaterEntry> entries = watchLaterRepository.findByUserIdOrderByAddedAtDesc(userId, PageRequest.of(page, size));
+        return movieCardHydrator.hydrate(entries.map(WatchLaterEntry::getMovieId));
+    }
+
+    /**
+     * Tells which of the given movies are in the user's favorites and "Watch Later" list.
+     *
+     * @param userId   The ID of the user.
+     * @param movieIds The movies to check.
+     * @return The subsets of {@code movieIds} on each list.
+     */
+    public ListMembership getListMembership(String userId, Collection<String> movieIds) {
+        if (movieIds.isEmpty()) {
+            return new ListMembership(Set.of(), Set.of());
+        }
+        Set<String> favorites = movieLikeRepository.findByUserIdAndMovieIdIn(userId, movieIds).stream()
+                .map(MovieLike::getMovieId)
+                .collect(Collectors.toSet());
+        Set<String> watchLater = watchLaterRepository.findByUserIdAndMovieIdIn(userId, movieIds).stream()
+                .map(WatchLaterEntry::getMovieId)
+                .collect(Collectors.toSet());
+        return new ListMembership(favorites, watchLater);
+    }
+
+    // Helper to reject list additions for movies that do not exist
+    private void requireMovie(String movieId) {
+        if (!mongoTemplate.exists(new Query(Criteria.where("_id").is(movieId)), Movie.class)) {
+            throw new RuntimeException("Movie not found");
         }
-        userRepository.save(user);
     }
 
     /**
      * Updates the watch progress for a user on a specific movie.
      * <p>
      * This method records the current timestamp and calculates if the movie
-     * should be marked as "completed" (e.g., if > 90% watched).
+     * should be marked as "completed" (e.g., if > 90% watched). The heartbeat is
+     * buffered by {@link WatchProgressBuffer} and persisted in the next batch, and counts towards
+     * the user's {@link GenreAffinityIndex}. Finishing a movie invalidates the user's cached
+     * recommendations.
      * </p>
      *
      * @param userId        The ID of the user.
@@ -153,38 +249,107 @@ public class UserService {
      * @param totalDuration The total duration of the movie in seconds.
      */
     public void updateWatchProgress(String userId, String movieId, Double seconds, Double totalDuration) {
-        WatchProgress progress = watchProgressRepository.findByUserIdAndMovieId(userId, movieId)
-                .orElse(WatchProgress.builder()
-                        .userId(userId)
-                        .movieId(movieId)
-                        .build());
-
-        progress.setTimestampSeconds(seconds);
-        progress.setTotalDurationSeconds(totalDuration);
-        progress.setLastWatchedAt(Instant.now());
+        WatchProgress progress = WatchProgress.builder()
+                .userId(userId)
+                .movieId(movieId)
+                .timestampSeconds(seconds)
+                .totalDurationSeconds(totalDuration)
+                .lastWatchedAt(Instant.now())
+                .build();
 
         // Mark completed if watched > 90%
         if (totalDuration > 0) {
             double percentage = (seconds / totalDuration) * 100;
             progress.setCompleted(percentage > 90);
+            genreAffinityIndex.recordProgress(userId, movieId, seconds / totalDuration);
+        }
+
+        // Finishing a movie changes what to recommend; later heartbeats of a finished movie do not
+        WatchProgress previous = watchProgressBuffer.get(userId, movieId);
+        watchProgressBuffer.record(progress);
+        if (progress.isCompleted() && !wasCompleted(previous, userId, movieId)) {
+            interactionOutbox.record(InteractionType.COMPLETE, userId, movieId, null);
+            recommendationCache.invalidate(userId);
         }
+    }
 
-        watchProgressRepository.save(progress);
+    // Helper to tell whether a title was already finished: the buffered heartbeat if there is one,
+    // otherwise the stored progress, since flushed heartbeats are no longer in the buffer
+    private boolean wasCompleted(WatchProgress buffered, String userId, String movieId) {
+        if (buffered != null) return buffered.isCompleted();
+        return mongoTemplate.exists(new Query(Criteria.where("userId").is(userId)
+                .and("movieId").is(movieId)
+                .and("completed").is(true)), WatchProgress.class);
     }
 
     /**
-     * Retrieves the watch history for a user.
+     * Retrieves the "Continue Watching" feed for a user.
+     * <p>
+     * Completed titles are excluded and the feed is capped at {@code limit} rows. The order comes
+     * from the user's {@link ContinueWatchingIndex} set when it is long enough or marked complete,
+     * otherwise from a bounded MongoDB query that also repopulates the set. Buffered heartbeats are applied on top,
+     * and the cards come from the {@link MovieCardHydrator}. Deleted movies are skipped.
+     * </p>
      *
      * @param userId The ID of the user.
-     * @return A list of WatchProgress records, sorted by last watched time.
+     * @param limit  The maximum number of rows (capped at {@value ContinueWatchingIndex#CAPACITY}).
+     * @return The feed, most recently watched first.
      */
-    public List<WatchProgress> getContinueWatching(String userId) {
-        return watchProgressRepository.findByUserIdOrderByLastWatchedAtDesc(userId);
+    public List<ContinueWatchingItem> getContinueWatching(String userId, int limit) {
+        int size = Math.max(1, Math.min(limit, ContinueWatchingIndex.CAPACITY));
+
+        ContinueWatchingIndex.Snapshot indexed = continueWatchingIndex.recent(userId, size);
+        List<WatchProgress> rows;
+        if (indexed != null && indexed.covers(size)) {
+            List<String> movieIds = indexed.entries().stream().map(ContinueWatchingIndex.Entry::movieId).toList();
+            rows = movieIds.isEmpty() ? List.of() : watchProgressRepository.findByUserIdAndMovieIdIn(userId, movieIds);
+        } else {
+            rows = watchProgressRepository.findByUserIdAndCompletedFalseOrderByLastWatchedAtDesc(
+                    userId, PageRequest.of(0, ContinueWatchingIndex.CAPACITY));
+            if (indexed != null) {
+                continueWatchingIndex.replace(userId, rows);
+            }
+        }
+
+        Map<String, WatchProgress> byMovie = new HashMap<>();
+        for (WatchProgress progress : rows) {
+            byMovie.put(progress.getMovieId(), progress);
+        }
+        for (WatchProgress progress : watchProgressBuffer.getAll(userId)) {
+            byMovie.put(progress.getMovieId(), progress);
+        }
+        List<WatchProgress> feed = byMovie.values().stream()
+                .filter(progress -> !progress.isCompleted())
+                .sorted(Comparator.comparing(WatchProgress::getLastWatchedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(size)
+                .toList();
+        if (feed.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, MovieCard> movies = movieCardHydrator.lookup(feed.stream().map(WatchProgress::getMovieId).toList());
+
+        List<ContinueWatchingItem> items = new ArrayList<>(feed.size());
+        for (WatchProgress progress : feed) {
+            MovieCard movie = movies.get(progress.getMovieId());
+            if (movie == null) continue;
+            items.add(new ContinueWatchingItem(
+                    progress.getMovieId(),
+                    progress.getTimestampSeconds(),
+                    progress.getTotalDurationSeconds(),
+                    progress.getLastWatchedAt(),
+                    movie
+            ));
+        }
+        return items;
     }
+
     /**
      * Retrieves the specific watch progress for a user and a movie.
      * <p>
-     * Used to resume playback from the last saved position.
+     * Used to resume playback from the last saved position. A heartbeat that is
+     * still buffered takes precedence over the stored document.
      * </p>
      *
      * @param userId  The ID of the user.
@@ -192,6 +357,10 @@ public class UserService {
      * @return An Optional containing the WatchProgress if found.
      */
     public Optional<WatchProgress> getWatchProgress(String userId, String movieId) {
+        WatchProgress buffered = watchProgressBuffer.get(userId, movieId);
+        if (buffered != null) {
+            return Optional.of(buffered);
+        }
         return watchProgressRepository.findByUserIdAndMovieId(userId, movieId);
     }
     // --- BASIC GETTERS ---
@@ -206,4 +375,27 @@ public class UserService {
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    /**
+     * Changes the role of a user and evicts the cached identity so the change applies immediately.
+     *
+     * @param userId The ID of the user.
+     * @param role   The new role.
+     * @return The updated user, or empty if no such user exists.
+     */
+    public Optional<User> updateRole(String userId, UserRole role) {
+        User updated = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(userId)),
+                new Update().set("role", role),
+                FindAndModifyOptions.options().returnNew(true),
+                User.class
+        );
+        userIdentityService.evict(userId);
+        if (updated != null) {
+            // Users matched by email are cached under their Firebase UID
+            if (updated.getFirebaseUid() != null) userIdentityService.evict(updated.getFirebaseUid());
+            log.info("Role of user {} changed to {}", userId, role);
+        }
+        return Optional.ofNullable(updated);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.anand.backend.service;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD variant of {@link FactorScoring#scores}, using the incubating Vector API.
+ * <p>
+ * Movies are processed one vector of lanes at a time: the accumulator for that block stays in a
+ * register while every component's factors are fused-multiply-added into it, so each score is
+ * written once. The tail that does not fill a vector is finished with scalar code.
+ * </p>
+ */
+final class VectorFactorScoring {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private VectorFactorScoring() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    static void scores(float[] user, float[] factors, int movies, float[] out) {
+        int components = user.length;
+        FloatVector[] weights = new FloatVector[components];
+        for (int c = 0; c < components; c++) {
+            weights[c] = FloatVector.broadcast(SPECIES, user[c]);
+        }
+
+        int bound = SPECIES.loopBound(movies);
+        int j = 0;
+        for (; j < bound; j += SPECIES.length()) {
+            FloatVector acc = FloatVector.zero(SPECIES);
+            for (int c = 0; c < components; c++) {
+                acc = FloatVector.fromArray(SPECIES, factors, c * movies + j).fma(weights[c], acc);
+            }
+            acc.intoArray(out, j);
+        }
+        for (; j < movies; j++) {
+            float sum = 0f;
+            for (int c = 0; c < components; c++) {
+                sum += user[c] * factors[c * movies + j];
+            }
+            out[j] = sum;
+        }
+    }
+}
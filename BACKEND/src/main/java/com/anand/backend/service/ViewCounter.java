@@ -0,0 +1,170 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind aggregation of movie view counts.
+ * <p>
+ * Views are counted in memory with one {@link LongAdder} per movie, so concurrent viewers of the
+ * same title do not contend on a single lock or document. A scheduled flush writes the increments
+ * accumulated since the last flush as one unordered bulk of {@code $inc} updates; {@code $inc}
+ * is commutative, so several backend instances can flush into the same documents safely.
+ * </p>
+ * <p>
+ * Adders are never reset. Each counter remembers how much of its running total has been
+ * persisted, and a flush writes the difference. An increment that races with a flush is simply
+ * picked up by the next one, and a failed bulk write leaves the delta in place for a retry.
+ * Pending counts are flushed once more when the application shuts down.
+ * </p>
+ * <p>
+ * The counter set follows the catalog through {@link CatalogIndex}, which lets it ignore views
+ * for unknown IDs without touching MongoDB. A catalog snapshot can predate titles uploaded while
+ * it was read, so a rebuild only drops a counter that two consecutive snapshots missed and that
+ * has nothing left to flush; deletions on this instance drop it right away.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViewCounter implements CatalogIndex {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // IDs with a counter that the last catalog snapshot did not contain; guarded by this
+    private Set<String> missing = Set.of();
+
+    private static final class Counter {
+        private final LongAdder total = new LongAdder();
+        // Written only by flush(), which is synchronized
+        private volatile long flushed;
+
+        long unflushed() {
+            return total.sum() - flushed;
+        }
+    }
+
+    /**
+     * Counts one view of a movie.
+     *
+     * @param movieId The ID of the viewed movie.
+     * @return true if the view was counted, false if the movie is not in the catalog.
+     */
+    public boolean record(String movieId) {
+        Counter counter = counters.get(movieId);
+        if (counter == null) {
+            // Until the first catalog load, accept any ID; rebuild() drops the unknown ones
+            if (loaded) return false;
+            counter = counters.computeIfAbsent(movieId, id -> new Counter());
+        }
+        counter.total.increment();
+        return true;
+    }
+
+    /**
+     * Returns the views counted on this instance that are not yet in MongoDB.
+     *
+     * @param movieId The ID of the movie.
+     * @return The number of pending views; add it to the persisted count for a near-real-time total.
+     */
+    public long unflushedViews(String movieId) {
+        Counter counter = counters.get(movieId);
+        return counter == null ? 0 : counter.unflushed();
+    }
+
+    /**
+     * Persists all pending increments with a single bulk write.
+     */
+    @Scheduled(
+            initialDelayString = "${movie.views.flush-interval-ms:5000}",
+            fixedDelayString = "${movie.views.flush-interval-ms:5000}"
+    )
+    public synchronized void flush() {
+        List<Map.Entry<Counter, Long>> written = new ArrayList<>();
+        BulkOperations bulk = null;
+
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long total = counter.total.sum();
+            long delta = total - counter.flushed;
+            if (delta <= 0) continue;
+
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+            }
+            bulk.updateOne(
+                    new Query(Criteria.where("_id").is(entry.getKey())),
+                    new Update().inc("statistics.views", delta)
+            );
+            written.add(Map.entry(counter, total));
+        }
+        if (bulk == null) return;
+
+        try {
+            bulk.execute();
+        } catch (Exception e) {
+            log.warn("View count flush failed, {} movies will be retried: {}", written.size(), e.getMessage());
+            return;
+        }
+        for (Map.Entry<Counter, Long> entry : written) {
+            entry.getKey().flushed = entry.getValue();
+        }
+        log.debug("Flushed view counts for {} movies", written.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Movie> movies) {
+        Set<String> catalogIds = new HashSet<>(movies.size() * 2);
+        for (Movie movie : movies) {
+            catalogIds.add(movie.getMovieId());
+            counters.computeIfAbsent(movie.getMovieId(), id -> new Counter());
+        }
+        Set<String> stillMissing = new HashSet<>();
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            String movieId = entry.getKey();
+            if (catalogIds.contains(movieId)) continue;
+            if (missing.contains(movieId) && entry.getValue().unflushed() == 0) {
+                counters.remove(movieId, entry.getValue());
+            } else {
+                stillMissing.add(movieId);
+            }
+        }
+        missing = stillMissing;
+        loaded = true;
+    }
+
+    @Override
+    public void upsert(Movie movie) {
+        counters.computeIfAbsent(movie.getMovieId(), id -> new Counter());
+    }
+
+    @Override
+    public void remove(String movieId) {
+        counters.remove(movieId);
+    }
+}
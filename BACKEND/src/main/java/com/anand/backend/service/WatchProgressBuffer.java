@@ -0,0 +1,174 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.WatchProgress;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for player heartbeats.
+ * <p>
+ * Heartbeats are coalesced per (user, movie) in memory, keeping only the most recent one, and
+ * written on a fixed cadence as a single unordered bulk of upserts. A viewer who heartbeats every
+ * few seconds therefore costs one small write per flush interval instead of a read and a full
+ * document save per heartbeat.
+ * </p>
+ * <p>
+ * Buffered entries stay visible to reads until MongoDB has acknowledged them: an entry is only
+ * dropped after a successful flush, and only if no newer heartbeat replaced it in the meantime.
+ * Failed flushes keep everything for the next attempt, and pending entries are flushed once more
+ * on shutdown. Reads on other instances see the persisted value, which lags by at most one
+ * flush interval. Each flushed batch is also applied to the {@link ContinueWatchingIndex} and
+ * recorded in the {@link InteractionOutbox}.
+ * </p>
+ * <p>
+ * Upserts only match a stored document whose {@code lastWatchedAt} is not newer than the heartbeat,
+ * so a late flush from another instance never overwrites newer progress. When the stored document
+ * is newer, the upsert falls through to an insert that the unique (userId, movieId) index rejects;
+ * that duplicate-key error means "older heartbeat" and the entry is dropped without a retry.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WatchProgressBuffer {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ContinueWatchingIndex continueWatchingIndex;
+    private final InteractionOutbox interactionOutbox;
+
+    // userId -> (movieId -> latest heartbeat); inner maps are immutable and replaced atomically
+    private final Map<String, Map<String, WatchProgress>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Buffers a heartbeat, replacing any older pending heartbeat for the same user and movie.
+     *
+     * @param progress The new progress; {@code lastWatchedAt} decides which heartbeat is newer.
+     */
+    public void record(WatchProgress progress) {
+        pending.compute(progress.getUserId(), (userId, movies) -> {
+            Map<String, WatchProgress> next = movies == null ? new HashMap<>() : new HashMap<>(movies);
+            next.merge(progress.getMovieId(), progress, WatchProgressBuffer::newer);
+            return Map.copyOf(next);
+        });
+    }
+
+    /**
+     * Returns the pending heartbeat for a user and movie, if one has not been flushed yet.
+     *
+     * @param userId  The ID of the user.
+     * @param movieId The ID of the movie.
+     * @return The buffered progress, or null.
+     */
+    public WatchProgress get(String userId, String movieId) {
+        Map<String, WatchProgress> movies = pending.get(userId);
+        return movies == null ? null : movies.get(movieId);
+    }
+
+    /**
+     * Returns all pending heartbeats of a user.
+     *
+     * @param userId The ID of the user.
+     * @return The buffered progress entries, possibly empty.
+     */
+    public Collection<WatchProgress> getAll(String userId) {
+        return pending.getOrDefault(userId, Map.of()).values();
+    }
+
+    /**
+     * Writes all pending heartbeats with one unordered bulk of upserts.
+     */
+    @Scheduled(
+            initialDelayString = "${watch.progress.flush-interval-ms:10000}",
+            fixedDelayString = "${watch.progress.flush-interval-ms:10000}"
+    )
+    public synchronized void flush() {
+        List<WatchProgress> batch = new ArrayList<>();
+        pending.values().forEach(movies -> batch.addAll(movies.values()));
+        if (batch.isEmpty()) return;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WatchProgress.class);
+        for (WatchProgress progress : batch) {
+            Criteria match = Criteria.where("userId").is(progress.getUserId())
+                    .and("movieId").is(progress.getMovieId());
+            if (progress.getLastWatchedAt() != null) {
+                // $not also matches documents without lastWatchedAt; equal times keep retries idempotent
+                match.and("lastWatchedAt").not().gt(progress.getLastWatchedAt());
+            }
+            bulk.upsert(
+                    new Query(match),
+                    new Update()
+                            .set("timestampSeconds", progress.getTimestampSeconds())
+                            .set("totalDurationSeconds", progress.getTotalDurationSeconds())
+                            .set("completed", progress.isCompleted())
+                            .set("lastWatchedAt", progress.getLastWatchedAt())
+            );
+        }
+
+        List<WatchProgress> written = batch;
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                log.warn("Watch progress flush failed, {} entries will be retried: {}", batch.size(), e.getMessage());
+                return;
+            }
+            // Only stale heartbeats were rejected; the rest of the batch is written
+            Set<Integer> stale = new HashSet<>();
+            e.getErrors().forEach(error -> stale.add(error.getIndex()));
+            written = new ArrayList<>(batch.size() - stale.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (!stale.contains(i)) written.add(batch.get(i));
+            }
+            log.debug("Skipped {} watch progress entries older than the stored progress", stale.size());
+        } catch (Exception e) {
+            log.warn("Watch progress flush failed, {} entries will be retried: {}", batch.size(), e.getMessage());
+            return;
+        }
+        continueWatchingIndex.apply(written);
+        interactionOutbox.recordProgress(written);
+
+        for (WatchProgress progress : batch) {
+            pending.computeIfPresent(progress.getUserId(), (userId, movies) -> {
+                // Keep the entry if a newer heartbeat arrived while we were writing
+                if (movies.get(progress.getMovieId()) != progress) return movies;
+                Map<String, WatchProgress> next = new HashMap<>(movies);
+                next.remove(progress.getMovieId());
+                return next.isEmpty() ? null : Map.copyOf(next);
+            });
+        }
+        log.debug("Flushed {} watch progress entries", batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static WatchProgress newer(WatchProgress current, WatchProgress candidate) {
+        Instant currentAt = current.getLastWatchedAt();
+        Instant candidateAt = candidate.getLastWatchedAt();
+        if (currentAt == null || candidateAt == null) return candidate;
+        return candidateAt.isBefore(currentAt) ? current : candidate;
+    }
+}
@@ -0,0 +1,80 @@
+package com.anand.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactCacheSerializerTest {
+
+    private static final int THRESHOLD = 64;
+    // A mutable map, since Jackson only embeds type ids for non-final classes
+    private static final Map<String, Object> LARGE = new HashMap<>(Map.of(
+            "title", "a".repeat(2000),
+            "genres", new ArrayList<>(List.of("Drama", "Thriller"))));
+
+    @Test
+    void roundTripsEveryCodecCompressedAndUncompressed() {
+        for (CacheValueCodec codec : CacheValueCodec.values()) {
+            CompactCacheSerializer serializer = new CompactCacheSerializer(codec, THRESHOLD);
+            for (Object value : List.of("small", LARGE)) {
+                assertThat(serializer.deserialize(serializer.serialize(value))).as(codec.name()).isEqualTo(value);
+            }
+        }
+    }
+
+    @Test
+    void compressesLargeValuesAndReadsJsonWrittenWithoutFrame() {
+        CompactCacheSerializer smile = new CompactCacheSerializer(CacheValueCodec.SMILE, THRESHOLD);
+        byte[] framed = smile.serialize(LARGE);
+        assertThat(framed[0]).isEqualTo(CompactCacheSerializer.MAGIC);
+        assertThat(framed[3] & 0x01).isEqualTo(1);
+
+        byte[] legacy = new CompactCacheSerializer(CacheValueCodec.JSON, THRESHOLD).serialize(LARGE);
+        assertThat(smile.deserialize(legacy)).isEqualTo(LARGE);
+    }
+
+    @Test
+    void skipsFramesFromNewerFormatsOrUnknownCodecs() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(CacheValueCodec.CBOR, THRESHOLD);
+        byte[] newer = serializer.serialize("value");
+        newer[1] = CompactCacheSerializer.FORMAT_VERSION + 1;
+        byte[] unknownCodec = serializer.serialize("value");
+        unknownCodec[2] = 99;
+
+        assertThat(serializer.deserialize(newer)).isNull();
+        assertThat(serializer.deserialize(unknownCodec)).isNull();
+    }
+
+    @Test
+    void rejectsCorruptCompressedFrames() {
+        CompactCacheSerializer serializer = new CompactCacheSerializer(CacheValueCodec.SMILE, THRESHOLD);
+        byte[] framed = serializer.serialize(LARGE);
+        int rawLength = ByteBuffer.wrap(framed, 4, Integer.BYTES).getInt();
+
+        assertCorrupt(serializer, withRawLength(framed, -1));
+        assertCorrupt(serializer, withRawLength(framed, CompactCacheSerializer.MAX_RAW_LENGTH + 1));
+        assertCorrupt(serializer, withRawLength(framed, rawLength + 1));
+        assertCorrupt(serializer, withRawLength(framed, rawLength - 1));
+        assertCorrupt(serializer, Arrays.copyOf(framed, 6));
+        assertCorrupt(serializer, Arrays.copyOf(framed, framed.length / 2));
+    }
+
+    private static byte[] withRawLength(byte[] framed, int rawLength) {
+        byte[] copy = framed.clone();
+        ByteBuffer.wrap(copy, 4, Integer.BYTES).putInt(rawLength);
+        return copy;
+    }
+
+    private static void assertCorrupt(CompactCacheSerializer serializer, byte[] frame) {
+        assertThatThrownBy(() -> serializer.deserialize(frame)).isInstanceOf(SerializationException.class);
+    }
+}
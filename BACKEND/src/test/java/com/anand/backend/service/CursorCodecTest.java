@@ -0,0 +1,66 @@
+package com.anand.backend.service;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    @Test
+    void roundTripsCreatedAtKeys() {
+        CursorCodec.CreatedAtKey key = new CursorCodec.CreatedAtKey(Instant.ofEpochMilli(1_700_000_000_123L), "movie:42");
+
+        assertThat(CursorCodec.decodeCreatedAt(CursorCodec.encode(key))).isEqualTo(key);
+    }
+
+    @Test
+    void roundTripsScoreKeysExactly() {
+        for (double score : new double[]{0.1 + 0.2, -3.5, 0.0, Double.MIN_VALUE, 1e300}) {
+            CursorCodec.ScoreKey key = new CursorCodec.ScoreKey(score, "m1");
+
+            assertThat(CursorCodec.decodeScore(CursorCodec.encode(key))).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void producesUrlSafeCursors() {
+        String cursor = CursorCodec.encode(new CursorCodec.CreatedAtKey(Instant.now(), "a/b+c?"));
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsCursorsOfTheOtherShape() {
+        String createdAt = CursorCodec.encode(new CursorCodec.CreatedAtKey(Instant.now(), "m1"));
+        String score = CursorCodec.encode(new CursorCodec.ScoreKey(1.0, "m1"));
+
+        assertInvalid(() -> CursorCodec.decodeScore(createdAt));
+        assertInvalid(() -> CursorCodec.decodeCreatedAt(score));
+    }
+
+    @Test
+    void rejectsMalformedOrTamperedCursors() {
+        assertInvalid(() -> CursorCodec.decodeCreatedAt("not base64!"));
+        assertInvalid(() -> CursorCodec.decodeCreatedAt(""));
+        assertInvalid(() -> CursorCodec.decodeCreatedAt(wrap("c:123")));
+        assertInvalid(() -> CursorCodec.decodeCreatedAt(wrap("c:123:")));
+        assertInvalid(() -> CursorCodec.decodeCreatedAt(wrap("c:yesterday:m1")));
+        assertInvalid(() -> CursorCodec.decodeScore(wrap("s:zz:m1")));
+        assertInvalid(() -> CursorCodec.decodeScore(wrap("s:1ffffffffffffffff:m1")));
+        assertInvalid(() -> CursorCodec.decodeCreatedAt(wrap("x:123:m1")));
+    }
+
+    private static String wrap(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(ThrowingCallable decode) {
+        assertThatThrownBy(decode).isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,116 @@
+package com.anand.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FactorModelTest {
+
+    @Test
+    void parsesHeaderIdsAndFactors() {
+        FactorModel model = FactorModel.parse(export(42, 2,
+                List.of("u1", "u2"), new float[][]{{1, 0}, {0, 1}},
+                List.of("m1", "m2", "m3"), new float[][]{{0.1f, 0.2f}, {0.3f, 0.4f}, {0.5f, 0.6f}}));
+
+        assertThat(model.version()).isEqualTo(42);
+        assertThat(model.components()).isEqualTo(2);
+        assertThat(model.users()).isEqualTo(2);
+        assertThat(model.movies()).isEqualTo(3);
+        assertThat(model.hasUser("u2")).isTrue();
+        assertThat(model.hasUser("u3")).isFalse();
+        assertThat(model.movieVector("m2")).containsExactly(0.3f, 0.4f);
+        assertThat(model.movieVector("m4")).isNull();
+    }
+
+    @Test
+    void recommendsTopKByDotProduct() {
+        Random random = new Random(3);
+        int components = 8;
+        List<String> movieIds = new ArrayList<>();
+        float[][] movies = new float[500][components];
+        for (int j = 0; j < movies.length; j++) {
+            movieIds.add("m" + j);
+            for (int c = 0; c < components; c++) movies[j][c] = random.nextFloat();
+        }
+        float[] user = new float[components];
+        for (int c = 0; c < components; c++) user[c] = random.nextFloat();
+        FactorModel model = FactorModel.parse(export(1, components, List.of("u1"), new float[][]{user}, movieIds, movies));
+
+        List<String> expected = movieIds.stream()
+                .filter(id -> !id.equals("m0"))
+                .sorted(Comparator.comparingDouble((String id) -> dot(user, movies[Integer.parseInt(id.substring(1))])).reversed())
+                .limit(10)
+                .toList();
+
+        assertThat(model.recommend("u1", 10, Set.of("m0"))).containsExactlyElementsOf(expected);
+        assertThat(model.recommend("u1", 1000, Set.of("m0"))).hasSize(499);
+        assertThat(model.recommend("u2", 10, Set.of())).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] data = export(1, 2, List.of("u1"), new float[][]{{1, 2}}, List.of("m1"), new float[][]{{3, 4}});
+
+        for (int length : new int[]{0, 10, 20, data.length - 1}) {
+            assertThatThrownBy(() -> FactorModel.parse(Arrays.copyOf(data, length)))
+                    .as("length %d", length)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> FactorModel.parse(Arrays.copyOf(data, data.length + 4)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsHeaderSizesTheBufferCannotHold() {
+        byte[] overflowing = export(1, 2, List.of("u1"), new float[][]{{1, 2}}, List.of("m1"), new float[][]{{3, 4}});
+        ByteBuffer.wrap(overflowing).order(ByteOrder.LITTLE_ENDIAN).putInt(8, Integer.MAX_VALUE);
+        byte[] tooManyIds = export(1, 2, List.of(), new float[0][], List.of(), new float[0][]);
+        ByteBuffer.wrap(tooManyIds).order(ByteOrder.LITTLE_ENDIAN).putInt(12, Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> FactorModel.parse(overflowing)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FactorModel.parse(tooManyIds)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Writes the layout of GET /model/factors: header, IDs, then row-major user and movie factors
+    private static byte[] export(long version, int components, List<String> userIds, float[][] users,
+                                 List<String> movieIds, float[][] movies) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(version).putInt(components).putInt(userIds.size()).putInt(movieIds.size());
+        out.writeBytes(header.array());
+        for (String id : userIds) writeId(out, id);
+        for (String id : movieIds) writeId(out, id);
+        for (float[][] matrix : List.of(users, movies)) {
+            ByteBuffer values = ByteBuffer.allocate(matrix.length * components * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (float[] row : matrix) {
+                for (float value : row) values.putFloat(value);
+            }
+            out.writeBytes(values.array());
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeId(ByteArrayOutputStream out, String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        out.writeBytes(ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort((short) bytes.length).array());
+        out.writeBytes(bytes);
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
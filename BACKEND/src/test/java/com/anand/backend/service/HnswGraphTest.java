@@ -0,0 +1,104 @@
+package com.anand.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswGraphTest {
+
+    private static final int DIMS = 32;
+    private static final int SIZE = 2000;
+    private static final int K = 10;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void matchesBruteForceTopK() {
+        HnswGraph graph = new HnswGraph(DIMS, 16, 200, 42);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            float[] vector = randomUnitVector();
+            // Some shorter vectors, like the similar-title embeddings of genre-only movies
+            if (i % 4 == 0) scale(vector, (float) Math.sqrt(0.4));
+            vectors.add(vector);
+            graph.upsert("v" + i, vector);
+        }
+
+        int queries = 50;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector();
+            Set<String> expected = bruteForceTopK(vectors, query);
+            for (HnswGraph.Hit hit : graph.search(query, K, 64, Set.of())) {
+                if (expected.contains(hit.key())) found++;
+            }
+        }
+        assertThat((double) found / (queries * K)).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void ranksHitsByInnerProduct() {
+        HnswGraph graph = new HnswGraph(DIMS, 16, 200, 42);
+        for (int i = 0; i < 200; i++) graph.upsert("v" + i, randomUnitVector());
+
+        List<HnswGraph.Hit> hits = graph.search(randomUnitVector(), K, 64, Set.of());
+
+        assertThat(hits).hasSize(K);
+        assertThat(hits).isSortedAccordingTo(Comparator.comparingDouble(HnswGraph.Hit::similarity).reversed());
+    }
+
+    @Test
+    void neverReturnsRemovedOrExcludedKeys() {
+        HnswGraph graph = new HnswGraph(DIMS, 16, 200, 42);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            float[] vector = randomUnitVector();
+            vectors.add(vector);
+            graph.upsert("v" + i, vector);
+        }
+        float[] query = vectors.get(0);
+        graph.remove("v1");
+
+        List<String> keys = graph.search(query, K, 64, Set.of("v0")).stream().map(HnswGraph.Hit::key).toList();
+
+        assertThat(keys).doesNotContain("v0", "v1").hasSize(K);
+        assertThat(graph.vector("v1")).isNull();
+    }
+
+    private static Set<String> bruteForceTopK(List<float[]> vectors, float[] query) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < vectors.size(); i++) order.add(i);
+        order.sort(Comparator.comparingDouble((Integer i) -> dot(vectors.get(i), query)).reversed());
+        Set<String> top = new HashSet<>();
+        for (int i = 0; i < K; i++) top.add("v" + order.get(i));
+        return top;
+    }
+
+    private float[] randomUnitVector() {
+        float[] vector = new float[DIMS];
+        double norm = 0;
+        for (int i = 0; i < DIMS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMS; i++) vector[i] /= (float) Math.sqrt(norm);
+        return vector;
+    }
+
+    private static void scale(float[] vector, float factor) {
+        for (int i = 0; i < vector.length; i++) vector[i] *= factor;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
@@ -0,0 +1,110 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.InteractionEvent;
+import com.anand.backend.enums.InteractionType;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InteractionOutboxTest {
+
+    private final AtomicLong counter = new AtomicLong();
+    private final List<List<String>> inserted = new ArrayList<>();
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private InteractionOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.findById(eq("interaction_events"), eq(Document.class), eq("interaction_event_sequence")))
+                .thenAnswer(inv -> counter.get() == 0 ? null : new Document("value", counter.get()));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("interaction_event_sequence")))
+                .thenAnswer(inv -> {
+                    Update update = inv.getArgument(1);
+                    long count = ((Number) update.getUpdateObject().get("$inc", Document.class).get("value")).longValue();
+                    return new Document("value", counter.addAndGet(count));
+                });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InteractionEvent.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenAnswer(inv -> {
+            List<InteractionEvent> batch = inv.getArgument(0);
+            inserted.add(batch.stream().map(event -> event.getSeq() + ":" + event.getMovieId()).toList());
+            return bulk;
+        });
+        outbox = new InteractionOutbox(mongoTemplate, new SimpleMeterRegistry(), 100, 60000);
+    }
+
+    @Test
+    void numbersEventsInQueueOrderAcrossFlushes() {
+        outbox.record(InteractionType.LIKE, "u1", "m1", null);
+        outbox.record(InteractionType.VIEW, "u1", "m2", null);
+        outbox.record(InteractionType.COMPLETE, "u2", "m3", null);
+        outbox.flush();
+        outbox.record(InteractionType.UNLIKE, "u1", "m1", null);
+        outbox.flush();
+
+        assertThat(inserted).containsExactly(List.of("1:m1", "2:m2", "3:m3"), List.of("4:m1"));
+    }
+
+    @Test
+    void retriesOnlyFailedInsertsUnderNewNumbers() {
+        when(bulk.execute())
+                .thenThrow(new BulkOperationException("duplicate", new MongoBulkWriteException(
+                        BulkWriteResult.unacknowledged(),
+                        List.of(new BulkWriteError(11000, "duplicate", new BsonDocument(), 1)),
+                        null, new ServerAddress(), Set.of())))
+                .thenReturn(BulkWriteResult.unacknowledged());
+
+        outbox.record(InteractionType.LIKE, "u1", "m1", null);
+        outbox.record(InteractionType.LIKE, "u1", "m2", null);
+        outbox.record(InteractionType.LIKE, "u1", "m3", null);
+        outbox.flush();
+        outbox.record(InteractionType.VIEW, "u2", "m4", null);
+        outbox.flush();
+
+        assertThat(inserted).containsExactly(
+                List.of("1:m1", "2:m2", "3:m3"),
+                List.of("4:m2", "5:m4"));
+        // The in-flight marker is cleared after the failed flush as well
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq("interaction_event_writers"));
+    }
+
+    @Test
+    void committedSeqStaysBelowBatchesStillBeingWritten() {
+        counter.set(10);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("interaction_event_writers")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new Document("pendingFrom", 7L), new Document("pendingFrom", 9L)));
+
+        assertThat(outbox.committedSeq()).isEqualTo(10);
+        assertThat(outbox.committedSeq()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,76 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieSearchIndexTest {
+
+    private final MovieSearchIndex index = new MovieSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(List.of(
+                movie("inception", "Inception", "A thief steals secrets through dream sharing", "Sci-Fi", "Thriller"),
+                movie("interstellar", "Interstellar", "Explorers travel through a wormhole", "Sci-Fi", "Drama"),
+                movie("amelie", "Amélie", "A shy waitress in Paris", "Romance", "Comedy"),
+                movie("heist", "The Heist", "A crew plans the perfect dream job", "Crime"),
+                movie("dreamgirls", "Dreamgirls", "A girl group rises to fame", "Drama", "Music"),
+                movie("dreamhouse", "Dream House", "A family moves into a new home", "Horror")));
+    }
+
+    @Test
+    void matchesTitlePrefixesAsYouType() {
+        assertThat(ids("incep")).containsExactly("inception");
+        assertThat(ids("inter")).containsExactly("interstellar");
+    }
+
+    @Test
+    void toleratesTyposAndDiacritics() {
+        assertThat(ids("intersteller")).startsWith("interstellar");
+        assertThat(ids("amelie")).containsExactly("amelie");
+        assertThat(ids("AMÉLIE")).containsExactly("amelie");
+    }
+
+    @Test
+    void ranksExactMatchesAboveLooserOnes() {
+        // Exact title term, then title prefix, then the term in descriptions
+        List<String> dream = ids("dream");
+        assertThat(dream).startsWith("dreamhouse", "dreamgirls");
+        assertThat(dream).containsExactlyInAnyOrder("dreamhouse", "dreamgirls", "heist", "inception");
+    }
+
+    @Test
+    void ranksDocumentsMatchingMoreTokensFirst() {
+        assertThat(ids("dream thief").get(0)).isEqualTo("inception");
+        assertThat(ids("heist crew").get(0)).isEqualTo("heist");
+    }
+
+    @Test
+    void followsUpsertsAndRemovals() {
+        index.upsert(movie("inception", "Inception Returns", "Sequel", "Sci-Fi"));
+        index.remove("interstellar");
+
+        assertThat(ids("returns")).containsExactly("inception");
+        assertThat(ids("thief")).isEmpty();
+        assertThat(ids("interstellar")).isEmpty();
+        assertThat(ids("   ")).isEmpty();
+    }
+
+    private List<String> ids(String query) {
+        return index.search(query).stream().map(MovieSearchIndex.Hit::movieId).toList();
+    }
+
+    private static Movie movie(String id, String title, String description, String... genres) {
+        return Movie.builder()
+                .movieId(id)
+                .movieTitle(title)
+                .movieDescription(description)
+                .genres(List.of(genres))
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingIndexTest {
+
+    private final TrendingIndex index = new TrendingIndex(1);
+
+    @Test
+    void unlikeTakesBackExactlyWhatTheLikeAdded() {
+        index.rebuild(List.of(movie("liked"), movie("viewed")));
+        Instant likedAt = Instant.now();
+        index.record("liked", TrendingIndex.LIKE_WEIGHT);
+        index.record("viewed", TrendingIndex.VIEW_WEIGHT);
+
+        index.unrecord("liked", TrendingIndex.LIKE_WEIGHT, likedAt);
+
+        assertThat(index.top(null, 2)).containsExactly("viewed", "liked");
+    }
+
+    @Test
+    void unlikeOfAnOldLikeRemovesOnlyItsDecayedWeight() {
+        index.rebuild(List.of(movie("liked"), movie("viewed")));
+        index.record("liked", TrendingIndex.LIKE_WEIGHT);
+        index.record("viewed", TrendingIndex.VIEW_WEIGHT);
+
+        // A like from a day ago has decayed to almost nothing with a one-hour half-life
+        index.unrecord("liked", TrendingIndex.LIKE_WEIGHT, Instant.now().minus(Duration.ofDays(1)));
+
+        assertThat(index.top(null, 2)).containsExactly("liked", "viewed");
+    }
+
+    @Test
+    void unlikeOfALikeCountedInTheSeedRemovesTheSeededWeight() {
+        Movie liked = movie("liked");
+        liked.setStatistics(Movie.Statistics.builder().likes(1).build());
+        index.rebuild(List.of(liked, movie("viewed")));
+        index.record("viewed", TrendingIndex.VIEW_WEIGHT);
+
+        // The seed counted this like at full weight although it is three days old
+        index.unrecord("liked", TrendingIndex.LIKE_WEIGHT, Instant.now().minus(Duration.ofDays(3)));
+
+        assertThat(index.top(null, 2)).containsExactly("viewed", "liked");
+    }
+
+    @Test
+    void unlikeWithoutTimestampLeavesTheScore() {
+        index.rebuild(List.of(movie("liked"), movie("viewed")));
+        index.record("liked", TrendingIndex.LIKE_WEIGHT);
+        index.record("viewed", TrendingIndex.VIEW_WEIGHT);
+
+        index.unrecord("liked", TrendingIndex.LIKE_WEIGHT, null);
+
+        assertThat(index.top(null, 2)).containsExactly("liked", "viewed");
+    }
+
+    private static Movie movie(String movieId) {
+        return Movie.builder().movieId(movieId).genres(List.of("Drama")).build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.User;
+import com.anand.backend.enums.UserRole;
+import com.anand.backend.repository.MovieLikeRepository;
+import com.anand.backend.repository.UserRepository;
+import com.anand.backend.repository.WatchLaterRepository;
+import com.anand.backend.repository.WatchProgressRepository;
+import com.anand.backend.security.UserIdentityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig(UserServiceTest.CachingConfig.class)
+class UserServiceTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({UserService.class, UserIdentityService.class})
+    static class CachingConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("userIdentity");
+        }
+    }
+
+    @MockitoBean UserRepository userRepository;
+    @MockitoBean WatchProgressRepository watchProgressRepository;
+    @MockitoBean MovieLikeRepository movieLikeRepository;
+    @MockitoBean WatchLaterRepository watchLaterRepository;
+    @MockitoBean MongoTemplate mongoTemplate;
+    @MockitoBean WatchProgressBuffer watchProgressBuffer;
+    @MockitoBean ContinueWatchingIndex continueWatchingIndex;
+    @MockitoBean MovieCardHydrator movieCardHydrator;
+    @MockitoBean TrendingIndex trendingIndex;
+    @MockitoBean RecommendationCache recommendationCache;
+    @MockitoBean InteractionOutbox interactionOutbox;
+    @MockitoBean GenreAffinityIndex genreAffinityIndex;
+
+    @Autowired UserService userService;
+    @Autowired UserIdentityService userIdentityService;
+
+    @Test
+    void roleChangeReachesUserMatchedByEmail() {
+        User stored = User.builder().id("user-1").email("ann@example.com").role(UserRole.USER).build();
+        when(userRepository.findIdentityById("firebase-1")).thenReturn(Optional.empty());
+        when(userRepository.findIdentityByEmail("ann@example.com")).thenReturn(Optional.of(stored));
+
+        assertThat(userIdentityService.resolve("firebase-1", "ann@example.com").role()).isEqualTo(UserRole.USER);
+        verify(userRepository).setFirebaseUid("user-1", "firebase-1");
+
+        User promoted = User.builder().id("user-1").email("ann@example.com").role(UserRole.ADMIN)
+                .firebaseUid("firebase-1").build();
+        when(userRepository.findIdentityByEmail("ann@example.com")).thenReturn(Optional.of(promoted));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(promoted);
+        userService.updateRole("user-1", UserRole.ADMIN);
+
+        assertThat(userIdentityService.resolve("firebase-1", "ann@example.com").role()).isEqualTo(UserRole.ADMIN);
+    }
+}
@@ -0,0 +1,58 @@
+package com.anand.backend.service;
+
+import com.anand.backend.entity.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ViewCounterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ViewCounter viewCounter = new ViewCounter(mongoTemplate);
+
+    @Test
+    void keepsTitlesUploadedAfterTheSnapshotAndTheirPendingViews() {
+        viewCounter.rebuild(List.of(movie("m1")));
+        viewCounter.upsert(movie("m2"));
+        assertThat(viewCounter.record("m2")).isTrue();
+
+        // A snapshot read before m2 was uploaded
+        viewCounter.rebuild(List.of(movie("m1")));
+
+        assertThat(viewCounter.unflushedViews("m2")).isEqualTo(1);
+        assertThat(viewCounter.record("m2")).isTrue();
+    }
+
+    @Test
+    void dropsTitlesMissingFromTwoSnapshotsOnceFlushed() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class))
+                .thenReturn(mock(BulkOperations.class));
+        assertThat(viewCounter.record("unknown")).isTrue();
+
+        viewCounter.rebuild(List.of(movie("m1")));
+        viewCounter.rebuild(List.of(movie("m1")));
+        assertThat(viewCounter.record("unknown")).isTrue();
+
+        viewCounter.flush();
+        viewCounter.rebuild(List.of(movie("m1")));
+        assertThat(viewCounter.record("unknown")).isFalse();
+    }
+
+    @Test
+    void dropsDeletedTitlesRightAway() {
+        viewCounter.rebuild(List.of(movie("m1")));
+        viewCounter.remove("m1");
+
+        assertThat(viewCounter.record("m1")).isFalse();
+    }
+
+    private static Movie movie(String movieId) {
+        return Movie.builder().movieId(movieId).build();
+    }
+}
@@ -9,6 +9,29 @@ const movieApi = {
     return res.data;
   },
 
+  // Cursor-paginated listings for infinite scroll
+  // Returns: { content, nextCursor, hasNext } - pass nextCursor back to get the next slice
+  scrollMovies: async ({ cursor, size = 20 } = {}) => {
+    const res = await axiosInstance.get(`/movies/scroll`, {
+      params: { cursor, size }
+    });
+    return res.data;
+  },
+
+  scrollSearch: async (title, { cursor, size = 20 } = {}) => {
+    const res = await axiosInstance.get(`/movies/search/scroll`, {
+      params: { title, cursor, size }
+    });
+    return res.data;
+  },
+
+  scrollByGenre: async (genre, { cursor, size = 20 } = {}) => {
+    const res = await axiosInstance.get(`/movies/filter/scroll`, {
+      params: { genre, cursor, size }
+    });
+    return res.data;
+  },
+
   // Get single movie by ID
   getMovieById: async (id) => {
     const res = await axiosInstance.get(`/movies/${id}`);
@@ -23,6 +46,14 @@ const movieApi = {
     return res.data;
   },
 
+  // Typeahead suggestions: [{ movieId, movieTitle }]
+  suggestTitles: async (q, limit = 8) => {
+    const res = await axiosInstance.get(`/movies/suggest`, {
+      params: { q, limit }
+    });
+    return res.data;
+  },
+
   // Filter movies by genre
   filterByGenre: async (genre, page = 0, size = 50) => {
     const res = await axiosInstance.get(`/movies/filter`, {
@@ -31,6 +62,15 @@ const movieApi = {
     return res.data;
   },
 
+  // Multi-facet filter: { genres: [], minYear, maxYear, minRating, sort: 'newest' | 'popular' }
+  // Returns: { content, totalItems, page, size, genreCounts, yearCounts }
+  filterByFacets: async ({ genres, minYear, maxYear, minRating, sort = 'newest' } = {}, page = 0, size = 20) => {
+    const res = await axiosInstance.get(`/movies/facets`, {
+      params: { genres: genres?.join(','), minYear, maxYear, minRating, sort, page, size }
+    });
+    return res.data;
+  },
+
   // Upload movie (admin)
   uploadMovie: async (formData) => {
     const res = await axiosInstance.post(`/movies/upload`, formData, {
@@ -72,6 +112,14 @@ const movieApi = {
     return res.data;
   },
 
+  // Whole home page in one request: featured, recommended, continueWatching, genreRows
+  getHomeFeed: async (rowSize = 20) => {
+    const res = await axiosInstance.get(`/home`, {
+      params: { rowSize }
+    });
+    return res.data;
+  },
+
   // ML Recommendations
   getRecommendations: async (limit = 10) => {
     const res = await axiosInstance.get(`/movies/recommendations`, {
@@ -92,6 +140,11 @@ const movieApi = {
     return res.data;
   },
 
+  getTrainingJob: async (jobId) => {
+    const res = await axiosInstance.get(`/movies/ml/train/${jobId}`);
+    return res.data;
+  },
+
   // Test endpoint
   hello: async () => {
     const res = await axiosInstance.get(`/movies/hello`);
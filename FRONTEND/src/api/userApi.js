@@ -7,7 +7,7 @@ const userApi = {
     return res.data;
   },
 
-  // Get current user profile (with favorites/watchLater populated)
+  // Get current user profile
   getCurrentUser: async () => {
     const res = await axiosInstance.get(`/auth/user`);
     return res.data;
@@ -37,6 +37,26 @@ const userApi = {
     return res.data;
   },
 
+  // Get one page of favorites as movie cards (newest first)
+  getFavorites: async (page = 0, size = 20) => {
+    const res = await axiosInstance.get(`/user/favorites`, { params: { page, size } });
+    return res.data;
+  },
+
+  // Get one page of the watch later list as movie cards (newest first)
+  getWatchLater: async (page = 0, size = 20) => {
+    const res = await axiosInstance.get(`/user/watch-later`, { params: { page, size } });
+    return res.data;
+  },
+
+  // Check which of the given movies are in favorites / watch later
+  getListMembership: async (movieIds) => {
+    const res = await axiosInstance.get(`/user/lists/membership`, {
+      params: { movieIds: movieIds.join(",") }
+    });
+    return res.data;
+  },
+
   // Send progress heartbeat
   updateProgress: async (movieId, seconds, duration) => {
     const res = await axiosInstance.post(`/user/progress`, {
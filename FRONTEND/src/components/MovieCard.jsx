@@ -14,7 +14,7 @@ const MovieCard = ({ movie }) => {
   const leaveTimeoutRef = useRef(null);
   const navigate = useNavigate();
 
-  const { dbUser, userData, toggleWatchLater } = useAuthStore();
+  const { dbUser, userData, toggleWatchLater, watchLaterIds, requestMembership } = useAuthStore();
 
   // Map backend field names to frontend
   const movieId = movie.movieId || movie._id || movie.id;
@@ -42,7 +42,14 @@ const MovieCard = ({ movie }) => {
   const releaseYear = movie.releaseYear || (movie.releaseDate ? new Date(movie.releaseDate).getFullYear() : (movie.year || 'N/A'));
   const matchPercentage = rating !== 'N/A' ? `${Math.round(parseFloat(rating) * 10)}% Match` : 'New';
 
-  const isInWatchLater = userData?.watchLaterMovieIds?.includes(movieId);
+  const isInWatchLater = watchLaterIds[movieId] === true;
+
+  // Look up list membership once per card; the store batches lookups from the same render
+  useEffect(() => {
+    if (dbUser && !dbUser._isFallback) {
+      requestMembership(movieId);
+    }
+  }, [movieId, dbUser, requestMembership]);
 
   // Close popup on scroll
   useEffect(() => {
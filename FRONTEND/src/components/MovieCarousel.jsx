@@ -1,8 +1,6 @@
-import React, { useState, useEffect } from 'react';
+import React, { useMemo } from 'react';
 import { Swiper, SwiperSlide } from 'swiper/react';
 import { Navigation, Autoplay } from 'swiper/modules';
-import movieApi from '../api/movieApi';
-import useAuthStore from '../context/useAuthStore';
 import { ChevronLeftIcon, ChevronRightIcon } from '@heroicons/react/24/outline';
 
 // Import Swiper styles
@@ -11,46 +9,14 @@ import 'swiper/css/navigation';
 import 'swiper/css/autoplay';
 import './MovieCarousel.css';
 
-const MovieCarousel = () => {
-  const [featuredMovies, setFeaturedMovies] = useState([]);
-  const [loading, setLoading] = useState(true);
-  const { user, authInitialized } = useAuthStore();
+const NO_MOVIES = [];
 
-  useEffect(() => {
-    if (!user || !authInitialized) {
-      setLoading(false);
-      return;
-    }
-
-    const fetchRandomMovies = async () => {
-      try {
-        const response = await movieApi.fetchMovies({ page: 0, size: 50 });
-        const allMovies = response.content || [];
-        
-        // Get 3 random movies
-        const shuffled = [...allMovies].sort(() => 0.5 - Math.random());
-        const randomMovies = shuffled.slice(0, 3);
-        
-        setFeaturedMovies(randomMovies);
-      } catch (error) {
-        // Silent error handling
-      } finally {
-        setLoading(false);
-      }
-    };
-
-    fetchRandomMovies();
-  }, [user, authInitialized]);
-
-  if (loading) {
-    return (
-      <div className="carousel-container">
-        <div className="flex justify-center items-center h-96">
-          <div className="text-white text-xl">Loading featured movies...</div>
-        </div>
-      </div>
-    );
-  }
+// Featured movies come from the home feed; show 3 of them at random
+const MovieCarousel = ({ movies = NO_MOVIES }) => {
+  const featuredMovies = useMemo(
+    () => [...movies].sort(() => 0.5 - Math.random()).slice(0, 3),
+    [movies]
+  );
 
   if (featuredMovies.length === 0) {
     return null;
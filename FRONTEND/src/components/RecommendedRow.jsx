@@ -1,36 +1,10 @@
-import React, { useEffect, useState } from "react";
-import movieApi from "../api/movieApi";
-import useAuthStore from "../context/useAuthStore";
+import React, { useState } from "react";
 import { FaChevronLeft, FaChevronRight, FaStar } from "react-icons/fa";
 import MovieCard from "./MovieCard";
 
-export default function RecommendedRow() {
-  const [recommendations, setRecommendations] = useState([]);
-  const [loading, setLoading] = useState(true);
-  const [error, setError] = useState(null);
+// Recommendations come from the home feed
+export default function RecommendedRow({ movies: recommendations = [] }) {
   const [scrollPosition, setScrollPosition] = useState(0);
-  const { authInitialized } = useAuthStore();
-
-  useEffect(() => {
-    if (authInitialized) {
-      fetchRecommendations();
-    }
-  }, [authInitialized]);
-
-  const fetchRecommendations = async () => {
-    try {
-      setLoading(true);
-      setError(null);
-      const movies = await movieApi.getRecommendations(10);
-      setRecommendations(movies);
-    } catch (err) {
-      setError(err.message);
-      // Don't show error to user, just silently fail
-      // The row simply won't appear
-    } finally {
-      setLoading(false);
-    }
-  };
 
   const scroll = (direction) => {
     const container = document.getElementById("recommended-scroll-container");
@@ -49,8 +23,8 @@ export default function RecommendedRow() {
     }
   };
 
-  // Don't render anything if loading, error, or no recommendations
-  if (loading || error || !recommendations || recommendations.length === 0) {
+  // Don't render anything if there are no recommendations
+  if (!recommendations || recommendations.length === 0) {
     return null;
   }
 
@@ -1,18 +1,51 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { FaSearch } from 'react-icons/fa';
+import movieApi from '../api/movieApi';
 
 export default function SearchBar() {
   const [query, setQuery] = useState('');
+  const [suggestions, setSuggestions] = useState([]);
   const navigate = useNavigate();
 
+  // Fetch typeahead suggestions, debounced so we don't fire on every keystroke
+  useEffect(() => {
+    const q = query.trim();
+    if (!q) {
+      setSuggestions([]);
+      return;
+    }
+
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const results = await movieApi.suggestTitles(q);
+        if (!cancelled) setSuggestions(results);
+      } catch (error) {
+        if (!cancelled) setSuggestions([]);
+      }
+    }, 150);
+
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [query]);
+
   const handleSubmit = (e) => {
     e.preventDefault();
     if (query.trim()) {
+      setSuggestions([]);
       navigate(`/search?q=${encodeURIComponent(query.trim())}`);
     }
   };
 
+  const handleSelect = (suggestion) => {
+    setQuery(suggestion.movieTitle);
+    setSuggestions([]);
+    navigate(`/search?q=${encodeURIComponent(suggestion.movieTitle)}`);
+  };
+
   return (
     <form onSubmit={handleSubmit} className="relative">
       <div className="flex items-center bg-zinc-800 rounded-lg overflow-hidden">
@@ -20,6 +53,7 @@ export default function SearchBar() {
           type="text"
           value={query}
           onChange={(e) => setQuery(e.target.value)}
+          onBlur={() => setTimeout(() => setSuggestions([]), 150)}
           placeholder="Search movies..."
           className="bg-transparent px-4 py-2 text-white placeholder-gray-400 focus:outline-none w-64"
         />
@@ -31,6 +65,22 @@ export default function SearchBar() {
           <FaSearch />
         </button>
       </div>
+
+      {suggestions.length > 0 && (
+        <ul className="absolute left-0 right-0 mt-1 bg-zinc-900 border border-zinc-700 rounded-lg overflow-hidden z-50">
+          {suggestions.map((suggestion) => (
+            <li key={suggestion.movieId}>
+              <button
+                type="button"
+                onMouseDown={() => handleSelect(suggestion)}
+                className="w-full text-left px-4 py-2 text-sm text-white hover:bg-zinc-700"
+              >
+                {suggestion.movieTitle}
+              </button>
+            </li>
+          ))}
+        </ul>
+      )}
     </form>
   );
 }
@@ -3,6 +3,10 @@ import { create } from "zustand";
 import { persist } from "zustand/middleware";
 import userApi from "../api/userApi";
 
+// Movie IDs waiting for a membership lookup; cards rendered together share one request
+let pendingMembershipIds = new Set();
+let membershipTimer = null;
+
 const useAuthStore = create(
   persist(
     (set, get) => ({
@@ -10,6 +14,8 @@ const useAuthStore = create(
       dbUser: null,         // MongoDB user from Spring Boot
       userData: null,       // Full user data with favorites/watchLater
       authInitialized: false, // Track if Firebase auth check is complete
+      favoriteIds: {},      // movieId -> true/false, filled on demand
+      watchLaterIds: {},    // movieId -> true/false, filled on demand
 
       // Login action - called after Firebase authentication
       setUser: async (firebaseUser) => {
@@ -32,8 +38,6 @@ const useAuthStore = create(
               email: firebaseUser.email,
               name: firebaseUser.displayName || firebaseUser.email,
               picture: firebaseUser.photoURL,
-              favoriteMovieIds: [],
-              watchLaterMovieIds: [],
               _isFallback: true
             };
             set({ dbUser: fallbackDbUser, userData: fallbackDbUser, authInitialized: true });
@@ -55,11 +59,47 @@ const useAuthStore = create(
         }
       },
 
+      // Queue a membership lookup for a movie; lookups made in the same tick are batched
+      requestMembership: (movieId) => {
+        if (!movieId || movieId in get().watchLaterIds || pendingMembershipIds.has(movieId)) return;
+        pendingMembershipIds.add(movieId);
+        if (!membershipTimer) {
+          membershipTimer = setTimeout(() => get().flushMembership(), 0);
+        }
+      },
+
+      // Resolve queued membership lookups, at most 100 movies per request
+      flushMembership: async () => {
+        membershipTimer = null;
+        const queued = [...pendingMembershipIds];
+        pendingMembershipIds = new Set();
+
+        for (let i = 0; i < queued.length; i += 100) {
+          const ids = queued.slice(i, i + 100);
+          try {
+            const membership = await userApi.getListMembership(ids);
+            const favorites = new Set(membership.favoriteMovieIds);
+            const watchLater = new Set(membership.watchLaterMovieIds);
+            set((state) => {
+              const favoriteIds = { ...state.favoriteIds };
+              const watchLaterIds = { ...state.watchLaterIds };
+              ids.forEach(id => {
+                favoriteIds[id] = favorites.has(id);
+                watchLaterIds[id] = watchLater.has(id);
+              });
+              return { favoriteIds, watchLaterIds };
+            });
+          } catch (error) {
+            // Silent error handling
+          }
+        }
+      },
+
       // Toggle favorite (handles add/remove automatically)
       toggleFavorite: async (movieId) => {
         try {
-          const response = await userApi.toggleFavorite(movieId);
-          await get().refreshUserData();
+          await userApi.toggleFavorite(movieId);
+          set((state) => ({ favoriteIds: { ...state.favoriteIds, [movieId]: !state.favoriteIds[movieId] } }));
         } catch (error) {
           throw error; // Re-throw to let caller handle it
         }
@@ -69,13 +109,13 @@ const useAuthStore = create(
       toggleWatchLater: async (movieId) => {
         try {
           await userApi.toggleWatchLater(movieId);
-          await get().refreshUserData();
+          set((state) => ({ watchLaterIds: { ...state.watchLaterIds, [movieId]: !state.watchLaterIds[movieId] } }));
         } catch (error) {
           // Silent error handling
         }
       },
 
-      clearUser: () => set({ user: null, dbUser: null, userData: null, authInitialized: true }),
+      clearUser: () => set({ user: null, dbUser: null, userData: null, favoriteIds: {}, watchLaterIds: {}, authInitialized: true }),
     }),
     {
       name: "auth-storage", // Persist to localStorage
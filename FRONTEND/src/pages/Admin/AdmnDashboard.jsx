@@ -44,9 +44,18 @@ export default function AdminDashboard() {
 setTraining(true);
       toast.info('Starting model training... This may take a minute.');
       
-      const result = await movieApi.trainMLModel();
+      // Training runs as a background job; poll it until it finishes
+      let job = await movieApi.trainMLModel();
+      while (job.status === 'queued' || job.status === 'running') {
+        await new Promise((resolve) => setTimeout(resolve, 3000));
+        job = await movieApi.getTrainingJob(job.job_id);
+      }
       
-      toast.success('Model trained successfully!');
+      if (job.status === 'succeeded') {
+        toast.success(`Model trained successfully! RMSE: ${job.metrics?.rmse?.toFixed(4)}`);
+      } else {
+        toast.error(`Training failed: ${job.error}`);
+      }
       
       // Refresh ML status
       await fetchMLStatus();
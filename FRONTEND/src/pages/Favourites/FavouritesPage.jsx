@@ -1,18 +1,36 @@
-import React, { useEffect, useState, useRef } from "react";
+import React, { useEffect, useState, useCallback } from "react";
 import Navbar from "../../components/Navbar";
 import Footer from "../../components/Footer";
 import MovieGrid from "../../components/MovieGrid";
-import movieApi from "../../api/movieApi";
+import userApi from "../../api/userApi";
 import useAuthStore from "../../context/useAuthStore";
 import { toast } from "react-toastify";
 import { useNavigate } from "react-router-dom";
 
+const PAGE_SIZE = 20;
+
 export default function FavouritesPage() {
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [favoriteMovies, setFavoriteMovies] = useState([]);
-  const { dbUser, userData, refreshUserData, authInitialized } = useAuthStore();
+  const [totalCount, setTotalCount] = useState(0);
+  const [nextPage, setNextPage] = useState(0);
+  const [hasMore, setHasMore] = useState(false);
+  const { dbUser, authInitialized } = useAuthStore();
   const navigate = useNavigate();
-  const hasRefreshed = useRef(false);
+
+  // Fetch one server-side page of movie cards and append it
+  const loadPage = useCallback(async (page) => {
+    try {
+      const data = await userApi.getFavorites(page, PAGE_SIZE);
+      setFavoriteMovies(prev => page === 0 ? data.content : [...prev, ...data.content]);
+      setTotalCount(data.totalElements);
+      setNextPage(page + 1);
+      setHasMore(!data.last);
+    } catch (error) {
+      toast.error("Failed to load favorites");
+    }
+  }, []);
 
   useEffect(() => {
     if (authInitialized && !dbUser) {
@@ -20,46 +38,22 @@ export default function FavouritesPage() {
       return;
     }
 
-    if (!authInitialized) return;
+    if (!authInitialized || !dbUser) return;
 
-    // Refresh user data on mount to ensure we have latest favorites
-    if (!hasRefreshed.current && dbUser && !dbUser._isFallback) {
-      hasRefreshed.current = true;
-      refreshUserData().catch(err => {});
+    if (dbUser._isFallback) {
+      setLoading(false);
+      return;
     }
-  }, [dbUser, authInitialized, navigate, refreshUserData]);
-
-  // Fetch movie details whenever the list of IDs changes
-  useEffect(() => {
-    const fetchMovieDetails = async () => {
-      if (!dbUser) return;
-
-      // If we don't have user data yet, or no favorites
-      if (!userData?.favoriteMovieIds || userData.favoriteMovieIds.length === 0) {
-        setFavoriteMovies([]);
-        setLoading(false);
-        return;
-      }
 
-      setLoading(true);
-      try {
-        const favoriteIds = userData.favoriteMovieIds;
-        const moviePromises = favoriteIds.map(id => 
-          movieApi.getMovieById(id).catch(err => {
-            return null;
-          })
-        );
-        const movies = await Promise.all(moviePromises);
-        setFavoriteMovies(movies.filter(movie => movie !== null));
-      } catch (error) {
-        toast.error("Failed to load favorites");
-      } finally {
-        setLoading(false);
-      }
-    };
+    setLoading(true);
+    loadPage(0).finally(() => setLoading(false));
+  }, [dbUser, authInitialized, navigate, loadPage]);
 
-    fetchMovieDetails();
-  }, [userData?.favoriteMovieIds, dbUser]);
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    await loadPage(nextPage);
+    setLoadingMore(false);
+  };
 
   if (loading) {
     return (
@@ -90,7 +84,7 @@ export default function FavouritesPage() {
         <div className="mb-8">
           <h1 className="text-4xl font-bold mb-2">My Favorites</h1>
           <p className="text-gray-400">
-            {favoriteMovies.length} movie{favoriteMovies.length !== 1 ? 's' : ''} in your favorites
+            {totalCount} movie{totalCount !== 1 ? 's' : ''} in your favorites
           </p>
         </div>
 
@@ -107,9 +101,22 @@ export default function FavouritesPage() {
             </button>
           </div>
         ) : (
-          <MovieGrid
-            movies={favoriteMovies}
-          />
+          <>
+            <MovieGrid
+              movies={favoriteMovies}
+            />
+            {hasMore && (
+              <div className="flex justify-center mt-8">
+                <button
+                  onClick={handleLoadMore}
+                  disabled={loadingMore}
+                  className="bg-zinc-800 hover:bg-zinc-700 px-6 py-3 rounded-lg transition-colors disabled:opacity-50"
+                >
+                  {loadingMore ? "Loading..." : "Load more"}
+                </button>
+              </div>
+            )}
+          </>
         )}
       </div>
       <Footer />
@@ -10,7 +10,7 @@ import { toast } from "react-toastify";
 import { useNavigate } from "react-router-dom";
 
 export default function Home() {
-  const [moviesByGenre, setMoviesByGenre] = useState({});
+  const [feed, setFeed] = useState(null);
   const [loading, setLoading] = useState(true);
   const { user, authInitialized } = useAuthStore();
   const navigate = useNavigate();
@@ -28,27 +28,10 @@ export default function Home() {
       return;
     }
 
-    const fetchMovies = async () => {
+    // One request returns every row; rows the server could not load in time come back empty
+    const fetchHomeFeed = async () => {
       try {
-        // Fetch all movies with a large page size to get most movies
-        const response = await movieApi.fetchMovies({ page: 0, size: 100 });
-        const movies = response.content;
-
-        // Group movies by genre on the client side
-        // Each movie can appear in multiple genre rows
-        const grouped = {};
-        movies.forEach(movie => {
-          if (movie.genres && Array.isArray(movie.genres)) {
-            movie.genres.forEach(genre => {
-              if (!grouped[genre]) {
-                grouped[genre] = [];
-              }
-              grouped[genre].push(movie);
-            });
-          }
-        });
-        
-        setMoviesByGenre(grouped);
+        setFeed(await movieApi.getHomeFeed(20));
       } catch (err) {
         toast.error("Failed to load movies. Please try logging in again.");
       } finally {
@@ -56,7 +39,7 @@ export default function Home() {
       }
     };
 
-    fetchMovies();
+    fetchHomeFeed();
   }, [user, authInitialized]);
 
   if (!user || loading) {
@@ -72,14 +55,20 @@ export default function Home() {
       <Navbar />
       <div className="pt-20 pb-20">
         {/* Featured Movies Carousel */}
-        <MovieCarousel />
+        <MovieCarousel movies={feed?.featured} />
         
         {/* Personalized Recommendations - Show first if user is logged in */}
-        {user && <RecommendedRow />}
+        {user && <RecommendedRow movies={feed?.recommended} />}
         
         {/* Genre Rows */}
         <div className="space-y-10">
-          {Object.entries(moviesByGenre).map(([genre, movies]) => (
+          {feed?.continueWatching?.length > 0 && (
+            <GenreRow
+              genre="Continue Watching"
+              movies={feed.continueWatching.map(item => item.movie)}
+            />
+          )}
+          {(feed?.genreRows || []).map(({ genre, movies }) => (
             <GenreRow 
               key={genre} 
               genre={genre} 
@@ -21,10 +21,16 @@ export default function MoviePlayer() {
   const [showWatchPartyModal, setShowWatchPartyModal] = useState(false);
   const [activeRoomId, setActiveRoomId] = useState(null);
   const [roomData, setRoomData] = useState(null);
-  const { dbUser, userData, toggleFavorite, authInitialized } = useAuthStore();
+  const { dbUser, userData, toggleFavorite, authInitialized, favoriteIds, requestMembership } = useAuthStore();
   
   // Check if movie is in user's favorites
-  const isLiked = userData?.favoriteMovieIds?.includes(id);
+  const isLiked = favoriteIds[id] === true;
+
+  useEffect(() => {
+    if (dbUser && !dbUser._isFallback) {
+      requestMembership(id);
+    }
+  }, [id, dbUser, requestMembership]);
 
   // Check for roomId in URL and fetch room data
   useEffect(() => {
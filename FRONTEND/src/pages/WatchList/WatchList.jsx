@@ -1,18 +1,36 @@
-import React, { useEffect, useState, useRef } from "react";
+import React, { useEffect, useState, useCallback } from "react";
 import Navbar from "../../components/Navbar";
 import Footer from "../../components/Footer";
 import MovieGrid from "../../components/MovieGrid";
-import movieApi from "../../api/movieApi";
+import userApi from "../../api/userApi";
 import useAuthStore from "../../context/useAuthStore";
 import { toast } from "react-toastify";
 import { useNavigate } from "react-router-dom";
 
+const PAGE_SIZE = 20;
+
 export default function Watchlist() {
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [watchLaterMovies, setWatchLaterMovies] = useState([]);
-  const { dbUser, userData, refreshUserData, authInitialized } = useAuthStore();
+  const [totalCount, setTotalCount] = useState(0);
+  const [nextPage, setNextPage] = useState(0);
+  const [hasMore, setHasMore] = useState(false);
+  const { dbUser, authInitialized, watchLaterIds } = useAuthStore();
   const navigate = useNavigate();
-  const hasRefreshed = useRef(false);
+
+  // Fetch one server-side page of movie cards and append it
+  const loadPage = useCallback(async (page) => {
+    try {
+      const data = await userApi.getWatchLater(page, PAGE_SIZE);
+      setWatchLaterMovies(prev => page === 0 ? data.content : [...prev, ...data.content]);
+      setTotalCount(data.totalElements);
+      setNextPage(page + 1);
+      setHasMore(!data.last);
+    } catch (error) {
+      toast.error("Failed to load watch later list");
+    }
+  }, []);
 
   useEffect(() => {
     if (authInitialized && !dbUser) {
@@ -20,42 +38,25 @@ export default function Watchlist() {
       return;
     }
 
-    if (!authInitialized) return;
+    if (!authInitialized || !dbUser) return;
 
-    // Refresh user data on mount to ensure we have latest watch later list
-    if (!hasRefreshed.current && dbUser && !dbUser._isFallback) {
-      hasRefreshed.current = true;
-      refreshUserData().catch(err => {});
+    if (dbUser._isFallback) {
+      setLoading(false);
+      return;
     }
-  }, [dbUser, authInitialized, navigate, refreshUserData]);
-
-  // Fetch movie details whenever the list of IDs changes
-  useEffect(() => {
-    const fetchMovieDetails = async () => {
-      if (!dbUser) return;
 
-      // If we don't have user data yet, or no watch later movies
-      if (!userData?.watchLaterMovieIds || userData.watchLaterMovieIds.length === 0) {
-        setWatchLaterMovies([]);
-        setLoading(false);
-        return;
-      }
+    setLoading(true);
+    loadPage(0).finally(() => setLoading(false));
+  }, [dbUser, authInitialized, navigate, loadPage]);
 
-      setLoading(true);
-      try {
-        const watchLaterIds = userData.watchLaterMovieIds;
-        const moviePromises = watchLaterIds.map(id => movieApi.getMovieById(id));
-        const movies = await Promise.all(moviePromises);
-        setWatchLaterMovies(movies.filter(movie => movie !== null));
-      } catch (error) {
-        toast.error("Failed to load watch later list");
-      } finally {
-        setLoading(false);
-      }
-    };
+  // Hide movies removed from the list on this page without refetching
+  const visibleMovies = watchLaterMovies.filter(movie => watchLaterIds[movie.movieId] !== false);
 
-    fetchMovieDetails();
-  }, [userData?.watchLaterMovieIds, dbUser]);
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    await loadPage(nextPage);
+    setLoadingMore(false);
+  };
 
   if (loading) {
     return (
@@ -86,11 +87,11 @@ export default function Watchlist() {
         <div className="mb-8">
           <h1 className="text-4xl font-bold mb-2">Watch Later</h1>
           <p className="text-gray-400">
-            {watchLaterMovies.length} movie{watchLaterMovies.length !== 1 ? 's' : ''} in your watch later list
+            {totalCount} movie{totalCount !== 1 ? 's' : ''} in your watch later list
           </p>
         </div>
 
-        {watchLaterMovies.length === 0 ? (
+        {visibleMovies.length === 0 ? (
           <div className="text-center py-20">
             <div className="text-6xl mb-4"></div>
             <h2 className="text-2xl font-semibold mb-2">No movies to watch later</h2>
@@ -103,9 +104,22 @@ export default function Watchlist() {
             </button>
           </div>
         ) : (
-          <MovieGrid
-            movies={watchLaterMovies}
-          />
+          <>
+            <MovieGrid
+              movies={visibleMovies}
+            />
+            {hasMore && (
+              <div className="flex justify-center mt-8">
+                <button
+                  onClick={handleLoadMore}
+                  disabled={loadingMore}
+                  className="bg-zinc-800 hover:bg-zinc-700 px-6 py-3 rounded-lg transition-colors disabled:opacity-50"
+                >
+                  {loadingMore ? "Loading..." : "Load more"}
+                </button>
+              </div>
+            )}
+          </>
         )}
       </div>
       <Footer />
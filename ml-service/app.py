@@ -1,8 +1,12 @@
-from fastapi import FastAPI, HTTPException
+from fastapi import FastAPI, HTTPException, Response
 from fastapi.middleware.cors import CORSMiddleware
 from pydantic import BaseModel
-from typing import List, Optional
+from typing import Dict, List, Optional
+from collections import OrderedDict
+import asyncio
 import logging
+import time
+import uuid
 
 from models.recommender import RecommenderSystem
 from data.data_loader import DataLoader
@@ -39,10 +43,23 @@ class RecommendationResponse(BaseModel):
     score: float
     reason: str
 
-class TrainResponse(BaseModel):
-    status: str
-    message: str
-    metrics: dict
+class SimilarListResponse(BaseModel):
+    movie_id: str
+    similar: List[str]
+
+class TrainingJobResponse(BaseModel):
+    job_id: str
+    status: str  # queued, running, succeeded or failed
+    submitted_at: int
+    finished_at: Optional[int] = None
+    trained_at: Optional[int] = None
+    metrics: Optional[dict] = None
+    error: Optional[str] = None
+
+# Training jobs, newest last; only one runs at a time
+MAX_TRACKED_JOBS = 20
+training_jobs: "OrderedDict[str, Dict]" = OrderedDict()
+active_job_id: Optional[str] = None
 
 @app.on_event("startup")
 async def startup_event():
@@ -66,23 +83,81 @@ async def root():
 async def health_check():
     return {"status": "healthy"}
 
-@app.post("/train")
-async def train_model():
-    """Train/retrain the recommendation model"""
+@app.post("/train", status_code=202)
+async def train_model() -> TrainingJobResponse:
+    """Start a training job, or return the one already running"""
+    global active_job_id
+
+    if active_job_id is not None:
+        return TrainingJobResponse(**training_jobs[active_job_id])
+
+    job = {
+        "job_id": uuid.uuid4().hex,
+        "status": "queued",
+        "submitted_at": int(time.time() * 1000)
+    }
+    training_jobs[job["job_id"]] = job
+    while len(training_jobs) > MAX_TRACKED_JOBS:
+        training_jobs.popitem(last=False)
+    active_job_id = job["job_id"]
+
+    asyncio.create_task(run_training_job(job))
+    return TrainingJobResponse(**job)
+
+@app.get("/train/{job_id}")
+async def get_training_job(job_id: str) -> TrainingJobResponse:
+    """Poll the status and metrics of a training job"""
+    job = training_jobs.get(job_id)
+    if job is None:
+        raise HTTPException(status_code=404, detail="Unknown training job")
+    return TrainingJobResponse(**job)
+
+async def run_training_job(job: Dict):
+    """Fit a fresh model off the event loop and make it live only if training succeeds"""
+    global recommender, active_job_id
+
+    job["status"] = "running"
     try:
-        logger.info("[SUCCESS] Starting model training...")
-        metrics = recommender.train()
-        
-        return TrainResponse(
-            status="success",
-            message="Model trained successfully",
-            metrics=metrics
-        )
+        logger.info(f"[SUCCESS] Starting training job {job['job_id']}...")
+        candidate = RecommenderSystem(data_loader, interaction_state=recommender.interaction_state)
+        metrics = await asyncio.to_thread(candidate.train)
+
+        # Swapped on the event loop, so no request sees a half-trained model
+        recommender = candidate
+        job.update(status="succeeded", metrics=metrics, trained_at=candidate.trained_at)
     except ValueError as e:
         logger.warning(f"[DEBUG] Training skipped: {e}")
-        raise HTTPException(status_code=400, detail=str(e))
+        job.update(status="failed", error=str(e))
     except Exception as e:
         logger.error(f"[ERROR] Training failed: {e}")
+        job.update(status="failed", error=str(e))
+    finally:
+        job["finished_at"] = int(time.time() * 1000)
+        active_job_id = None
+
+@app.get("/model")
+async def get_model_info():
+    """Version of the live model (trained_at, epoch millis), 0 while untrained"""
+    return {"trained_at": recommender.trained_at if recommender.is_trained() else 0}
+
+@app.get("/model/factors")
+async def get_model_factors():
+    """Binary export of the NMF factors, loaded by the backend for in-process scoring"""
+
+    if not recommender.is_trained():
+        raise HTTPException(
+            status_code=503,
+            detail="Model not trained yet. Please call /train first"
+        )
+
+    try:
+        return Response(
+            content=recommender.export_factors(),
+            media_type="application/octet-stream",
+            headers={"X-Model-Version": str(recommender.trained_at)}
+        )
+    except Exception as e:
+        logger.error(f"[ERROR] Factor export failed: {e}")
         raise HTTPException(status_code=500, detail=str(e))
 
 @app.get("/recommendations/{user_id}")
@@ -118,6 +193,25 @@ async def get_recommendations(
         logger.error(f"[ERROR] Recommendation failed: {e}")
         raise HTTPException(status_code=500, detail=str(e))
 
+@app.get("/similar-movies")
+async def get_similar_movies_table(limit: int = 20) -> List[SimilarListResponse]:
+    """Top-N similar movies for the whole catalog, precomputed by the backend after training"""
+
+    if not recommender.is_trained():
+        raise HTTPException(
+            status_code=503,
+            detail="Model not trained yet. Please call /train first"
+        )
+
+    try:
+        return [
+            SimilarListResponse(movie_id=row["movie_id"], similar=row["similar"])
+            for row in recommender.get_all_similar_movies(n_similar=limit)
+        ]
+    except Exception as e:
+        logger.error(f"[ERROR] Similar movies export failed: {e}")
+        raise HTTPException(status_code=500, detail=str(e))
+
 @app.get("/similar-movies/{movie_id}")
 async def get_similar_movies(
     movie_id: str,
@@ -1,9 +1,11 @@
 import os
 from pymongo import MongoClient
-from typing import List, Dict, Optional
+from typing import List, Dict, Iterator, Optional
 import pandas as pd
 import logging
-from datetime import datetime
+from datetime import datetime, timedelta
+
+from data.interaction_state import InteractionState
 
 logger = logging.getLogger(__name__)
 
@@ -51,90 +53,99 @@ class DataLoader:
         Returns:
             DataFrame with columns: user_id, movie_id, score
         """
+        df = self.load_interaction_state().to_frame()
+        
+        if len(df) == 0:
+            logger.warning("⚠️ No interactions found! Model needs data to train.")
+            return df
+        
+        logger.info(f"✅ Created interaction matrix: {len(df)} interactions")
+        logger.info(f"   Unique users: {df['user_id'].nunique()}, Unique movies: {df['movie_id'].nunique()}")
+        
+        return df
+    
+    def load_interaction_state(self) -> InteractionState:
+        """
+        Full rescan of favorites, watch later and watch progress into an InteractionState
+        
+        The outbox cursor is read before the scan, so events written during it are replayed
+        on the next incremental update instead of being lost.
+        """
         if not self.client:
             logger.error("❌ MongoDB not connected")
-            return pd.DataFrame(columns=['user_id', 'movie_id', 'score', 'interaction_type'])
+            return InteractionState()
             
-        logger.info("📊 Building interaction matrix from MongoDB...")
-        
-        interactions = []
+        logger.info("📊 Rescanning all interactions from MongoDB...")
+        state = InteractionState(synced_at=datetime.utcnow())
+        state.cursor = self.get_committed_event_seq()
         
-        # Get all users
         try:
-            users = list(self.users_collection.find())
-            logger.info(f"Found {len(users)} users")
+            known_users = {
+                str(user.get('_id') or user.get('id'))
+                for user in self.users_collection.find({}, {'_id': 1, 'id': 1})
+            }
+            logger.info(f"Found {len(known_users)} users")
         except Exception as e:
             logger.error(f"❌ Failed to fetch users from MongoDB: {e}")
-            return pd.DataFrame(columns=['user_id', 'movie_id', 'score', 'interaction_type'])
+            return state
         
-        for user in users:
-            user_id = user.get('_id') or user.get('id')
-            
-            # Favorites = highest score (5 points)
-            for movie_id in user.get('favoriteMovieIds', []):
-                interactions.append({
-                    'user_id': user_id,
-                    'movie_id': movie_id,
-                    'score': 5.0,
-                    'interaction_type': 'favorite'
-                })
-            
-            # Watch later = medium score (2 points)
-            for movie_id in user.get('watchLaterMovieIds', []):
-                # Skip if already in favorites
-                if movie_id not in user.get('favoriteMovieIds', []):
-                    interactions.append({
-                        'user_id': user_id,
-                        'movie_id': movie_id,
-                        'score': 2.0,
-                        'interaction_type': 'watch_later'
-                    })
-        
-        # Add viewing history from watch progress
+        for user_id, movie_ids in self._get_list_entries(self.db.movie_likes).items():
+            if user_id in known_users:
+                for movie_id in movie_ids:
+                    state.set(user_id, movie_id, liked=True)
+        
+        for user_id, movie_ids in self._get_list_entries(self.db.watch_later).items():
+            if user_id in known_users:
+                for movie_id in movie_ids:
+                    state.set(user_id, movie_id, watch_later=True)
+        
+        # Viewing history from watch progress
         try:
-            watch_progress = list(self.db.watch_progress.find())
-            for progress in watch_progress:
-                user_id = progress.get('userId')
-                movie_id = progress.get('movieId')
-                
-                if not user_id or not movie_id:
-                    continue
-                
-                # Only count if they watched > 10% (engagement signal)
-                if progress.get('progress', 0) > 0.1:
-                    # Check if not already in favorites or watch later
-                    existing = any(
-                        i['user_id'] == user_id and i['movie_id'] == movie_id 
-                        for i in interactions
-                    )
-                    if not existing:
-                        # Score based on progress (1-3 points)
-                        score = min(3.0, progress.get('progress', 0) * 3)
-                        interactions.append({
-                            'user_id': user_id,
-                            'movie_id': movie_id,
-                            'score': score,
-                            'interaction_type': 'viewed'
-                        })
+            projection = {'userId': 1, 'movieId': 1, 'timestampSeconds': 1, 'totalDurationSeconds': 1, 'progress': 1, '_id': 0}
+            for progress in self.db.watch_progress.find({}, projection):
+                if progress.get('userId') and progress.get('movieId'):
+                    state.set(progress['userId'], progress['movieId'], watched=self._watched_fraction(progress))
         except Exception as e:
             logger.warning(f"⚠️ Failed to fetch watch progress: {e}")
         
-        # Create DataFrame with proper columns
-        if len(interactions) == 0:
-            logger.warning("⚠️ No interactions found! Model needs data to train.")
-            return pd.DataFrame(columns=['user_id', 'movie_id', 'score', 'interaction_type'])
-        
-        df = pd.DataFrame(interactions)
-        
-        # Ensure columns exist and are correct type
-        df['user_id'] = df['user_id'].astype(str)
-        df['movie_id'] = df['movie_id'].astype(str)
-        df['score'] = df['score'].astype(float)
-        
-        logger.info(f"✅ Created interaction matrix: {len(df)} interactions")
-        logger.info(f"   Unique users: {df['user_id'].nunique()}, Unique movies: {df['movie_id'].nunique()}")
+        return state
+    
+    def get_interaction_events(self, after_seq: int, upto_seq: int) -> Iterator[Dict]:
+        """Stream outbox events in (after_seq, upto_seq], oldest first"""
+        if not self.client:
+            return iter(())
+        return (
+            {**event, 'seq': event['_id']}
+            for event in self.db.interaction_events
+                .find({'_id': {'$gt': after_seq, '$lte': upto_seq}},
+                      {'type': 1, 'userId': 1, 'movieId': 1, 'value': 1})
+                .sort('_id', 1)
+        )
+    
+    def get_committed_event_seq(self, writer_lease_ms: int = 60000) -> int:
+        """
+        Committed outbox watermark, 0 if nothing was written yet
         
-        return df
+        Same rule as the backend's GET /api/movies/ml/interactions export: the sequence counter,
+        read first, lowered to just below the pendingFrom of every backend instance still
+        inserting a batch, so a cursor never moves past an event that is not written yet.
+        """
+        if not self.client:
+            return 0
+        counter = self.db.interaction_event_sequence.find_one({'_id': 'interaction_events'})
+        committed = int(counter['value']) if counter else 0
+        live = datetime.utcnow() - timedelta(milliseconds=writer_lease_ms)
+        for writer in self.db.interaction_event_writers.find({'since': {'$gt': live}}, {'pendingFrom': 1}):
+            committed = min(committed, int(writer['pendingFrom']) - 1)
+        return committed
+    
+    @staticmethod
+    def _watched_fraction(progress: Dict) -> float:
+        """Watched share of a movie from a watch_progress document"""
+        total = progress.get('totalDurationSeconds') or 0
+        if total > 0:
+            return min(1.0, (progress.get('timestampSeconds') or 0) / total)
+        return float(progress.get('progress', 0))
     
     def get_movies_metadata(self) -> pd.DataFrame:
         """
@@ -209,15 +220,30 @@ class DataLoader:
         
         return {
             'user_id': user_id,
-            'favorites': user.get('favoriteMovieIds', []),
-            'watch_later': user.get('watchLaterMovieIds', []),
+            'favorites': self._get_user_list(self.db.movie_likes, user_id),
+            'watch_later': self._get_user_list(self.db.watch_later, user_id),
             'watched': self._get_watched_movies(user_id)
         }
     
+    def _get_list_entries(self, collection) -> Dict[str, List[str]]:
+        """Group (userId, movieId) list entries, e.g. favorites or watch later, by user"""
+        entries: Dict[str, List[str]] = {}
+        try:
+            for entry in collection.find({}, {'userId': 1, 'movieId': 1, '_id': 0}):
+                if entry.get('userId') and entry.get('movieId'):
+                    entries.setdefault(entry['userId'], []).append(entry['movieId'])
+        except Exception as e:
+            logger.warning(f"⚠️ Failed to fetch {collection.name}: {e}")
+        return entries
+    
+    def _get_user_list(self, collection, user_id: str) -> List[str]:
+        """Get the movie IDs on one of a user's lists"""
+        return [e['movieId'] for e in collection.find({'userId': user_id}, {'movieId': 1, '_id': 0})]
+    
     def _get_watched_movies(self, user_id: str) -> List[str]:
         """Get list of movies user has watched"""
         progress = list(self.db.watch_progress.find({'userId': user_id}))
-        return [p['movieId'] for p in progress if p.get('progress', 0) > 0.1]
+        return [p['movieId'] for p in progress if self._watched_fraction(p) > 0.1]
     
     def record_interaction(self, user_id: str, movie_id: str, score: float):
         """Record a new interaction for incremental learning"""
@@ -0,0 +1,106 @@
+import logging
+from datetime import datetime, timedelta
+from typing import Dict, Optional, Tuple
+
+import numpy as np
+import pandas as pd
+
+logger = logging.getLogger(__name__)
+
+# Implicit feedback scores; a pair takes the strongest signal it has
+FAVORITE_SCORE = 5.0
+WATCH_LATER_SCORE = 2.0
+MAX_VIEWED_SCORE = 3.0
+MIN_WATCHED_FRACTION = 0.1  # Engagement threshold for counting a view
+# The backend expires outbox events 30 days after writing them; rescan a day before that
+EVENT_RETENTION = timedelta(days=30)
+RETENTION_MARGIN = timedelta(days=1)
+
+
+class InteractionState:
+    """
+    Latest interaction flags per (user, movie) pair, plus the outbox cursor they reflect.
+
+    Built once from a full rescan of the interaction collections, then kept current by applying
+    the events the backend appends to its outbox (collection interaction_events), so a retraining
+    only reads what changed since the last one. Pair values are immutable
+    (liked, watch_later, watched_fraction) tuples, which makes copy() a cheap shallow copy:
+    a training run works on its own copy and a failed run never alters the live state.
+
+    Sequence numbers have gaps (the backend renumbers retried batches), so a missing number says
+    nothing about lost events. Events only disappear when the outbox TTL expires them, which is
+    why a state last synced longer ago than the retention period is rebuilt from a rescan.
+    """
+
+    def __init__(self, pairs: Optional[Dict[Tuple[str, str], Tuple[bool, bool, float]]] = None, cursor: int = 0,
+                 synced_at: Optional[datetime] = None):
+        self.pairs = pairs if pairs is not None else {}
+        self.cursor = cursor  # Committed watermark the pairs reflect
+        self.synced_at = synced_at  # When that watermark was read (UTC)
+
+    def copy(self) -> "InteractionState":
+        return InteractionState(dict(self.pairs), self.cursor, self.synced_at)
+
+    def is_expired(self) -> bool:
+        """Whether events after the cursor may already have been removed from the outbox"""
+        synced_at = getattr(self, 'synced_at', None)  # Absent in states pickled by older versions
+        return synced_at is None or datetime.utcnow() - synced_at > EVENT_RETENTION - RETENTION_MARGIN
+
+    def set(self, user_id: str, movie_id: str, liked: Optional[bool] = None,
+            watch_later: Optional[bool] = None, watched: Optional[float] = None):
+        """Update some flags of one pair, dropping pairs left without any signal"""
+        key = (user_id, movie_id)
+        current = self.pairs.get(key, (False, False, 0.0))
+        updated = (
+            current[0] if liked is None else liked,
+            current[1] if watch_later is None else watch_later,
+            current[2] if watched is None else watched
+        )
+        if updated[0] or updated[1] or updated[2] > 0:
+            self.pairs[key] = updated
+        else:
+            self.pairs.pop(key, None)
+
+    def apply(self, event: Dict):
+        """Apply one outbox event; VIEW events carry no score of their own"""
+        user_id, movie_id, kind = event.get('userId'), event.get('movieId'), event.get('type')
+        if user_id and movie_id:
+            if kind == 'LIKE':
+                self.set(user_id, movie_id, liked=True)
+            elif kind == 'UNLIKE':
+                self.set(user_id, movie_id, liked=False)
+            elif kind == 'WATCH_LATER_ADD':
+                self.set(user_id, movie_id, watch_later=True)
+            elif kind == 'WATCH_LATER_REMOVE':
+                self.set(user_id, movie_id, watch_later=False)
+            elif kind == 'PROGRESS':
+                self.set(user_id, movie_id, watched=float(event.get('value') or 0.0))
+            elif kind == 'COMPLETE':
+                self.set(user_id, movie_id, watched=1.0)
+        self.cursor = max(self.cursor, int(event['seq']))
+
+    def to_frame(self) -> pd.DataFrame:
+        """Score every pair at once: favorite 5, watch later 2, otherwise 3 x watched fraction"""
+        columns = ['user_id', 'movie_id', 'score', 'interaction_type']
+        if not self.pairs:
+            return pd.DataFrame(columns=columns)
+
+        users, movies = zip(*self.pairs.keys())
+        flags = np.array(list(self.pairs.values()), dtype=float)
+        liked, watch_later, watched = flags[:, 0] > 0, flags[:, 1] > 0, flags[:, 2]
+        viewed = watched > MIN_WATCHED_FRACTION
+
+        score = np.select(
+            [liked, watch_later, viewed],
+            [FAVORITE_SCORE, WATCH_LATER_SCORE, np.minimum(MAX_VIEWED_SCORE, watched * MAX_VIEWED_SCORE)],
+            default=0.0
+        )
+        interaction_type = np.select([liked, watch_later], ['favorite', 'watch_later'], default='viewed')
+
+        df = pd.DataFrame({
+            'user_id': np.array(users, dtype=object),
+            'movie_id': np.array(movies, dtype=object),
+            'score': score,
+            'interaction_type': interaction_type
+        })
+        return df[df['score'] > 0].reset_index(drop=True)
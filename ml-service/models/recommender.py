@@ -6,7 +6,12 @@ from sklearn.metrics.pairwise import cosine_similarity
 from typing import List, Dict, Optional
 import pickle
 import os
+import struct
+import time
 import logging
+from datetime import datetime
+
+from data.interaction_state import InteractionState
 
 logger = logging.getLogger(__name__)
 
@@ -18,8 +23,9 @@ class RecommenderSystem:
     3. Popularity-Based (Fallback for cold start)
     """
     
-    def __init__(self, data_loader):
+    def __init__(self, data_loader, interaction_state=None):
         self.data_loader = data_loader
+        self.interaction_state = interaction_state  # Interactions the model was (or will be) trained from
         self.model = None
         self.user_features = None
         self.movie_features = None
@@ -29,6 +35,7 @@ class RecommenderSystem:
         self.interaction_matrix = None
         self.movies_metadata = None
         self.content_similarity = None
+        self.trained_at = 0  # Epoch millis; versions the factor export
         
         # Model parameters
         self.n_components = 15  # Latent factors
@@ -42,8 +49,9 @@ class RecommenderSystem:
         """Train the recommendation model"""
         logger.info("🎯 Starting model training...")
         
-        # 1. Load interaction data
-        interactions_df = self.data_loader.get_interaction_matrix()
+        # 1. Load interaction data: the previous state plus the outbox delta when possible
+        interaction_state = self._refresh_interaction_state()
+        interactions_df = interaction_state.to_frame()
         self.movies_metadata = self.data_loader.get_movies_metadata()
         
         # FILTER: Keep only interactions for movies that actually exist in metadata
@@ -76,6 +84,8 @@ class RecommenderSystem:
         # Fit the model
         self.user_features = self.model.fit_transform(self.interaction_matrix)
         self.movie_features = self.model.components_.T
+        self.trained_at = int(time.time() * 1000)
+        self.interaction_state = interaction_state
         
         # 4. Build content-based similarity matrix
         logger.info("🔄 Building content similarity matrix...")
@@ -114,28 +124,42 @@ class RecommenderSystem:
             logger.error(f"❌ Missing required columns. Found: {interactions_df.columns.tolist()}")
             raise ValueError(f"DataFrame missing required columns. Expected 'user_id', 'movie_id', 'score'. Got: {interactions_df.columns.tolist()}")
         
-        # Create ID mappings
-        unique_users = interactions_df['user_id'].unique()
-        unique_movies = interactions_df['movie_id'].unique()
+        # Create ID mappings (codes follow first appearance, like unique())
+        user_codes, unique_users = pd.factorize(interactions_df['user_id'])
+        movie_codes, unique_movies = pd.factorize(interactions_df['movie_id'])
         
         self.user_id_map = {uid: idx for idx, uid in enumerate(unique_users)}
         self.movie_id_map = {mid: idx for idx, mid in enumerate(unique_movies)}
         self.reverse_movie_map = {idx: mid for mid, idx in self.movie_id_map.items()}
         
-        # Create matrix
+        # Create matrix with one vectorized scatter instead of a Python loop over rows
         n_users = len(unique_users)
         n_movies = len(unique_movies)
         matrix = np.zeros((n_users, n_movies))
-        
-        for _, row in interactions_df.iterrows():
-            user_idx = self.user_id_map[row['user_id']]
-            movie_idx = self.movie_id_map[row['movie_id']]
-            matrix[user_idx, movie_idx] = row['score']
+        matrix[user_codes, movie_codes] = interactions_df['score'].to_numpy(dtype=float)
         
         logger.info(f"📊 Matrix shape: {matrix.shape}, Sparsity: {(matrix == 0).sum() / matrix.size:.2%}")
         
         return matrix
     
+    def _refresh_interaction_state(self) -> InteractionState:
+        """Apply the outbox events since the last training, or rescan everything if they are gone"""
+        previous = self.interaction_state
+        if previous is None or previous.is_expired():
+            logger.info("🔄 Full interaction rescan (no state, or events since the last training expired)")
+            return self.data_loader.load_interaction_state()
+        
+        state = previous.copy()
+        state.synced_at = datetime.utcnow()
+        committed = self.data_loader.get_committed_event_seq()
+        applied = 0
+        for event in self.data_loader.get_interaction_events(previous.cursor, committed):
+            state.apply(event)
+            applied += 1
+        state.cursor = max(state.cursor, committed)  # Skip past gaps up to the watermark
+        logger.info(f"📥 Applied {applied} interaction events in seq ({previous.cursor}, {committed}]")
+        return state
+    
     def _build_content_similarity(self) -> np.ndarray:
         """Build content-based similarity matrix using genres"""
         
@@ -300,6 +324,63 @@ class RecommenderSystem:
         
         return recommendations
     
+    def get_all_similar_movies(self, n_similar: int = 20, block_size: int = 512) -> List[Dict]:
+        """Top-N similar movies for every movie in the model, for export to the backend.
+
+        Uses the same hybrid score as get_similar_movies, computed block by block so memory
+        stays at block_size x n_movies instead of n_movies x n_movies.
+        """
+        n_movies = len(self.movie_id_map)
+        if n_movies == 0:
+            return []
+
+        norms = np.linalg.norm(self.movie_features, axis=1, keepdims=True)
+        normalized = self.movie_features / np.where(norms == 0, 1, norms)
+        k = min(n_similar, n_movies - 1)
+
+        results = []
+        for start in range(0, n_movies, block_size):
+            end = min(start + block_size, n_movies)
+            hybrid = 0.6 * (normalized[start:end] @ normalized.T) + 0.4 * self.content_similarity[start:end]
+            # Never list a movie as similar to itself
+            hybrid[np.arange(end - start), np.arange(start, end)] = -np.inf
+
+            if k <= 0:
+                top = np.empty((end - start, 0), dtype=int)
+            else:
+                top = np.argpartition(hybrid, -k, axis=1)[:, -k:]
+            for row, movie_idx in enumerate(range(start, end)):
+                ranked = top[row][np.argsort(hybrid[row, top[row]])[::-1]]
+                results.append({
+                    'movie_id': self.reverse_movie_map[movie_idx],
+                    'similar': [self.reverse_movie_map[idx] for idx in ranked]
+                })
+
+        return results
+
+    def export_factors(self) -> bytes:
+        """Serialize the NMF factors so the backend can score users without this service.
+
+        Little-endian layout:
+            int64 version (trained_at), int32 n_components, int32 n_users, int32 n_movies,
+            n_users user IDs, then n_movies movie IDs, each as uint16 byte length + UTF-8,
+            float32 user factors (n_users x n_components, row-major),
+            float32 movie factors (n_movies x n_components, row-major).
+        """
+        user_ids = [None] * len(self.user_id_map)
+        for uid, idx in self.user_id_map.items():
+            user_ids[idx] = str(uid)
+        movie_ids = [str(self.reverse_movie_map[idx]) for idx in range(len(self.movie_id_map))]
+
+        parts = [struct.pack('<qiii', self.trained_at, self.n_components, len(user_ids), len(movie_ids))]
+        for identifier in user_ids + movie_ids:
+            encoded = identifier.encode('utf-8')
+            parts.append(struct.pack('<H', len(encoded)))
+            parts.append(encoded)
+        parts.append(np.ascontiguousarray(self.user_features, dtype='<f4').tobytes())
+        parts.append(np.ascontiguousarray(self.movie_features, dtype='<f4').tobytes())
+        return b''.join(parts)
+
     def _get_popular_movies(self, n: int = 10) -> List[Dict]:
         """Get popular movies as fallback"""
         
@@ -333,7 +414,9 @@ class RecommenderSystem:
             'movie_id_map': self.movie_id_map,
             'reverse_movie_map': self.reverse_movie_map,
             'interaction_matrix': self.interaction_matrix,
-            'content_similarity': self.content_similarity
+            'content_similarity': self.content_similarity,
+            'trained_at': self.trained_at,
+            'interaction_state': self.interaction_state
         }
         
         with open(self.model_path, 'wb') as f:
@@ -357,6 +440,8 @@ class RecommenderSystem:
         self.reverse_movie_map = model_data['reverse_movie_map']
         self.interaction_matrix = model_data['interaction_matrix']
         self.content_similarity = model_data['content_similarity']
+        self.trained_at = model_data.get('trained_at', int(os.path.getmtime(self.model_path) * 1000))
+        self.interaction_state = model_data.get('interaction_state')
         
         # Reload metadata
         self.movies_metadata = self.data_loader.get_movies_metadata()